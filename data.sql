@@ -1,4 +1,6 @@
 -- 导出 pcms 的数据库结构
+-- 本脚本只建立基线结构（Flyway 迁移的版本 1，建表语句与 db/migration/V1__baseline_schema.sql 逐字一致），不再修改
+-- 之后的结构变化（库存流水、查询索引等）由应用启动时执行的 Flyway 迁移完成：用本脚本建表的库记为版本 1，再执行之后的迁移
 CREATE DATABASE IF NOT EXISTS `pcms` /*!40100 DEFAULT CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci */ /*!80016 DEFAULT ENCRYPTION='N' */;
 USE `pcms`;
 
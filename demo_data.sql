@@ -1,7 +1,7 @@
 -- ============================================
 -- 私人诊所管理系统 - 演示数据SQL脚本
 -- ============================================
--- 注意：此脚本需要先执行 data.sql 创建数据库结构
+-- 注意：此脚本需要先启动一次应用（Flyway 迁移建表）；只执行了 data.sql 的库也要先启动一次应用，补齐之后的迁移（如库存流水表）
 -- 此脚本符合新的数据库约束（唯一约束和级联删除）
 
 -- ============================================
@@ -9,6 +9,7 @@
 -- ============================================
 -- 注意：如果数据库中已有数据，执行此部分会清空所有数据
 SET FOREIGN_KEY_CHECKS = 0;
+TRUNCATE TABLE stock_movement;
 TRUNCATE TABLE prescription_item;
 TRUNCATE TABLE prescription;
 TRUNCATE TABLE medical_case;
@@ -0,0 +1,47 @@
+package org.code.privateclinic.benchmark;
+
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.bean.MedicalCase;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试共用的样例数据，字段长度接近真实数据
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<Drug> drugs(int size) {
+        List<Drug> drugs = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            drugs.add(new Drug(i, "阿莫西林胶囊" + i, "0.25g*24粒/盒，口服，一次2粒，一日3次", 15.5 + i, 100 + (int) i, 1,
+                    LocalDateTime.of(2025, 3, 1, 8, 30, 15), LocalDateTime.of(2025, 3, 2, 9, 0, 0)));
+        }
+        return drugs;
+    }
+
+    static List<MedicalCase> medicalCases(int size) {
+        List<MedicalCase> cases = new ArrayList<>(size);
+        String[] statuses = {"NEW", "TREATING", "PRESCRIBED", "FINISHED"};
+        for (long i = 1; i <= size; i++) {
+            MedicalCase medicalCase = new MedicalCase();
+            medicalCase.setCaseId(i);
+            medicalCase.setPatientId(i % 50 + 1);
+            medicalCase.setPatientName("患者" + (i % 50 + 1));
+            medicalCase.setDoctorId(2L);
+            medicalCase.setDoctorName("doctor1");
+            medicalCase.setSymptom("发热三天，最高体温38.5℃，伴咳嗽、咽痛，无明显胸闷气促");
+            medicalCase.setDiagnosis("急性上呼吸道感染");
+            medicalCase.setCaseStatus(statuses[(int) (i % statuses.length)]);
+            medicalCase.setVisitTime(LocalDateTime.of(2025, 3, 1, 9, 0).plusMinutes(i));
+            medicalCase.setCreateTime(LocalDateTime.of(2025, 3, 1, 9, 0).plusMinutes(i));
+            medicalCase.setUpdateTime(LocalDateTime.of(2025, 3, 1, 10, 0).plusMinutes(i));
+            cases.add(medicalCase);
+        }
+        return cases;
+    }
+}
@@ -0,0 +1,87 @@
+package org.code.privateclinic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.cache.codec.DrugCodec;
+import org.code.privateclinic.cache.codec.JsonValueCodec;
+import org.code.privateclinic.cache.codec.ValueCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值编解码对比：JSON（原有写法）、二进制、二进制 + LZ4
+ * 每个条目的编码字节数在 Setup 阶段输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"json", "binary", "binary-lz4"})
+    private String format;
+
+    @Param({"500"})
+    private int listSize;
+
+    private ValueCodec<Drug> drugCodec;
+    private ValueCodec<List<Drug>> drugListCodec;
+    private Drug drug;
+    private List<Drug> drugList;
+    private byte[] encodedDrug;
+    private byte[] encodedDrugList;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        switch (format) {
+            case "json" -> {
+                drugCodec = new JsonValueCodec<>(objectMapper, objectMapper.constructType(Drug.class));
+                drugListCodec = new JsonValueCodec<>(objectMapper,
+                        objectMapper.getTypeFactory().constructCollectionType(List.class, Drug.class));
+            }
+            case "binary" -> {
+                DrugCodec codec = new DrugCodec(0);
+                drugCodec = codec;
+                drugListCodec = codec.listCodec();
+            }
+            default -> {
+                DrugCodec codec = new DrugCodec(512);
+                drugCodec = codec;
+                drugListCodec = codec.listCodec();
+            }
+        }
+
+        drugList = BenchmarkData.drugs(listSize);
+        drug = drugList.get(0);
+        encodedDrug = drugCodec.encode(drug);
+        encodedDrugList = drugListCodec.encode(drugList);
+        System.out.printf("%n[%s] 单个药品 %d 字节，%d 个药品的列表 %d 字节（平均每个 %.1f 字节）%n",
+                format, encodedDrug.length, listSize, encodedDrugList.length,
+                (double) encodedDrugList.length / listSize);
+    }
+
+    @Benchmark
+    public byte[] encodeDrug() {
+        return drugCodec.encode(drug);
+    }
+
+    @Benchmark
+    public Drug decodeDrug() {
+        return drugCodec.decode(encodedDrug);
+    }
+
+    @Benchmark
+    public byte[] encodeDrugList() {
+        return drugListCodec.encode(drugList);
+    }
+
+    @Benchmark
+    public List<Drug> decodeDrugList() {
+        return drugListCodec.decode(encodedDrugList);
+    }
+}
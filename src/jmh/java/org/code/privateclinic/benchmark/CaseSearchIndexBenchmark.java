@@ -0,0 +1,56 @@
+package org.code.privateclinic.benchmark;
+
+import org.code.privateclinic.search.CaseSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 病历全文搜索的查询耗时：按 cases 条病历建立索引（症状、诊断由常见描述随机组合），
+ * 分别查询常见词、较少见的组合、单个汉字，以及只查某个医生的病历
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CaseSearchIndexBenchmark {
+
+    private static final String[] SYMPTOMS = {
+            "发热三天，最高体温38.5℃", "咳嗽一周，夜间加重", "咽痛伴吞咽困难", "头痛、头晕两天", "腹痛腹泻，每日4次",
+            "胸闷气促，活动后加重", "皮肤瘙痒伴红疹", "腰背酸痛，久坐后明显", "恶心呕吐，进食后加重", "鼻塞流涕，打喷嚏"};
+
+    private static final String[] DIAGNOSES = {
+            "急性上呼吸道感染", "急性支气管炎", "社区获得性肺炎", "偏头痛", "急性胃肠炎",
+            "过敏性皮炎", "腰肌劳损", "慢性咽炎", "过敏性鼻炎", "高血压病"};
+
+    @Param({"1000000"})
+    private int cases;
+
+    @Param({"咳嗽", "发热 肺炎", "晕"})
+    private String keyword;
+
+    private CaseSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new CaseSearchIndex();
+        for (long caseId = 1; caseId <= cases; caseId++) {
+            String symptom = SYMPTOMS[random.nextInt(SYMPTOMS.length)] + "，" + SYMPTOMS[random.nextInt(SYMPTOMS.length)];
+            index.put(caseId, caseId % 50 + 1, caseId, symptom, DIAGNOSES[random.nextInt(DIAGNOSES.length)]);
+        }
+    }
+
+    @Benchmark
+    public CaseSearchIndex.SearchHits searchAll() {
+        return index.search(keyword, null, 0, 20);
+    }
+
+    @Benchmark
+    public CaseSearchIndex.SearchHits searchByDoctor() {
+        return index.search(keyword, 7L, 0, 20);
+    }
+}
@@ -0,0 +1,493 @@
+package org.code.privateclinic.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.code.privateclinic.PrivateClinicApplication;
+import org.code.privateclinic.monitor.PinnedThreadMonitor;
+import org.code.privateclinic.support.EmbeddedMariaDb;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import redis.embedded.RedisServer;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端负载测试：在单机上启动完整的 PrivateClinicApplication，数据库与 Redis 都使用本地替身，不依赖外部服务
+ * 1. 数据库为内嵌 MariaDB，启动前由 Flyway 执行全部迁移，再按 load.* 配置的数量写入数据
+ * 2. Redis 为内嵌 redis-server 进程，监听本机随机端口
+ * 3. 发起脚本化流程：
+ *    医生：登录 → 患者分页列表 → 患者病历时间线 → 新建病历 → 一次性开具带明细的处方
+ *    管理员：登录 → 看板汇总 → 药品列表 → 用户列表 → 药品库存
+ *    开环（默认）：按 load.rate（每秒开始的流程数）发起，流程在 load.workers 个线程上执行，线程全忙且排队已满时记为丢弃；
+ *    流程的延迟从计划开始时间算起，包含排队等待，线程不足时不会被低估
+ *    闭环：配置 load.clients（如 50,200,1000）时，依次以每个数量的并发客户端压测，每个客户端完成一个流程后立即开始下一个
+ * 4. 预热 load.warmup 秒后统计 load.duration 秒，按接口输出吞吐量与 p50/p95/p99 延迟
+ * 5. load.modes（platform、virtual，逗号分隔）中的每种请求线程模式各用一套新的数据库、Redis 与应用实例，
+ *    通过 spring.threads.virtual.enabled 切换，结果按模式分别输出；虚拟线程模式需要 JDK 21 及以上，低版本时跳过。
+ *    虚拟线程模式下同时输出 {@link PinnedThreadMonitor} 记录的固定位置与次数
+ * 其余命令行参数（--key=value）原样传给被测应用
+ * <p>
+ * mvn -Pbenchmark -DskipTests test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.code.privateclinic.benchmark.ClinicLoadHarness
+ * -Dload.rate=20 -Dload.patients=20000 -Dload.duration=60
+ * <p>
+ * 两种线程模式的闭环对比：-Dload.modes=platform,virtual -Dload.clients=50,200,1000
+ */
+public class ClinicLoadHarness {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final int DOCTORS = Integer.getInteger("load.doctors", 20);
+    private static final int PATIENTS = Integer.getInteger("load.patients", 5000);
+    private static final int CASES_PER_PATIENT = Integer.getInteger("load.cases-per-patient", 3);
+    private static final int DRUGS = Integer.getInteger("load.drugs", 500);
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "10"));
+    private static final double ADMIN_RATIO = Double.parseDouble(System.getProperty("load.admin-ratio", "0.1"));
+    private static final int WORKERS = Integer.getInteger("load.workers", 64);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 60);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final LoadTestData data;
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    private ClinicLoadHarness(String baseUrl, LoadTestData data) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors())))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = Arrays.stream(System.getProperty("load.modes", "platform").split(","))
+                .map(String::trim).filter(mode -> !mode.isEmpty()).toList();
+        List<Integer> clientCounts = Arrays.stream(System.getProperty("load.clients", "").split(","))
+                .map(String::trim).filter(count -> !count.isEmpty()).map(Integer::valueOf).toList();
+        File output = new File(System.getProperty("load.output", "target/load-report.json"));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String mode : modes) {
+            boolean virtual = "virtual".equals(mode);
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("当前 JDK " + Runtime.version().feature() + " 不支持虚拟线程，跳过 virtual 模式");
+                continue;
+            }
+            results.addAll(runMode(virtual, clientCounts, args));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("data", Map.of("doctors", DOCTORS, "patients", PATIENTS,
+                "casesPerPatient", CASES_PER_PATIENT, "drugs", DRUGS));
+        report.put("results", results);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, report);
+        System.out.println("结果已写入 " + output.getPath());
+        System.exit(0);
+    }
+
+    /**
+     * 以一种请求线程模式压测：重新准备数据库与 Redis，启动应用，开环压测一次或按各客户端数量依次闭环压测
+     */
+    private static List<Map<String, Object>> runMode(boolean virtual, List<Integer> clientCounts, String[] args) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        int redisPort = freePort();
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        try {
+            String jdbcUrl = EmbeddedMariaDb.jdbcUrl("pcms_load_" + mode);
+            long seedStart = System.nanoTime();
+            LoadTestData data = LoadTestData.seed(jdbcUrl, DOCTORS, PATIENTS, CASES_PER_PATIENT, DRUGS);
+            System.out.printf("[%s] 数据准备完成：医生 %d，患者 %d，病历 %d，药品 %d，耗时 %.1f s%n", mode,
+                    DOCTORS, PATIENTS, PATIENTS * CASES_PER_PATIENT, DRUGS, (System.nanoTime() - seedStart) / 1e9);
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            try (ConfigurableApplicationContext context = start(jdbcUrl, redisPort, virtual, args)) {
+                String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                if (clientCounts.isEmpty()) {
+                    results.add(new ClinicLoadHarness(baseUrl, data).runOpenLoop());
+                } else {
+                    for (int clients : clientCounts) {
+                        results.add(new ClinicLoadHarness(baseUrl, data).runClosedLoop(clients));
+                    }
+                }
+                PinnedThreadMonitor monitor = context.getBeanProvider(PinnedThreadMonitor.class).getIfAvailable();
+                for (Map<String, Object> result : results) {
+                    result.put("mode", mode);
+                    if (monitor != null) {
+                        result.put("pinnedCounts", monitor.getPinnedCounts());
+                    }
+                }
+            }
+            return results;
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 启动被测应用：数据库与 Redis 指向本地替身，接口与管理端口随机分配；命令行参数可覆盖以下默认值，
+     * 请求线程模式以 load.modes 为准
+     */
+    private static ConfigurableApplicationContext start(String jdbcUrl, int redisPort, boolean virtual, String[] args) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", "root");
+        properties.put("spring.datasource.password", "");
+        // 迁移已由 LoadTestData 执行，启动时 Flyway 只做校验
+        properties.put("spring.flyway.placeholders.table_collation", EmbeddedMariaDb.TABLE_COLLATION);
+        properties.put("search.index-dir", "target/load-search-index/" + (virtual ? "virtual" : "platform"));
+        properties.put("spring.data.redis.host", "localhost");
+        properties.put("spring.data.redis.port", String.valueOf(redisPort));
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                properties.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        properties.put("spring.threads.virtual.enabled", String.valueOf(virtual));
+        return new SpringApplicationBuilder(PrivateClinicApplication.class)
+                .initializers(context -> context.getBeanFactory().registerSingleton("benchmarkTypeExcludeFilter", new BenchmarkExcludeFilter()))
+                .run(properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+    }
+
+    /**
+     * 开环压测：按固定速率发起流程，不因响应变慢而减少请求
+     */
+    private Map<String, Object> runOpenLoop() throws InterruptedException {
+        ThreadPoolExecutor workerPool = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WORKERS * 4));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong started = new AtomicLong();
+        AtomicLong dropped = new AtomicLong();
+        long period = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / RATE));
+        scheduler.scheduleAtFixedRate(() -> {
+            long scheduledAt = System.nanoTime();
+            boolean admin = ThreadLocalRandom.current().nextDouble() < ADMIN_RATIO;
+            boolean record = measuring;
+            try {
+                workerPool.execute(() -> runWorkflow(admin, scheduledAt, record));
+                if (record) {
+                    started.incrementAndGet();
+                }
+            } catch (RejectedExecutionException e) {
+                if (record) {
+                    dropped.incrementAndGet();
+                }
+            }
+        }, 0, period, TimeUnit.NANOSECONDS);
+
+        System.out.printf("开环：预热 %d s，目标 %.1f 个流程/s%n", WARMUP_SECONDS, RATE);
+        double elapsedSeconds = measure();
+        scheduler.shutdownNow();
+        workerPool.shutdown();
+        workerPool.awaitTermination(60, TimeUnit.SECONDS);
+
+        System.out.printf("流程：开始 %d，丢弃 %d（线程与队列已满）%n", started.get(), dropped.get());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", RATE);
+        report.put("workers", WORKERS);
+        report.put("workflowsStarted", started.get());
+        report.put("workflowsDropped", dropped.get());
+        return summarize(report, elapsedSeconds);
+    }
+
+    /**
+     * 闭环压测：clients 个客户端线程各自循环执行流程，同一客户端同一时刻只有一个流程在进行
+     */
+    private Map<String, Object> runClosedLoop(int clients) throws InterruptedException {
+        AtomicLong completed = new AtomicLong();
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread client = new Thread(() -> {
+                while (!stopped) {
+                    boolean admin = ThreadLocalRandom.current().nextDouble() < ADMIN_RATIO;
+                    boolean record = measuring;
+                    runWorkflow(admin, System.nanoTime(), record);
+                    if (record) {
+                        completed.incrementAndGet();
+                    }
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            threads.add(client);
+            client.start();
+            // 客户端在一秒内逐步启动，避免瞬间建立大量连接超出监听队列
+            if (i % Math.max(1, clients / 100) == 0) {
+                Thread.sleep(10);
+            }
+        }
+
+        System.out.printf("闭环：预热 %d s，%d 个并发客户端%n", WARMUP_SECONDS, clients);
+        double elapsedSeconds = measure();
+        stopped = true;
+        for (Thread client : threads) {
+            client.join(TimeUnit.SECONDS.toMillis(60));
+        }
+
+        System.out.printf("流程：完成 %d%n", completed.get());
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("workflowsCompleted", completed.get());
+        return summarize(report, elapsedSeconds);
+    }
+
+    /**
+     * 预热后统计 load.duration 秒，返回实际统计时长（秒）
+     */
+    private double measure() throws InterruptedException {
+        Thread.sleep(TimeUnit.SECONDS.toMillis(WARMUP_SECONDS));
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(DURATION_SECONDS));
+        measuring = false;
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * 按接口汇总并打印，写入报告
+     */
+    private Map<String, Object> summarize(Map<String, Object> report, double elapsedSeconds) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> rows.add(entry.getValue().summarize(entry.getKey(), elapsedSeconds)));
+        System.out.printf("%-36s %8s %6s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Map<String, Object> row : rows) {
+            System.out.printf("%-36s %8d %6d %9.1f %9.1f %9.1f %9.1f %9.1f%n", row.get("endpoint"), row.get("requests"),
+                    row.get("errors"), row.get("throughput"), row.get("p50Millis"), row.get("p95Millis"),
+                    row.get("p99Millis"), row.get("maxMillis"));
+        }
+        report.put("adminRatio", ADMIN_RATIO);
+        report.put("durationSeconds", elapsedSeconds);
+        report.put("endpoints", rows);
+        return report;
+    }
+
+    private void runWorkflow(boolean admin, long scheduledAt, boolean record) {
+        String name = admin ? "workflow admin" : "workflow doctor";
+        boolean success = false;
+        try {
+            if (admin) {
+                adminWorkflow(record);
+            } else {
+                doctorWorkflow(record);
+            }
+            success = true;
+        } catch (WorkflowAbortedException e) {
+            // 失败的请求已计入对应接口，后续步骤不再执行
+        } catch (Exception e) {
+            samples(name).error(e.toString());
+        }
+        if (record) {
+            samples(name).record(System.nanoTime() - scheduledAt, success);
+        }
+    }
+
+    private void doctorWorkflow(boolean record) throws Exception {
+        Random random = ThreadLocalRandom.current();
+        int doctorIndex = random.nextInt(data.doctors);
+        long doctorId = LoadTestData.doctorId(doctorIndex);
+        String token = login(LoadTestData.doctorName(doctorIndex), LoadTestData.DOCTOR_PASSWORD, record);
+        long patientId = data.patientOf(doctorIndex, random);
+
+        call("GET /patient/page", get("/patient/page?doctorId=" + doctorId + "&size=20", token), record);
+        call("GET /patient/{patientId}/timeline", get("/patient/" + patientId + "/timeline", token), record);
+
+        Map<String, Object> medicalCase = new LinkedHashMap<>();
+        medicalCase.put("patientId", patientId);
+        medicalCase.put("doctorId", doctorId);
+        medicalCase.put("symptom", "咳嗽一周，夜间加重，无发热");
+        medicalCase.put("diagnosis", "急性支气管炎");
+        medicalCase.put("caseStatus", "TREATING");
+        medicalCase.put("visitTime", LocalDateTime.now().format(TIME_FORMAT));
+        JsonNode created = call("POST /medical-case", post("/medical-case", medicalCase, token), record);
+
+        long firstDrug = data.drug(random);
+        List<Map<String, Object>> items = List.of(
+                Map.of("drugId", firstDrug, "quantity", 1 + random.nextInt(3), "usageMethod", "口服，一日3次"),
+                Map.of("drugId", firstDrug % data.drugs + 1, "quantity", 1, "usageMethod", "口服，一日2次"));
+        Map<String, Object> prescription = new LinkedHashMap<>();
+        prescription.put("caseId", created.path("caseId").asLong());
+        prescription.put("doctorId", doctorId);
+        prescription.put("items", items);
+        call("POST /prescription/with-items", post("/prescription/with-items", prescription, token), record);
+    }
+
+    private void adminWorkflow(boolean record) throws Exception {
+        Random random = ThreadLocalRandom.current();
+        String token = login(LoadTestData.ADMIN_NAME, LoadTestData.ADMIN_PASSWORD, record);
+        call("GET /dashboard/summary", get("/dashboard/summary", token), record);
+        call("GET /drug/list", get("/drug/list", token), record);
+        call("GET /user/list", get("/user/list", token), record);
+        call("GET /drug/stock/{drugId}", get("/drug/stock/" + data.drug(random), token), record);
+    }
+
+    private String login(String userName, String password, boolean record) throws Exception {
+        Map<String, Object> body = Map.of("userId", userName, "password", password);
+        return call("POST /auth/login", post("/auth/login", body, null), record).asText();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws Exception {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * 发送请求并记录延迟；HTTP 状态或响应码不是 200 时计为错误并中止当前流程，成功时返回 data
+     */
+    private JsonNode call(String endpoint, HttpRequest request, boolean record) throws Exception {
+        Samples samples = samples(endpoint);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (Exception e) {
+            if (record) {
+                samples.record(System.nanoTime() - start, false);
+            }
+            samples.error(e.toString());
+            throw new WorkflowAbortedException();
+        }
+        long latency = System.nanoTime() - start;
+        JsonNode body = response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+        boolean success = body != null && body.path("code").asLong() == 200;
+        if (record) {
+            samples.record(latency, success);
+        }
+        if (!success) {
+            samples.error(body != null ? body.path("message").asText() : "HTTP " + response.statusCode());
+            throw new WorkflowAbortedException();
+        }
+        return body.path("data");
+    }
+
+    private Samples samples(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new Samples());
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * 单个接口的延迟样本（纳秒）与错误计数；只保留前几条错误信息用于排查
+     */
+    private static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+        private final List<String> errorMessages = new ArrayList<>();
+
+        synchronized void record(long latency, boolean success) {
+            if (!success) {
+                errors++;
+                return;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+
+        synchronized void error(String message) {
+            if (errorMessages.size() < 5 && !errorMessages.contains(message)) {
+                errorMessages.add(message);
+            }
+        }
+
+        synchronized Map<String, Object> summarize(String endpoint, double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", (long) size);
+            row.put("errors", errors);
+            row.put("throughput", size / elapsedSeconds);
+            row.put("p50Millis", percentile(sorted, 0.50));
+            row.put("p95Millis", percentile(sorted, 0.95));
+            row.put("p99Millis", percentile(sorted, 0.99));
+            row.put("maxMillis", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+            row.put("errorMessages", List.copyOf(errorMessages));
+            return row;
+        }
+    }
+
+    /**
+     * 基准测试类与应用在同一包路径下，启动被测应用时不扫描基准测试包中的配置与接口
+     */
+    private static class BenchmarkExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getClassMetadata().getClassName().startsWith(ClinicLoadHarness.class.getPackageName() + ".");
+        }
+    }
+
+    private static class WorkflowAbortedException extends RuntimeException {
+        WorkflowAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+}
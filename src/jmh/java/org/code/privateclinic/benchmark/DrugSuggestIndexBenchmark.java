@@ -0,0 +1,68 @@
+package org.code.privateclinic.benchmark;
+
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.search.DrugSuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 药品联想的耗时分布（含 p99）：按 drugs 个药品建立索引（名称由常见药名词根与剂型随机组合），
+ * 分别测前缀、拼音首字母与带错字的输入；另测修改一个药品名称后重建索引的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrugSuggestIndexBenchmark {
+
+    private static final String[] STEMS = {
+            "阿莫西林", "阿奇霉素", "阿司匹林", "布洛芬", "对乙酰氨基酚", "头孢克肟", "头孢呋辛", "奥美拉唑", "氯雷他定", "蒙脱石",
+            "二甲双胍", "硝苯地平", "氨氯地平", "辛伐他汀", "甲硝唑", "左氧氟沙星", "氨溴索", "复方甘草", "维生素C", "葡萄糖酸钙"};
+
+    private static final String[] FORMS = {"片", "胶囊", "缓释片", "肠溶片", "颗粒", "口服液", "分散片", "注射液", "混悬液", "软膏"};
+
+    @Param({"5000"})
+    private int drugs;
+
+    @Param({"阿莫", "amxl", "阿莫西淋胶囊", "布落芬缓释"})
+    private String keyword;
+
+    private DrugSuggestIndex index;
+
+    private Drug renamed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Drug> catalog = new ArrayList<>(drugs);
+        for (long drugId = 1; drugId <= drugs; drugId++) {
+            Drug drug = new Drug();
+            drug.setDrugId(drugId);
+            drug.setDrugName(STEMS[random.nextInt(STEMS.length)] + FORMS[random.nextInt(FORMS.length)] + (drugId / 200 == 0 ? "" : "(" + drugId / 200 + ")"));
+            drug.setSpecification((random.nextInt(500) + 1) + "mg*" + (random.nextInt(48) + 6) + "粒");
+            drug.setPrice(10);
+            drug.setStatus(1);
+            catalog.add(drug);
+        }
+        index = DrugSuggestIndex.of(catalog);
+        renamed = new Drug(1L, "阿莫西林克拉维酸钾片", "0.375g*12片", 10, 100, 1, null, null);
+    }
+
+    @Benchmark
+    public List<Drug> suggest() {
+        return index.suggest(keyword, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DrugSuggestIndex rebuildAfterRename() {
+        return index.with(renamed);
+    }
+}
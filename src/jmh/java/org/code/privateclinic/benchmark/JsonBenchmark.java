@@ -0,0 +1,66 @@
+package org.code.privateclinic.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.bean.MedicalCase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 药品、病例列表的 JSON 序列化与反序列化，ObjectMapper 与 Spring Boot 默认配置一致
+ * 对应 JSON 格式的 Redis 缓存值和接口返回
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"100", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private JavaType drugListType;
+    private JavaType caseListType;
+    private List<Drug> drugs;
+    private List<MedicalCase> cases;
+    private byte[] drugJson;
+    private byte[] caseJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        drugListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Drug.class);
+        caseListType = objectMapper.getTypeFactory().constructCollectionType(List.class, MedicalCase.class);
+        drugs = BenchmarkData.drugs(listSize);
+        cases = BenchmarkData.medicalCases(listSize);
+        drugJson = objectMapper.writeValueAsBytes(drugs);
+        caseJson = objectMapper.writeValueAsBytes(cases);
+    }
+
+    @Benchmark
+    public byte[] serializeDrugList() throws Exception {
+        return objectMapper.writeValueAsBytes(drugs);
+    }
+
+    @Benchmark
+    public List<Drug> deserializeDrugList() throws Exception {
+        return objectMapper.readValue(drugJson, drugListType);
+    }
+
+    @Benchmark
+    public byte[] serializeMedicalCaseList() throws Exception {
+        return objectMapper.writeValueAsBytes(cases);
+    }
+
+    @Benchmark
+    public List<MedicalCase> deserializeMedicalCaseList() throws Exception {
+        return objectMapper.readValue(caseJson, caseListType);
+    }
+}
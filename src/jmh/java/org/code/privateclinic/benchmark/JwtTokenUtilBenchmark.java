@@ -0,0 +1,92 @@
+package org.code.privateclinic.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.code.privateclinic.config.JwtProperties;
+import org.code.privateclinic.util.JwtKeyRing;
+import org.code.privateclinic.util.JwtTokenUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenUtilBenchmark {
+
+    private static final String SECRET1 = "mySecretKey1234567890abcdefghijklmnopqrstuvwxyz";
+    private static final String SECRET2 = "qwertyuioplkjhgfdsazxcvbnm1092837456mySecretKey";
+
+    private JwtTokenUtil jwtTokenUtil;
+    private JwtTokenUtil uncachedJwtTokenUtil;
+    private String key1Token;
+    private String key2Token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(properties(10_000));
+        jwtTokenUtil = new JwtTokenUtil(keyRing, properties(10_000));
+        uncachedJwtTokenUtil = new JwtTokenUtil(keyRing, properties(0));
+        Map<String, Object> claims = Map.of("userId", "1", "userName", "doctor1", "userRole", "DOCTOR");
+        key1Token = jwtTokenUtil.generateToken("1", claims);
+        key2Token = Jwts.builder()
+                .claims(claims)
+                .subject("1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 7200_000L))
+                .header().keyId("k2").and()
+                .signWith(Keys.hmacShaKeyFor(SECRET2.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static JwtProperties properties(long claimsCacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setExpiration(7200L);
+        properties.setClaimsCacheSize(claimsCacheSize);
+        properties.setKeys(List.of(key("k1", SECRET1), key("k2", SECRET2)));
+        return properties;
+    }
+
+    private static JwtProperties.KeyDefinition key(String id, String secret) {
+        JwtProperties.KeyDefinition definition = new JwtProperties.KeyDefinition();
+        definition.setId(id);
+        definition.setSecret(secret);
+        return definition;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken("1", Map.of("userName", "doctor1"));
+    }
+
+    @Benchmark
+    public Claims validateKey1Token() {
+        return jwtTokenUtil.validateToken(key1Token);
+    }
+
+    @Benchmark
+    public Claims validateKey2Token() {
+        return jwtTokenUtil.validateToken(key2Token);
+    }
+
+    @Benchmark
+    public boolean authenticateRequest() {
+        // 一次请求中常见的调用组合：解析用户名并检查是否即将过期
+        return jwtTokenUtil.getUsernameFromToken(key1Token) != null
+                && !jwtTokenUtil.isTokenExpiringSoon(key1Token, 300);
+    }
+
+    @Benchmark
+    public Claims validateKey2TokenUncached() {
+        // 关闭声明缓存，衡量按 kid 选钥后单次完整验签的开销
+        return uncachedJwtTokenUtil.validateToken(key2Token);
+    }
+}
@@ -0,0 +1,184 @@
+package org.code.privateclinic.benchmark;
+
+import org.code.privateclinic.support.EmbeddedMariaDb;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * 负载测试数据：在空的内嵌数据库上由 Flyway 执行 db/migration 全部迁移建表，再按配置的数量批量写入用户、药品、患者、病历与处方
+ * 基线迁移保留了 data.sql 的自增起始值，因此写入时显式指定主键，各类记录的ID可以直接由序号算出：
+ * 管理员ID为 1，第 i 个医生（从 0 开始）的ID为 i + 2，药品、患者、病历、处方的ID从 1 开始，患者 p 属于第 (p - 1) % 医生数 个医生
+ */
+final class LoadTestData {
+
+    static final String ADMIN_NAME = "admin";
+    static final String ADMIN_PASSWORD = "admin123";
+    static final String DOCTOR_PASSWORD = "doctor123";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int DRUG_STOCK = 10_000_000;
+
+    final int doctors;
+    final int patients;
+    final int drugs;
+
+    private LoadTestData(int doctors, int patients, int drugs) {
+        this.doctors = doctors;
+        this.patients = patients;
+        this.drugs = drugs;
+    }
+
+    static String doctorName(int doctorIndex) {
+        return "doctor" + (doctorIndex + 1);
+    }
+
+    static long doctorId(int doctorIndex) {
+        return doctorIndex + 2L;
+    }
+
+    /**
+     * 随机取该医生名下的一个患者
+     */
+    long patientOf(int doctorIndex, Random random) {
+        int perDoctor = Math.max(1, (patients - doctorIndex + doctors - 1) / doctors);
+        return (long) random.nextInt(perDoctor) * doctors + doctorIndex + 1;
+    }
+
+    long drug(Random random) {
+        return random.nextInt(drugs) + 1L;
+    }
+
+    /**
+     * 执行迁移并写入数据；每个病历带一张处方，每张处方两条明细
+     */
+    static LoadTestData seed(String jdbcUrl, int doctors, int patients, int casesPerPatient, int drugs) throws Exception {
+        if (doctors < 1 || patients < doctors || drugs < 2) {
+            throw new IllegalArgumentException("至少需要 1 个医生、不少于医生数的患者和 2 种药品");
+        }
+        EmbeddedMariaDb.flyway(jdbcUrl).load().migrate();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "root", "")) {
+            connection.setAutoCommit(false);
+            insertUsers(connection, doctors);
+            insertDrugs(connection, drugs);
+            insertPatients(connection, doctors, patients);
+            insertCases(connection, doctors, patients, casesPerPatient, drugs);
+            connection.commit();
+        }
+        return new LoadTestData(doctors, patients, drugs);
+    }
+
+    private static void insertUsers(Connection connection, int doctors) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO user (user_id, password, user_name, role, phone, status) VALUES (?, ?, ?, ?, ?, 1)")) {
+            addUser(statement, 1L, ADMIN_PASSWORD, ADMIN_NAME, "ADMIN", "13800000000");
+            for (int i = 0; i < doctors; i++) {
+                addUser(statement, doctorId(i), DOCTOR_PASSWORD, doctorName(i), "DOCTOR", String.format("139%08d", i));
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void addUser(PreparedStatement statement, long userId, String password, String userName, String role,
+                                String phone) throws SQLException {
+        statement.setLong(1, userId);
+        statement.setString(2, password);
+        statement.setString(3, userName);
+        statement.setString(4, role);
+        statement.setString(5, phone);
+        statement.addBatch();
+    }
+
+    private static void insertDrugs(Connection connection, int drugs) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO drug (drug_id, drug_name, specification, price, stock, status) VALUES (?, ?, ?, ?, ?, 1)")) {
+            for (int i = 1; i <= drugs; i++) {
+                statement.setLong(1, i);
+                statement.setString(2, "药品" + i);
+                statement.setString(3, "0.25g*24粒/盒");
+                statement.setBigDecimal(4, BigDecimal.valueOf(500 + i % 5000, 2));
+                statement.setInt(5, DRUG_STOCK);
+                addBatch(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void insertPatients(Connection connection, int doctors, int patients) throws SQLException {
+        String[] genders = {"男", "女"};
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO patient (patient_id, patient_name, gender, age, phone, address, doctor_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int p = 1; p <= patients; p++) {
+                statement.setLong(1, p);
+                statement.setString(2, "患者" + p);
+                statement.setString(3, genders[p % 2]);
+                statement.setInt(4, 1 + p % 90);
+                statement.setString(5, String.format("15%09d", p));
+                statement.setString(6, "北京市朝阳区建国路" + p % 500 + "号");
+                statement.setLong(7, doctorId((p - 1) % doctors));
+                addBatch(statement, p);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void insertCases(Connection connection, int doctors, int patients, int casesPerPatient, int drugs) throws SQLException {
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        long prescriptionId = 0;
+        try (PreparedStatement cases = connection.prepareStatement(
+                "INSERT INTO medical_case (case_id, patient_id, doctor_id, symptom, diagnosis, case_status, visit_time) VALUES (?, ?, ?, ?, ?, 'FINISHED', ?)");
+             PreparedStatement prescriptions = connection.prepareStatement(
+                     "INSERT INTO prescription (prescription_id, case_id, doctor_id, total_amount) VALUES (?, ?, ?, ?)");
+             PreparedStatement items = connection.prepareStatement(
+                     "INSERT INTO prescription_item (prescription_id, drug_id, quantity, usage_method, price) VALUES (?, ?, 1, '口服，一日3次', ?)")) {
+            long caseId = 0;
+            for (int p = 1; p <= patients; p++) {
+                long doctorId = doctorId((p - 1) % doctors);
+                for (int c = 0; c < casesPerPatient; c++) {
+                    caseId++;
+                    cases.setLong(1, caseId);
+                    cases.setLong(2, p);
+                    cases.setLong(3, doctorId);
+                    cases.setString(4, "发热三天，最高体温38.5℃，伴咳嗽、咽痛");
+                    cases.setString(5, "急性上呼吸道感染");
+                    cases.setTimestamp(6, Timestamp.valueOf(start.plusMinutes(caseId % 525_600)));
+                    addBatch(cases, caseId);
+
+                    prescriptionId++;
+                    prescriptions.setLong(1, prescriptionId);
+                    prescriptions.setLong(2, caseId);
+                    prescriptions.setLong(3, doctorId);
+                    prescriptions.setBigDecimal(4, new BigDecimal("30.00"));
+                    prescriptions.addBatch();
+                    for (int k = 0; k < 2; k++) {
+                        items.setLong(1, prescriptionId);
+                        items.setLong(2, (caseId + k) % drugs + 1);
+                        items.setBigDecimal(3, new BigDecimal("15.00"));
+                        items.addBatch();
+                    }
+                    if (caseId % BATCH_SIZE == 0) {
+                        // 外键约束要求按病历、处方、明细的顺序写入
+                        prescriptions.executeBatch();
+                        items.executeBatch();
+                    }
+                }
+            }
+            cases.executeBatch();
+            prescriptions.executeBatch();
+            items.executeBatch();
+        }
+    }
+
+    private static void addBatch(PreparedStatement statement, long count) throws SQLException {
+        statement.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+    }
+}
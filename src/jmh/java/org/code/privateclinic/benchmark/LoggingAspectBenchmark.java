@@ -0,0 +1,134 @@
+package org.code.privateclinic.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.aspect.LoggingAspect;
+import org.code.privateclinic.config.LoggableProperties;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志切面每次调用的开销：不经过切面、原有写法（每次反射取注解、两行同步 INFO）、
+ * 缓存方法信息后只记录慢调用、缓存方法信息且全部采样记录
+ * 日志写入丢弃输出的同步 Appender，只计算格式化与调用本身的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    @Param({"none", "legacy", "optimized", "optimized-sampled"})
+    private String aspect;
+
+    private SampleService service;
+
+    @Setup
+    public void setUp() {
+        configureLogging();
+        SampleService target = new SampleService();
+        if ("none".equals(aspect)) {
+            service = target;
+            return;
+        }
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        if ("legacy".equals(aspect)) {
+            factory.addAspect(new LegacyLoggingAspect());
+        } else {
+            LoggableProperties properties = new LoggableProperties();
+            properties.setSampleRate("optimized-sampled".equals(aspect) ? 1.0 : 0.0);
+            LoggingAspect loggingAspect = new LoggingAspect();
+            ReflectionTestUtils.setField(loggingAspect, "loggableProperties", properties);
+            factory.addAspect(loggingAspect);
+        }
+        service = factory.getProxy();
+    }
+
+    @Benchmark
+    public List<String> call() {
+        return service.getDrugNames();
+    }
+
+    private static void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p ${PID:- } --- [%15.15t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+    }
+
+    public static class SampleService {
+
+        private final List<String> drugNames = List.of("阿莫西林", "布洛芬", "板蓝根");
+
+        @Loggable("查询药品名称")
+        public List<String> getDrugNames() {
+            return drugNames;
+        }
+    }
+
+    /**
+     * 原有的日志切面写法
+     */
+    @Slf4j
+    @Aspect
+    public static class LegacyLoggingAspect {
+
+        @Around("@annotation(org.code.privateclinic.annotation.Loggable)")
+        public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            long startTime = System.currentTimeMillis();
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            Method method = signature.getMethod();
+            Loggable loggable = method.getAnnotation(Loggable.class);
+            String className = joinPoint.getTarget().getClass().getSimpleName();
+            String description = loggable.value().isEmpty() ? method.getName() : loggable.value();
+            log.info("开始执行: {}.{}()", className, description);
+            try {
+                Object result = joinPoint.proceed();
+                long duration = System.currentTimeMillis() - startTime;
+                if (result instanceof Collection) {
+                    int size = ((Collection<?>) result).size();
+                    log.info("执行成功: {}，返回 {} 条记录，耗时 {} ms", description, size, duration);
+                } else if (result != null) {
+                    log.info("执行成功: {}，耗时 {} ms", description, duration);
+                } else {
+                    log.warn("执行完成: {}，返回 null，耗时 {} ms", description, duration);
+                }
+                return result;
+            } catch (Exception e) {
+                long duration = System.currentTimeMillis() - startTime;
+                log.error("执行异常: {}，错误信息: {}，耗时 {} ms", description, e.getMessage(), duration, e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.code.privateclinic.benchmark;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.mapper.MedicalCaseMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 执行病例联表查询（病例 + 患者姓名 + 医生姓名）并映射为 MedicalCase 列表的耗时
+ * 使用 H2 内存数据库（MySQL 兼容模式）和项目中的 MedicalCaseMapper.xml，包含 SQL 执行与结果映射
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MedicalCaseMapperBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:pcms;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE user (user_id BIGINT AUTO_INCREMENT PRIMARY KEY, password VARCHAR(100) NOT NULL, "
+                    + "user_name VARCHAR(50) NOT NULL, role VARCHAR(20) NOT NULL, phone VARCHAR(20), status TINYINT DEFAULT 1, "
+                    + "create_time DATETIME DEFAULT CURRENT_TIMESTAMP, update_time DATETIME DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE patient (patient_id BIGINT AUTO_INCREMENT PRIMARY KEY, patient_name VARCHAR(50) NOT NULL, "
+                    + "gender VARCHAR(10), age INT, phone VARCHAR(20), address VARCHAR(200), remark VARCHAR(200), "
+                    + "doctor_id BIGINT NOT NULL, create_time DATETIME DEFAULT CURRENT_TIMESTAMP, "
+                    + "update_time DATETIME DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE TABLE medical_case (case_id BIGINT AUTO_INCREMENT PRIMARY KEY, patient_id BIGINT NOT NULL, "
+                    + "doctor_id BIGINT NOT NULL, symptom TEXT, diagnosis TEXT, case_status VARCHAR(20) NOT NULL, "
+                    + "visit_time DATETIME, create_time DATETIME DEFAULT CURRENT_TIMESTAMP, "
+                    + "update_time DATETIME DEFAULT CURRENT_TIMESTAMP)",
+            "CREATE INDEX idx_case_patient ON medical_case (patient_id, create_time)"
+    };
+
+    @Param({"10", "100", "1000"})
+    private int casesPerPatient;
+
+    private PooledDataSource dataSource;
+    private SqlSession sqlSession;
+    private MedicalCaseMapper mapper;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new PooledDataSource("org.h2.Driver", URL, "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+            statement.execute("INSERT INTO user (password, user_name, role) VALUES ('x', 'doctor1', 'DOCTOR')");
+            statement.execute("INSERT INTO patient (patient_name, gender, age, doctor_id) VALUES ('张三', '男', 30, 1)");
+            seedCases(connection);
+        }
+
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.getTypeAliasRegistry().registerAliases("org.code.privateclinic.bean");
+        String resource = "mapper/MedicalCaseMapper.xml";
+        try (InputStream inputStream = MedicalCaseMapperBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+            new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+        }
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        sqlSession = sqlSessionFactory.openSession(true);
+        mapper = sqlSession.getMapper(MedicalCaseMapper.class);
+    }
+
+    private void seedCases(Connection connection) throws Exception {
+        String sql = "INSERT INTO medical_case (patient_id, doctor_id, symptom, diagnosis, case_status, visit_time, create_time) "
+                + "VALUES (1, 1, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (MedicalCase medicalCase : BenchmarkData.medicalCases(casesPerPatient)) {
+                statement.setString(1, medicalCase.getSymptom());
+                statement.setString(2, medicalCase.getDiagnosis());
+                statement.setString(3, medicalCase.getCaseStatus());
+                statement.setTimestamp(4, Timestamp.valueOf(medicalCase.getVisitTime()));
+                statement.setTimestamp(5, Timestamp.valueOf(medicalCase.getCreateTime()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sqlSession.close();
+        dataSource.forceCloseAll();
+    }
+
+    @Benchmark
+    public List<MedicalCase> getMedicalCaseByPatientId() {
+        // 关闭一级缓存的效果：每次查询前清空会话缓存，保证每次都执行 SQL 并映射结果
+        sqlSession.clearCache();
+        return mapper.getMedicalCaseByPatientId(1L, casesPerPatient);
+    }
+
+    @Benchmark
+    public MedicalCase getMedicalCaseById() {
+        sqlSession.clearCache();
+        return mapper.getMedicalCaseById(1L);
+    }
+}
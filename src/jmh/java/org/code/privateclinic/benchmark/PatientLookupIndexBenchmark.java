@@ -0,0 +1,57 @@
+package org.code.privateclinic.benchmark;
+
+import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.search.PatientLookupIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 前台查找患者的耗时：按 patients 名患者建立索引（姓名由常见姓氏与名字用字随机组合），
+ * 分别按姓氏、完整姓名、拼音首字母与手机尾号查找前 20 个
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PatientLookupIndexBenchmark {
+
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗";
+
+    private static final String GIVEN = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰";
+
+    @Param({"200000"})
+    private int patients;
+
+    @Param({"张", "张伟", "zw", "1234"})
+    private String keyword;
+
+    private PatientLookupIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new PatientLookupIndex();
+        for (long patientId = 1; patientId <= patients; patientId++) {
+            StringBuilder name = new StringBuilder().append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+            for (int i = 1 + random.nextInt(2); i > 0; i--) {
+                name.append(GIVEN.charAt(random.nextInt(GIVEN.length())));
+            }
+            Patient patient = new Patient();
+            patient.setPatientId(patientId);
+            patient.setPatientName(name.toString());
+            patient.setPhone(String.format("138%08d", random.nextInt(100_000_000)));
+            patient.setDoctorId(patientId % 50 + 1);
+            index.put(patient);
+        }
+    }
+
+    @Benchmark
+    public List<Patient> lookup() {
+        return index.lookup(keyword, 20);
+    }
+}
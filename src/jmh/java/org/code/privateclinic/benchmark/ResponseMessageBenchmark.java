@@ -0,0 +1,53 @@
+package org.code.privateclinic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.common.ResponseMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口统一返回体的构造与序列化：成功（单个对象、列表）与失败三种常见返回
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMessageBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Drug drug;
+    private List<Drug> drugs;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        drugs = BenchmarkData.drugs(20);
+        drug = drugs.get(0);
+    }
+
+    @Benchmark
+    public ResponseMessage<Drug> constructSuccess() {
+        return ResponseMessage.success(drug);
+    }
+
+    @Benchmark
+    public byte[] serializeSuccess() throws Exception {
+        return objectMapper.writeValueAsBytes(ResponseMessage.success(drug));
+    }
+
+    @Benchmark
+    public byte[] serializeSuccessList() throws Exception {
+        return objectMapper.writeValueAsBytes(ResponseMessage.success(drugs));
+    }
+
+    @Benchmark
+    public byte[] serializeFailed() throws Exception {
+        return objectMapper.writeValueAsBytes(ResponseMessage.failed("未查询到相关患者信息"));
+    }
+}
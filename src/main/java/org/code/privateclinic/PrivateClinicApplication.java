@@ -2,8 +2,10 @@ package org.code.privateclinic;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PrivateClinicApplication {
 
     public static void main(String[] args) {
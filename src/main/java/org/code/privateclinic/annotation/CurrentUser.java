@@ -0,0 +1,14 @@
+package org.code.privateclinic.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 当前登录用户注解，标注在 LoginUser 类型的控制器参数上，由认证拦截器解析 Token 后注入
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
@@ -0,0 +1,26 @@
+package org.code.privateclinic.annotation;
+
+import org.code.privateclinic.common.UserRole;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 接口角色注解，标注后请求必须携带有效 Token 且角色匹配才能访问
+ * 标注在类上时对所有接口生效，方法上的注解优先
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequireRole {
+    /**
+     * 允许访问的角色
+     */
+    UserRole[] value();
+
+    /**
+     * 无权访问时返回的提示信息
+     */
+    String message() default "没有相关权限";
+}
@@ -1,5 +1,7 @@
 package org.code.privateclinic.aspect;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -7,19 +9,45 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.config.LoggableProperties;
+import org.code.privateclinic.monitor.CacheOutcome;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 日志切面类（AOP）
+ * 1. 每个方法的类名、描述、采样率、慢调用阈值只在第一次调用时解析，之后从缓存读取
+ * 2. 正常完成的调用按采样率以 INFO 记录，耗时达到慢调用阈值的调用和异常一定记录
+ * 3. 本类的日志经 logback-spring.xml 中的异步队列输出，业务线程不等待日志写出
+ * 4. 每次调用的耗时记录到 clinic.operation 计时器，标签为操作（类名.方法名）、结果（success/error）
+ *    和缓存（none/hit/miss，见 {@link CacheOutcome}），计时器随方法信息一起缓存，记录时不分配对象
  */
 @Slf4j
 @Aspect // AOP切面类
 @Component
 public class LoggingAspect {
 
+    static final String METER_NAME = "clinic.operation";
+
+    private static final List<String> OUTCOMES = List.of("success", "error");
+
+    @Autowired
+    private LoggableProperties loggableProperties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Method, MethodLog> methodLogs = new ConcurrentHashMap<>();
+
     /**
      * 定义切入点（Pointcut）：匹配所有标注了@Loggable自定义注解的方法
      */
@@ -34,54 +62,108 @@ public class LoggingAspect {
      */
     @Around("loggableMethods()") // 指定该通知作用于上面定义的loggableMethods切入点
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        // 记录方法执行开始时间（用于计算总耗时）
-        long startTime = System.currentTimeMillis();
-
-        // 获取目标方法的签名信息（强转为MethodSignature，因为切入点是方法）
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod(); // 拿到目标方法的反射对象
-
-        // 获取目标方法上的@Loggable注解（读取注解中的自定义描述）
-        Loggable loggable = method.getAnnotation(Loggable.class);
-
-        // 拼接日志展示的基础信息
-        // 获取目标方法所属类的简单类名（如MedicalCaseController）
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        // 优先使用注解的value作为日志描述，若为空则使用方法名
-        String description = loggable.value().isEmpty() ? method.getName() : loggable.value();
-
-        // 打印「方法开始执行」日志
-        log.info("开始执行: {}.{}()", className, description);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodLog methodLog = methodLogs.get(method);
+        if (methodLog == null) {
+            methodLog = methodLogs.computeIfAbsent(method, key -> resolve(key, joinPoint.getTarget()));
+        }
 
+        int outerCacheOutcome = CacheOutcome.begin();
+        long startTime = System.nanoTime();
         try {
             // 执行目标方法（核心步骤：调用被注解标记的业务方法）
             Object result = joinPoint.proceed();
-
-            // 计算方法执行耗时（结束时间 - 开始时间）
-            long duration = System.currentTimeMillis() - startTime;
-
-            // 根据返回值类型，打印不同格式的「执行成功」日志
-            if (result instanceof Collection) {
-                // 若返回值是集合（List/Set等），额外打印集合大小
-                int size = ((Collection<?>) result).size();
-                log.info("执行成功: {}，返回 {} 条记录，耗时 {} ms", description, size, duration);
-            } else if (result != null) {
-                // 若返回值非空且非集合，仅打印耗时
-                log.info("执行成功: {}，耗时 {} ms", description, duration);
-            } else {
-                // 若返回值为null，打印警告级日志（区分正常空返回和异常）
-                log.warn("执行完成: {}，返回 null，耗时 {} ms", description, duration);
+            long duration = System.nanoTime() - startTime;
+            methodLog.record(false, CacheOutcome.end(outerCacheOutcome), duration);
+            if (duration >= methodLog.slowThresholdNanos) {
+                logResult("执行较慢", methodLog, result, duration);
+            } else if (methodLog.sampled()) {
+                logResult("执行成功", methodLog, result, duration);
             }
-
             // 返回目标方法的执行结果（保证业务逻辑的返回值不受切面影响）
             return result;
         } catch (Exception e) {
-            // 捕获目标方法抛出的异常，记录「执行异常」日志
-            long duration = System.currentTimeMillis() - startTime;
-            // 打印error级日志，包含描述、错误信息、耗时，最后传入e打印完整堆栈（便于排查问题）
-            log.error("执行异常: {}，错误信息: {}，耗时 {} ms", description, e.getMessage(), duration, e);
+            // 异常一定记录，最后传入e打印完整堆栈（便于排查问题）
+            long duration = System.nanoTime() - startTime;
+            methodLog.record(true, CacheOutcome.end(outerCacheOutcome), duration);
+            log.error("执行异常: {}.{}，错误信息: {}，耗时 {} ms",
+                    methodLog.className, methodLog.description, e.getMessage(), duration / 1_000_000, e);
             // 重新抛出异常（切面仅记录日志，不处理异常，由业务层自行处理）
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    private static void logResult(String outcome, MethodLog methodLog, Object result, long duration) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        long millis = duration / 1_000_000;
+        if (result instanceof Collection<?> collection) {
+            // 若返回值是集合（List/Set等），额外打印集合大小
+            log.info("{}: {}.{}，返回 {} 条记录，耗时 {} ms",
+                    outcome, methodLog.className, methodLog.description, collection.size(), millis);
+        } else if (result != null) {
+            log.info("{}: {}.{}，耗时 {} ms", outcome, methodLog.className, methodLog.description, millis);
+        } else {
+            log.info("{}: {}.{}，返回 null，耗时 {} ms", outcome, methodLog.className, methodLog.description, millis);
+        }
+    }
+
+    /**
+     * 解析方法的日志配置，只在方法第一次被调用时执行
+     */
+    private MethodLog resolve(Method method, Object target) {
+        Class<?> targetClass = AopUtils.getTargetClass(target);
+        Loggable loggable = method.getAnnotation(Loggable.class);
+        if (loggable == null) {
+            loggable = AopUtils.getMostSpecificMethod(method, targetClass).getAnnotation(Loggable.class);
+        }
+        String className = targetClass.getSimpleName();
+        // 优先使用注解的value作为日志描述，若为空则使用方法名
+        String description = loggable == null || loggable.value().isEmpty() ? method.getName() : loggable.value();
+
+        double sampleRate = loggableProperties.getSampleRate();
+        long slowThresholdNanos = loggableProperties.getSlowThreshold().toNanos();
+        LoggableProperties.MethodSettings settings = loggableProperties.getMethods().get(className + "." + method.getName());
+        if (settings != null) {
+            if (settings.getSampleRate() != null) {
+                sampleRate = settings.getSampleRate();
+            }
+            if (settings.getSlowThreshold() != null) {
+                slowThresholdNanos = settings.getSlowThreshold().toNanos();
+            }
+        }
+        return new MethodLog(className, description, sampleRate, slowThresholdNanos,
+                className + "." + method.getName(), meterRegistry,
+                meterRegistry == null ? null : new Timer[OUTCOMES.size() * CacheOutcome.TAGS.size()]);
+    }
+
+    /**
+     * timers 按「结果 * 缓存标签数 + 缓存结果」排列，第一次出现该组合时注册；未配置指标时为 null
+     */
+    private record MethodLog(String className, String description, double sampleRate, long slowThresholdNanos,
+                             String operation, MeterRegistry meterRegistry, Timer[] timers) {
+
+        void record(boolean error, int cacheOutcome, long duration) {
+            if (timers == null) {
+                return;
+            }
+            int outcome = error ? 1 : 0;
+            int index = outcome * CacheOutcome.TAGS.size() + cacheOutcome;
+            Timer timer = timers[index];
+            if (timer == null) {
+                timer = Timer.builder(METER_NAME)
+                        .tag("operation", operation)
+                        .tag("outcome", OUTCOMES.get(outcome))
+                        .tag("cache", CacheOutcome.TAGS.get(cacheOutcome))
+                        .register(meterRegistry);
+                timers[index] = timer;
+            }
+            timer.record(duration, TimeUnit.NANOSECONDS);
+        }
+
+        boolean sampled() {
+            return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        }
+    }
+}
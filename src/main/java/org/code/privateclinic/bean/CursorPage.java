@@ -0,0 +1,36 @@
+package org.code.privateclinic.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.code.privateclinic.common.PageCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果，nextCursor 为空表示没有下一页
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * 根据多查询一条的结果构造分页：rows 超过 size 条说明还有下一页
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode(), true);
+    }
+}
@@ -0,0 +1,40 @@
+package org.code.privateclinic.bean;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashboardSummary {
+    private long patientCount;
+
+    private long caseCount;
+
+    // 各状态病例数，键为病例状态
+    private Map<String, Long> caseStatusCounts;
+
+    // 今日处方数
+    private long prescriptionCountToday;
+
+    // 今日处方金额
+    private BigDecimal revenueToday;
+
+    // 启用中的药品数
+    private long drugCount;
+
+    // 库存低于阈值的启用药品数
+    private long lowStockDrugCount;
+
+    private int lowStockThreshold;
+
+    // 计数最近一次与数据库校准的时间
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime reconcileTime;
+}
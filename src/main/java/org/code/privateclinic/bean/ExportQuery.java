@@ -0,0 +1,22 @@
+package org.code.privateclinic.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 导出条件：创建时间范围 [startTime, endTime)、负责医生，为空时不过滤
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportQuery {
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    private Long doctorId;
+}
@@ -0,0 +1,20 @@
+package org.code.privateclinic.bean;
+
+import lombok.Value;
+import org.code.privateclinic.common.UserRole;
+
+/**
+ * 当前登录用户（不可变），由 Token 中的声明构建，不再查询数据库
+ */
+@Value
+public class LoginUser {
+    Long userId;
+
+    String userName;
+
+    UserRole role;
+
+    public boolean hasRole(UserRole expected) {
+        return role == expected;
+    }
+}
@@ -0,0 +1,20 @@
+package org.code.privateclinic.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientTimeline {
+    private Patient patient;
+
+    // 病例按创建时间倒序，每个病例带有处方，处方带有明细
+    private List<MedicalCase> cases;
+
+    // 病例、处方或处方明细条数达到上限（pagination.list-limit、timeline.item-limit），只包含最近的部分
+    private boolean truncated;
+}
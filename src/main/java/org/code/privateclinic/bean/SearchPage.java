@@ -0,0 +1,24 @@
+package org.code.privateclinic.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 按相关度排序的搜索结果分页，page 从 1 开始，total 为命中总数
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPage<T> {
+
+    private List<T> items;
+
+    private long total;
+
+    private int page;
+
+    private int size;
+}
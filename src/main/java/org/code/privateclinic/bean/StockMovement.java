@@ -0,0 +1,35 @@
+package org.code.privateclinic.bean;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockMovement {
+    // 出库（开具处方明细）
+    public static final String DISPENSE = "DISPENSE";
+    // 归还（删除或减少处方明细）
+    public static final String RELEASE = "RELEASE";
+    // 管理员调整库存
+    public static final String ADJUST = "ADJUST";
+
+    private Long movementId;
+
+    private Long drugId;
+
+    // 关联的处方明细，调整库存时为空
+    private Long itemId;
+
+    // 库存变动量，出库为负
+    private Integer quantity;
+
+    private String movementType;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,270 @@
+package org.code.privateclinic.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.cache.codec.ValueCodec;
+import org.code.privateclinic.monitor.CacheOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Redis 药品目录：整个目录是一个哈希，字段为药品ID，值为 {@link ValueCodec} 编码后的药品
+ * 1. 药品增删改时只写回变化的那一个字段，不再整体重建目录
+ * 2. 目录从数据库完整加载过后写入标记字段，有标记时哈希中查不到的药品即视为不存在
+ * 3. 批量查询使用一次 HMGET
+ * 4. 加载时用 HSETNX 写入，避免覆盖加载期间已经写回的较新数据
+ * 5. 命中与未命中计入 clinic.cache.requests 指标，并标记到当前操作的 {@link CacheOutcome}
+ */
+@Slf4j
+@Component
+public class DrugCatalogCache {
+
+    static final String CATALOG_KEY = "drug:catalog";
+
+    /**
+     * 目录完整标记字段，药品ID均为数字，不会与之冲突
+     */
+    static final String LOADED_FIELD = "_loaded";
+
+    /**
+     * ARGV[1] 过期时间（毫秒），ARGV[2] 是否为完整加载，其后为字段与值成对出现
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 3, #ARGV - 1, 2 do "
+                    + "redis.call('HSETNX', KEYS[1], ARGV[i], ARGV[i + 1]) "
+                    + "end "
+                    + "if ARGV[2] == '1' then redis.call('HSET', KEYS[1], '" + LOADED_FIELD + "', '1') end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 写回单个字段；哈希原本不存在时补上过期时间
+     */
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], ARGV[2], ARGV[3]) "
+                    + "if redis.call('PTTL', KEYS[1]) < 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return 1",
+            Long.class);
+
+    private static final Counter HITS = Metrics.counter("clinic.cache.requests", "cache", "drug-catalog", "result", "hit");
+
+    private static final Counter MISSES = Metrics.counter("clinic.cache.requests", "cache", "drug-catalog", "result", "miss");
+
+    @Autowired
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Autowired
+    private ValueCodec<Drug> drugCodec;
+
+    @Autowired
+    private RedisCacheAside cacheAside;
+
+    @Value("${cache.redis.drug-catalog-ttl:24h}")
+    private Duration catalogTtl;
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    /**
+     * 获取目录中的全部药品（包含已停用的），目录不完整时用 loader 从数据库完整加载
+     */
+    public List<Drug> getAll(Supplier<List<Drug>> loader) {
+        Map<String, byte[]> entries = null;
+        try {
+            entries = binaryRedisTemplate.<String, byte[]>opsForHash().entries(CATALOG_KEY);
+        } catch (Exception e) {
+            log.warn("读取药品目录缓存失败，直接查询数据库，错误信息: {}", e.getMessage());
+        }
+        if (entries != null && entries.containsKey(LOADED_FIELD)) {
+            List<Drug> drugs = new ArrayList<>(entries.size());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                if (!LOADED_FIELD.equals(entry.getKey())) {
+                    Drug drug = decode(entry.getValue());
+                    if (drug == null) {
+                        invalidate();
+                        return loadAll(loader);
+                    }
+                    drugs.add(drug);
+                }
+            }
+            hit();
+            return drugs;
+        }
+        return loadAll(loader);
+    }
+
+    /**
+     * 根据ID获取药品，一次 HMGET 同时取回字段和完整标记
+     */
+    public Drug get(Long drugId, Supplier<Drug> loader) {
+        Map<Long, Drug> drugs = multiGet(List.of(drugId), missing -> {
+            Drug drug = loader.get();
+            return drug == null ? List.of() : List.of(drug);
+        });
+        return drugs.get(drugId);
+    }
+
+    /**
+     * 批量获取药品，返回的 Map 按传入顺序排列，不存在的药品不出现在结果中
+     * 缓存中缺失的药品用 loader 一次性补齐并写回
+     */
+    public Map<Long, Drug> multiGet(Collection<Long> drugIds, Function<Collection<Long>, List<Drug>> loader) {
+        Map<Long, Drug> result = new LinkedHashMap<>();
+        if (drugIds == null || drugIds.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(drugIds));
+        List<String> fields = new ArrayList<>(ids.size() + 1);
+        for (Long id : ids) {
+            fields.add(String.valueOf(id));
+        }
+        fields.add(LOADED_FIELD);
+
+        List<byte[]> values = null;
+        try {
+            values = binaryRedisTemplate.<String, byte[]>opsForHash().multiGet(CATALOG_KEY, fields);
+        } catch (Exception e) {
+            log.warn("读取药品目录缓存失败，直接查询数据库，错误信息: {}", e.getMessage());
+        }
+
+        Set<Long> missing = new LinkedHashSet<>();
+        boolean complete = values != null && values.get(ids.size()) != null;
+        for (int i = 0; i < ids.size(); i++) {
+            Drug drug = values == null ? null : decode(values.get(i));
+            if (drug != null) {
+                result.put(ids.get(i), drug);
+            } else if (values != null && values.get(i) != null) {
+                // 数据损坏，先删除字段，否则 HSETNX 无法写入新值
+                remove(ids.get(i));
+                missing.add(ids.get(i));
+            } else if (!complete) {
+                missing.add(ids.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            hit();
+            return result;
+        }
+
+        miss();
+        List<Drug> loaded = loader.apply(missing);
+        Map<Long, Drug> loadedById = new LinkedHashMap<>();
+        for (Drug drug : loaded) {
+            loadedById.put(drug.getDrugId(), drug);
+        }
+        write(loaded, false);
+
+        Map<Long, Drug> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Drug drug = result.containsKey(id) ? result.get(id) : loadedById.get(id);
+            if (drug != null) {
+                ordered.put(id, drug);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 写回单个药品
+     */
+    public void put(Drug drug) {
+        try {
+            binaryRedisTemplate.execute(PUT_SCRIPT, List.of(CATALOG_KEY),
+                    bytes(cacheAside.ttlWithJitter(catalogTtl)),
+                    bytes(drug.getDrugId()),
+                    drugCodec.encode(drug));
+        } catch (Exception e) {
+            log.warn("药品写回目录缓存失败，删除目录缓存，药品ID {}，错误信息: {}", drug.getDrugId(), e.getMessage());
+            invalidate();
+        }
+    }
+
+    /**
+     * 从目录中移除单个药品
+     */
+    public void remove(Long drugId) {
+        try {
+            binaryRedisTemplate.<String, byte[]>opsForHash().delete(CATALOG_KEY, String.valueOf(drugId));
+        } catch (Exception e) {
+            log.warn("从目录缓存移除药品失败，删除目录缓存，药品ID {}，错误信息: {}", drugId, e.getMessage());
+            invalidate();
+        }
+    }
+
+    /**
+     * 删除整个目录，下次读取时重新加载
+     */
+    public void invalidate() {
+        cacheAside.evict(CATALOG_KEY);
+    }
+
+    private List<Drug> loadAll(Supplier<List<Drug>> loader) {
+        miss();
+        return singleFlight.execute(CATALOG_KEY, () -> {
+            List<Drug> drugs = loader.get();
+            write(drugs, true);
+            return drugs;
+        });
+    }
+
+    private void write(List<Drug> drugs, boolean complete) {
+        if (drugs.isEmpty() && !complete) {
+            return;
+        }
+        try {
+            List<byte[]> args = new ArrayList<>(drugs.size() * 2 + 2);
+            args.add(bytes(cacheAside.ttlWithJitter(catalogTtl)));
+            args.add(bytes(complete ? 1 : 0));
+            for (Drug drug : drugs) {
+                args.add(bytes(drug.getDrugId()));
+                args.add(drugCodec.encode(drug));
+            }
+            binaryRedisTemplate.execute(LOAD_SCRIPT, List.of(CATALOG_KEY), args.toArray());
+        } catch (Exception e) {
+            log.error("药品写入目录缓存失败，错误信息: {}", e.getMessage());
+        }
+    }
+
+    private Drug decode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        Drug drug = drugCodec.decode(value);
+        if (drug == null) {
+            log.warn("药品目录缓存数据无法解码（格式版本不符或数据损坏）");
+        }
+        return drug;
+    }
+
+    private static void hit() {
+        HITS.increment();
+        CacheOutcome.hit();
+    }
+
+    private static void miss() {
+        MISSES.increment();
+        CacheOutcome.miss();
+    }
+
+    private static byte[] bytes(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+}
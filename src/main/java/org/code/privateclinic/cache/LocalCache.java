@@ -0,0 +1,67 @@
+package org.code.privateclinic.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.code.privateclinic.monitor.CacheOutcome;
+
+import java.time.Duration;
+
+/**
+ * 进程内一级缓存（Caffeine，W-TinyLFU 淘汰），位于 Redis 之前，保存已反序列化的对象
+ * 缓存的对象在多个请求间共享，调用方不能修改返回值
+ * 命中率等统计以 cache.* 指标导出；命中时标记到当前操作的 {@link CacheOutcome}，未命中由下一级缓存标记
+ */
+public class LocalCache<K, V> {
+
+    private final String name;
+
+    private final Cache<K, V> cache;
+
+    LocalCache(String name, long maximumSize, Duration expireAfterWrite) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V get(K key) {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            CacheOutcome.hit();
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * 命中、未命中、淘汰次数等统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,34 @@
+package org.code.privateclinic.cache;
+
+import org.code.privateclinic.config.LocalCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 一级缓存注册表：按名称创建缓存，容量与过期时间取自 cache.local 配置
+ */
+@Component
+public class LocalCacheRegistry {
+
+    @Autowired
+    private LocalCacheProperties properties;
+
+    private final ConcurrentMap<String, LocalCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCache<K, V> getCache(String name) {
+        return (LocalCache<K, V>) caches.computeIfAbsent(name, key -> {
+            LocalCacheProperties.Spec spec = properties.getSpec(key);
+            return new LocalCache<K, V>(key, spec.getMaximumSize(), spec.getExpireAfterWrite());
+        });
+    }
+
+    public Collection<LocalCache<?, ?>> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+}
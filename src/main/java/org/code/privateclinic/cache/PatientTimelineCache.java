@@ -0,0 +1,59 @@
+package org.code.privateclinic.cache;
+
+import org.code.privateclinic.bean.PatientTimeline;
+import org.code.privateclinic.mapper.PatientMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 患者病历时间线缓存：患者、病例、处方、处方明细任何一行变化都删除所属患者的时间线
+ * 1. 所属患者ID在写入前解析（删除之后就查不到了）
+ * 2. 在事务中时提交后再删除，避免提交前被并发读取重新写入旧数据
+ * 药品改名等不经过以上四张表的变化，只能等缓存过期
+ */
+@Component
+public class PatientTimelineCache {
+
+    private static final String KEY_PREFIX = "patient:timeline:";
+
+    @Autowired
+    private RedisCacheAside cacheAside;
+
+    @Autowired
+    private PatientMapper patientMapper;
+
+    @Value("${cache.redis.patient-timeline-ttl:10m}")
+    private Duration ttl;
+
+    public PatientTimeline get(Long patientId, Supplier<PatientTimeline> loader) {
+        return cacheAside.get(key(patientId), PatientTimeline.class, ttl, loader);
+    }
+
+    public void evictPatient(Long patientId) {
+        if (patientId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> cacheAside.evict(key(patientId)));
+    }
+
+    public void evictByCase(Long caseId) {
+        if (caseId != null) {
+            evictPatient(patientMapper.getPatientIdByCaseId(caseId));
+        }
+    }
+
+    public void evictByPrescription(Long prescriptionId) {
+        if (prescriptionId != null) {
+            evictPatient(patientMapper.getPatientIdByPrescriptionId(prescriptionId));
+        }
+    }
+
+    private static String key(Long patientId) {
+        return KEY_PREFIX + patientId;
+    }
+}
@@ -0,0 +1,131 @@
+package org.code.privateclinic.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.cache.codec.JsonValueCodec;
+import org.code.privateclinic.cache.codec.ValueCodec;
+import org.code.privateclinic.monitor.CacheOutcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redis 旁路缓存：
+ * 1. 命中只需一次 GET（不再先 hasKey）
+ * 2. 同一实例内同一个键的并发未命中合并为一次加载
+ * 3. 查不到的结果以空值标记缓存较短时间，避免不存在的 ID 反复打到数据库
+ * 4. 过期时间加随机抖动，避免大量键同时过期
+ * 5. 缓存值的格式由 {@link ValueCodec} 决定，解码失败（格式版本不符或数据损坏）按未命中处理
+ * 6. 命中与未命中计入 clinic.cache.requests 指标，并标记到当前操作的 {@link CacheOutcome}
+ */
+@Slf4j
+@Component
+public class RedisCacheAside {
+
+    /**
+     * 空结果的缓存值，编解码器的格式版本均不为 0，JSON 也不会以 0 开头
+     */
+    private static final byte[] NULL_VALUE = {0};
+
+    private static final Counter HITS = Metrics.counter("clinic.cache.requests", "cache", "redis", "result", "hit");
+
+    private static final Counter MISSES = Metrics.counter("clinic.cache.requests", "cache", "redis", "result", "miss");
+
+    @Autowired
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cache.redis.negative-ttl:60s}")
+    private Duration negativeTtl;
+
+    @Value("${cache.redis.ttl-jitter:0.1}")
+    private double ttlJitter;
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+    public <T> T get(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        return get(key, new JsonValueCodec<>(objectMapper, objectMapper.constructType(type)), ttl, loader);
+    }
+
+    public <T> T get(String key, TypeReference<T> type, Duration ttl, Supplier<T> loader) {
+        return get(key, new JsonValueCodec<>(objectMapper, objectMapper.constructType(type)), ttl, loader);
+    }
+
+    public <T> T get(String key, ValueCodec<T> codec, Duration ttl, Supplier<T> loader) {
+        byte[] cache = null;
+        try {
+            cache = binaryRedisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("读取缓存失败，直接查询数据库，缓存键 {}，错误信息: {}", key, e.getMessage());
+        }
+        if (cache != null) {
+            if (Arrays.equals(cache, NULL_VALUE)) {
+                hit();
+                return null;
+            }
+            T value = codec.decode(cache);
+            if (value != null) {
+                hit();
+                return value;
+            }
+            log.warn("缓存数据无法解码（格式版本不符或数据损坏），重新加载，缓存键 {}", key);
+        }
+
+        MISSES.increment();
+        CacheOutcome.miss();
+        return singleFlight.execute(key, () -> {
+            T value = loader.get();
+            put(key, value, codec, ttl);
+            return value;
+        });
+    }
+
+    /**
+     * 写入缓存；null 与空集合按空结果处理，只缓存较短时间
+     */
+    public <T> void put(String key, T value, ValueCodec<T> codec, Duration ttl) {
+        boolean empty = value == null || (value instanceof Collection<?> collection && collection.isEmpty());
+        try {
+            byte[] bytes = value == null ? NULL_VALUE : codec.encode(value);
+            binaryRedisTemplate.opsForValue().set(key, bytes, ttlWithJitter(empty ? negativeTtl : ttl), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("数据写入缓存失败，缓存键 {}，错误信息: {}", key, e.getMessage());
+        }
+    }
+
+    public void evict(String... keys) {
+        try {
+            binaryRedisTemplate.delete(List.of(keys));
+        } catch (Exception e) {
+            log.warn("清除缓存失败，缓存键 {}，错误信息: {}", List.of(keys), e.getMessage());
+        }
+    }
+
+    private static void hit() {
+        HITS.increment();
+        CacheOutcome.hit();
+    }
+
+    /**
+     * 过期时间（毫秒）加上随机抖动
+     */
+    public long ttlWithJitter(Duration ttl) {
+        long millis = ttl.toMillis();
+        long bound = (long) (millis * ttlJitter);
+        return bound > 0 ? millis + ThreadLocalRandom.current().nextLong(bound) : millis;
+    }
+}
@@ -0,0 +1,96 @@
+package org.code.privateclinic.cache;
+
+import org.code.privateclinic.util.TransactionHooks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 唯一键（用户名、药品名称等）缓存：只缓存 唯一键 → 主键ID，实体仍从按ID的缓存中取，实体只有一份缓存
+ * 1. 一级缓存只保存查到的映射；查不到的结果只以空值标记写入 Redis，存活 cache.redis.negative-ttl，
+ *    不会因为大量不存在的键占满进程内缓存
+ * 2. 取到实体后校验唯一键仍然对应该实体（改名、停用后其它实例的一级缓存可能还是旧映射），
+ *    不对应时清除映射并直接查询数据库
+ * 3. 改名、状态变化、删除时由调用方用 {@link #evict} 同时清除新旧唯一键，并清除按ID的缓存；
+ *    新增或改名前可能已有“不存在”的空值标记，新名称也必须清除
+ */
+public class SecondaryKeyCache<E> {
+
+    private final String keyPrefix;
+
+    private final LocalCache<String, Long> localCache;
+
+    private final RedisCacheAside cacheAside;
+
+    private final Duration ttl;
+
+    private final Function<E, Long> idOf;
+
+    private final BiPredicate<String, E> matches;
+
+    /**
+     * @param keyPrefix Redis 键前缀
+     * @param idOf      实体的主键ID
+     * @param matches   实体是否仍是该唯一键查询的结果
+     */
+    public SecondaryKeyCache(String keyPrefix, LocalCache<String, Long> localCache, RedisCacheAside cacheAside,
+                             Duration ttl, Function<E, Long> idOf, BiPredicate<String, E> matches) {
+        this.keyPrefix = keyPrefix;
+        this.localCache = localCache;
+        this.cacheAside = cacheAside;
+        this.ttl = ttl;
+        this.idOf = idOf;
+        this.matches = matches;
+    }
+
+    /**
+     * 按唯一键查询实体
+     *
+     * @param loader     按唯一键查询数据库
+     * @param entityById 按ID取实体（走按ID的缓存）
+     */
+    public E get(String key, Function<String, E> loader, Function<Long, E> entityById) {
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        AtomicReference<E> loaded = new AtomicReference<>();
+        Long id = localCache.get(key);
+        if (id == null) {
+            id = cacheAside.get(keyPrefix + key, Long.class, ttl, () -> {
+                E entity = loader.apply(key);
+                loaded.set(entity);
+                return entity == null ? null : idOf.apply(entity);
+            });
+            if (id == null) {
+                return null;
+            }
+        }
+        // 本次刚从数据库查到的实体直接使用，不再按ID查一次
+        E entity = loaded.get() != null ? loaded.get() : entityById.apply(id);
+        if (entity != null && matches.test(key, entity)) {
+            localCache.put(key, id);
+            return entity;
+        }
+        evictNow(key);
+        return loader.apply(key);
+    }
+
+    /**
+     * 清除唯一键的映射，空键忽略；在事务中时提交后再清除一次，避免提交前被并发读取重新写入旧映射或空值标记
+     */
+    public void evict(String... keys) {
+        evictNow(keys);
+        TransactionHooks.afterCommitIfActive(() -> evictNow(keys));
+    }
+
+    private void evictNow(String... keys) {
+        for (String key : keys) {
+            if (key != null && !key.isEmpty()) {
+                localCache.invalidate(key);
+                cacheAside.evict(keyPrefix + key);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.code.privateclinic.cache.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 二进制读取，与 {@link BinaryOutput} 的写入格式对应；数据不完整时抛出 IllegalArgumentException
+ */
+public final class BinaryInput {
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private int position;
+
+    BinaryInput(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    public int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    public double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (buffer[position++] & 0xFF) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public LocalDateTime readDateTime() {
+        long epochSecond = readVarLong();
+        int nano = readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    int position() {
+        return position;
+    }
+
+    private void require(int length) {
+        if (length < 0 || limit - position < length) {
+            throw new IllegalArgumentException("缓存数据不完整");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.code.privateclinic.cache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 二进制编解码器基类
+ * 数据格式：[格式版本][标志位][正文]，正文超过压缩阈值且压缩后更小时使用 LZ4 压缩，
+ * 压缩正文前写入原始长度。版本号不一致的数据（包括旧的 JSON 字符串）解码时返回 null，由缓存重新加载
+ */
+public abstract class BinaryValueCodec<T> implements ValueCodec<T> {
+
+    private static final int FLAG_LZ4 = 1;
+
+    private static final int FLAG_LIST = 1 << 1;
+
+    /**
+     * 解压后允许的最大长度，防止损坏数据申请过大的内存
+     */
+    private static final int MAX_DECOMPRESSED_LENGTH = 64 * 1024 * 1024;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+    private static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().safeDecompressor();
+
+    /**
+     * 正文达到该字节数才尝试压缩，小于等于 0 表示不压缩
+     */
+    private final int compressThreshold;
+
+    private final ValueCodec<List<T>> listCodec = new ListCodec();
+
+    protected BinaryValueCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 格式版本，字段变化时递增，旧版本的缓存数据会被忽略
+     */
+    protected abstract int formatVersion();
+
+    protected abstract void write(BinaryOutput out, T value);
+
+    protected abstract T read(BinaryInput in);
+
+    @Override
+    public byte[] encode(T value) {
+        BinaryOutput body = new BinaryOutput(128);
+        write(body, value);
+        return frame(body, 0);
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        try {
+            BinaryInput in = unframe(bytes, 0);
+            return in == null ? null : read(in);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 同一类型列表的编解码器
+     */
+    public ValueCodec<List<T>> listCodec() {
+        return listCodec;
+    }
+
+    private byte[] frame(BinaryOutput body, int flags) {
+        int length = body.size();
+        if (compressThreshold > 0 && length >= compressThreshold) {
+            int maxLength = COMPRESSOR.maxCompressedLength(length);
+            BinaryOutput out = new BinaryOutput(maxLength + 8);
+            out.writeByte(formatVersion());
+            out.writeByte(flags | FLAG_LZ4);
+            out.writeVarInt(length);
+            byte[] compressed = new byte[maxLength];
+            int compressedLength = COMPRESSOR.compress(body.buffer(), 0, length, compressed, 0, maxLength);
+            if (out.size() + compressedLength < length + 2) {
+                out.writeBytes(compressed, 0, compressedLength);
+                return out.toByteArray();
+            }
+        }
+        byte[] bytes = new byte[length + 2];
+        bytes[0] = (byte) formatVersion();
+        bytes[1] = (byte) flags;
+        System.arraycopy(body.buffer(), 0, bytes, 2, length);
+        return bytes;
+    }
+
+    private BinaryInput unframe(byte[] bytes, int expectedFlags) {
+        if (bytes == null || bytes.length < 2 || (bytes[0] & 0xFF) != formatVersion()) {
+            return null;
+        }
+        int flags = bytes[1] & 0xFF;
+        if ((flags & ~FLAG_LZ4) != expectedFlags) {
+            return null;
+        }
+        if ((flags & FLAG_LZ4) == 0) {
+            return new BinaryInput(bytes, 2, bytes.length);
+        }
+        BinaryInput header = new BinaryInput(bytes, 2, bytes.length);
+        int length = header.readVarInt();
+        if (length < 0 || length > MAX_DECOMPRESSED_LENGTH) {
+            return null;
+        }
+        int offset = header.position();
+        byte[] body = new byte[length];
+        int decompressed = DECOMPRESSOR.decompress(bytes, offset, bytes.length - offset, body, 0, length);
+        return decompressed == length ? new BinaryInput(body, 0, length) : null;
+    }
+
+    private class ListCodec implements ValueCodec<List<T>> {
+
+        @Override
+        public byte[] encode(List<T> values) {
+            BinaryOutput body = new BinaryOutput(64 * values.size() + 8);
+            body.writeVarInt(values.size());
+            for (T value : values) {
+                write(body, value);
+            }
+            return frame(body, FLAG_LIST);
+        }
+
+        @Override
+        public List<T> decode(byte[] bytes) {
+            try {
+                BinaryInput in = unframe(bytes, FLAG_LIST);
+                if (in == null) {
+                    return null;
+                }
+                int size = in.readVarInt();
+                if (size < 0) {
+                    return null;
+                }
+                List<T> values = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    values.add(read(in));
+                }
+                return values;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
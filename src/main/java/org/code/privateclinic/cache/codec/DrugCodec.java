@@ -0,0 +1,91 @@
+package org.code.privateclinic.cache.codec;
+
+import org.code.privateclinic.bean.Drug;
+
+/**
+ * 药品二进制编解码器，可为空的字段由开头的位图标记
+ */
+public class DrugCodec extends BinaryValueCodec<Drug> {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int DRUG_ID = 1;
+    private static final int DRUG_NAME = 1 << 1;
+    private static final int SPECIFICATION = 1 << 2;
+    private static final int STOCK = 1 << 3;
+    private static final int STATUS = 1 << 4;
+    private static final int CREATE_TIME = 1 << 5;
+    private static final int UPDATE_TIME = 1 << 6;
+
+    public DrugCodec(int compressThreshold) {
+        super(compressThreshold);
+    }
+
+    @Override
+    protected int formatVersion() {
+        return FORMAT_VERSION;
+    }
+
+    @Override
+    protected void write(BinaryOutput out, Drug drug) {
+        int fields = (drug.getDrugId() != null ? DRUG_ID : 0)
+                | (drug.getDrugName() != null ? DRUG_NAME : 0)
+                | (drug.getSpecification() != null ? SPECIFICATION : 0)
+                | (drug.getStock() != null ? STOCK : 0)
+                | (drug.getStatus() != null ? STATUS : 0)
+                | (drug.getCreateTime() != null ? CREATE_TIME : 0)
+                | (drug.getUpdateTime() != null ? UPDATE_TIME : 0);
+        out.writeVarInt(fields);
+        if (drug.getDrugId() != null) {
+            out.writeVarLong(drug.getDrugId());
+        }
+        if (drug.getDrugName() != null) {
+            out.writeString(drug.getDrugName());
+        }
+        if (drug.getSpecification() != null) {
+            out.writeString(drug.getSpecification());
+        }
+        out.writeDouble(drug.getPrice());
+        if (drug.getStock() != null) {
+            out.writeVarInt(drug.getStock());
+        }
+        if (drug.getStatus() != null) {
+            out.writeVarInt(drug.getStatus());
+        }
+        if (drug.getCreateTime() != null) {
+            out.writeDateTime(drug.getCreateTime());
+        }
+        if (drug.getUpdateTime() != null) {
+            out.writeDateTime(drug.getUpdateTime());
+        }
+    }
+
+    @Override
+    protected Drug read(BinaryInput in) {
+        int fields = in.readVarInt();
+        Drug drug = new Drug();
+        if ((fields & DRUG_ID) != 0) {
+            drug.setDrugId(in.readVarLong());
+        }
+        if ((fields & DRUG_NAME) != 0) {
+            drug.setDrugName(in.readString());
+        }
+        if ((fields & SPECIFICATION) != 0) {
+            drug.setSpecification(in.readString());
+        }
+        drug.setPrice(in.readDouble());
+        if ((fields & STOCK) != 0) {
+            drug.setStock(in.readVarInt());
+        }
+        if ((fields & STATUS) != 0) {
+            drug.setStatus(in.readVarInt());
+        }
+        if ((fields & CREATE_TIME) != 0) {
+            drug.setCreateTime(in.readDateTime());
+        }
+        if ((fields & UPDATE_TIME) != 0) {
+            drug.setUpdateTime(in.readDateTime());
+        }
+        return drug;
+    }
+}
@@ -0,0 +1,37 @@
+package org.code.privateclinic.cache.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON 编解码器，用于没有专用二进制格式的类型
+ */
+public class JsonValueCodec<T> implements ValueCodec<T> {
+
+    private final ObjectMapper objectMapper;
+
+    private final JavaType type;
+
+    public JsonValueCodec(ObjectMapper objectMapper, JavaType type) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("缓存值序列化失败", e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.code.privateclinic.cache.codec;
+
+import org.code.privateclinic.bean.User;
+
+/**
+ * 用户二进制编解码器，可为空的字段由开头的位图标记
+ */
+public class UserCodec extends BinaryValueCodec<User> {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int USER_ID = 1;
+    private static final int PASSWORD = 1 << 1;
+    private static final int USER_NAME = 1 << 2;
+    private static final int ROLE = 1 << 3;
+    private static final int PHONE = 1 << 4;
+    private static final int STATUS = 1 << 5;
+    private static final int CREATE_TIME = 1 << 6;
+    private static final int UPDATE_TIME = 1 << 7;
+
+    public UserCodec(int compressThreshold) {
+        super(compressThreshold);
+    }
+
+    @Override
+    protected int formatVersion() {
+        return FORMAT_VERSION;
+    }
+
+    @Override
+    protected void write(BinaryOutput out, User user) {
+        int fields = (user.getUserId() != null ? USER_ID : 0)
+                | (user.getPassword() != null ? PASSWORD : 0)
+                | (user.getUserName() != null ? USER_NAME : 0)
+                | (user.getRole() != null ? ROLE : 0)
+                | (user.getPhone() != null ? PHONE : 0)
+                | (user.getStatus() != null ? STATUS : 0)
+                | (user.getCreateTime() != null ? CREATE_TIME : 0)
+                | (user.getUpdateTime() != null ? UPDATE_TIME : 0);
+        out.writeVarInt(fields);
+        if (user.getUserId() != null) {
+            out.writeVarLong(user.getUserId());
+        }
+        if (user.getPassword() != null) {
+            out.writeString(user.getPassword());
+        }
+        if (user.getUserName() != null) {
+            out.writeString(user.getUserName());
+        }
+        if (user.getRole() != null) {
+            out.writeString(user.getRole());
+        }
+        if (user.getPhone() != null) {
+            out.writeString(user.getPhone());
+        }
+        if (user.getStatus() != null) {
+            out.writeVarInt(user.getStatus());
+        }
+        if (user.getCreateTime() != null) {
+            out.writeDateTime(user.getCreateTime());
+        }
+        if (user.getUpdateTime() != null) {
+            out.writeDateTime(user.getUpdateTime());
+        }
+    }
+
+    @Override
+    protected User read(BinaryInput in) {
+        int fields = in.readVarInt();
+        User user = new User();
+        if ((fields & USER_ID) != 0) {
+            user.setUserId(in.readVarLong());
+        }
+        if ((fields & PASSWORD) != 0) {
+            user.setPassword(in.readString());
+        }
+        if ((fields & USER_NAME) != 0) {
+            user.setUserName(in.readString());
+        }
+        if ((fields & ROLE) != 0) {
+            user.setRole(in.readString());
+        }
+        if ((fields & PHONE) != 0) {
+            user.setPhone(in.readString());
+        }
+        if ((fields & STATUS) != 0) {
+            user.setStatus(in.readVarInt());
+        }
+        if ((fields & CREATE_TIME) != 0) {
+            user.setCreateTime(in.readDateTime());
+        }
+        if ((fields & UPDATE_TIME) != 0) {
+            user.setUpdateTime(in.readDateTime());
+        }
+        return user;
+    }
+}
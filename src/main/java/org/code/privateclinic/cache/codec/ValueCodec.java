@@ -0,0 +1,17 @@
+package org.code.privateclinic.cache.codec;
+
+/**
+ * 缓存值编解码器
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * 编码缓存值，value 不为 null
+     */
+    byte[] encode(T value);
+
+    /**
+     * 解码缓存值；数据不是本编解码器的格式（如旧版本写入的数据）或已损坏时返回 null
+     */
+    T decode(byte[] bytes);
+}
@@ -0,0 +1,61 @@
+package org.code.privateclinic.common;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置：上一页最后一条记录的（创建时间, ID）
+ * 对外以不透明字符串传递，内容为 Base64URL 编码的 "版本|创建时间|ID"；只按 ID 排序的列表创建时间为空
+ */
+@Getter
+public class PageCursor {
+
+    private static final String VERSION = "1";
+
+    private final LocalDateTime createTime;
+
+    private final Long id;
+
+    private PageCursor(LocalDateTime createTime, Long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    public static PageCursor of(LocalDateTime createTime, Long id) {
+        return new PageCursor(createTime, id);
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    /**
+     * 解析游标，为空表示第一页
+     *
+     * @param timeOrdered 列表是否按创建时间排序，是则游标必须带有创建时间
+     */
+    public static PageCursor decode(String cursor, boolean timeOrdered) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[1].isEmpty() == timeOrdered) {
+                throw new IllegalArgumentException(value);
+            }
+            LocalDateTime createTime = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            return new PageCursor(createTime, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+
+    public String encode() {
+        String value = VERSION + "|" + (createTime == null ? "" : createTime.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
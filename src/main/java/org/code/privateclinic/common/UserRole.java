@@ -0,0 +1,24 @@
+package org.code.privateclinic.common;
+
+/**
+ * 系统用户角色
+ */
+public enum UserRole {
+    ADMIN,
+    DOCTOR;
+
+    /**
+     * 将 Token 或数据库中的角色字符串解析为枚举（忽略大小写），无法识别时返回 null
+     */
+    public static UserRole of(String role) {
+        if (role == null) {
+            return null;
+        }
+        for (UserRole value : values()) {
+            if (value.name().equalsIgnoreCase(role)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,75 @@
+package org.code.privateclinic.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.bean.User;
+import org.code.privateclinic.cache.codec.DrugCodec;
+import org.code.privateclinic.cache.codec.JsonValueCodec;
+import org.code.privateclinic.cache.codec.UserCodec;
+import org.code.privateclinic.cache.codec.ValueCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+
+/**
+ * 缓存值编解码配置
+ * cache.codec.format 为 binary（默认）时药品、用户使用二进制格式，为 json 时退回 JSON；
+ * 两种格式互相读不出时按未命中处理，切换格式不需要清理 Redis
+ */
+@Configuration
+public class CacheCodecConfig {
+
+    @Value("${cache.codec.format:binary}")
+    private String format;
+
+    @Value("${cache.codec.compress-threshold:512}")
+    private int compressThreshold;
+
+    /**
+     * 值为原始字节的 RedisTemplate，键与哈希字段仍为字符串
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public ValueCodec<Drug> drugCodec(ObjectMapper objectMapper) {
+        if (isJson()) {
+            return new JsonValueCodec<>(objectMapper, objectMapper.constructType(Drug.class));
+        }
+        return new DrugCodec(compressThreshold);
+    }
+
+    @Bean
+    public ValueCodec<User> userCodec(ObjectMapper objectMapper) {
+        if (isJson()) {
+            return new JsonValueCodec<>(objectMapper, objectMapper.constructType(User.class));
+        }
+        return new UserCodec(compressThreshold);
+    }
+
+    @Bean
+    public ValueCodec<List<User>> userListCodec(ObjectMapper objectMapper) {
+        if (isJson()) {
+            return new JsonValueCodec<>(objectMapper,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, User.class));
+        }
+        return new UserCodec(compressThreshold).listCodec();
+    }
+
+    private boolean isJson() {
+        return "json".equalsIgnoreCase(format);
+    }
+}
@@ -0,0 +1,52 @@
+package org.code.privateclinic.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.code.privateclinic.datasource.RecentWriters;
+import org.code.privateclinic.datasource.ReplicaRoutingDataSource;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * 数据源配置（读写分离）
+ * 应用使用的数据源在执行第一条语句时才取真正的连接：只读事务（@Transactional(readOnly = true)）
+ * 取 {@link ReplicaRoutingDataSource} 的连接（副本，必要时回退主库），其余语句取主库连接
+ * 数据库迁移始终在主库执行；未配置副本时与只使用主库一致
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties,
+                                                      RecentWriters recentWriters, MeterRegistry meterRegistry) {
+        return ReplicaRoutingDataSource.create(primaryDataSource, properties, recentWriters, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        // 与 MySQL、连接池的默认值一致，启动时无需为探测默认值而取连接
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        if (replicaDataSource.hasReplicas()) {
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package org.code.privateclinic.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置
+ * 患者病历时间线并发查询使用独立的有界线程池，队列满时拒绝任务，由调用方按加载失败处理，
+ * 不会无限堆积任务，也不会占满数据库连接池；请求线程不会自己执行查询或等待，超时限制始终有效
+ * 启用虚拟线程（spring.threads.virtual.enabled=true，需 JDK 21+）时改为每个任务一个虚拟线程，
+ * 同时执行的任务数仍以 max-size 为上限，超出时同样拒绝
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${timeline.executor.core-size:8}")
+    private int coreSize;
+
+    @Value("${timeline.executor.max-size:16}")
+    private int maxSize;
+
+    @Value("${timeline.executor.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Bean("timelineExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor timelineExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("timeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    @Bean("timelineExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualTimelineExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("timeline-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxSize);
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(10000);
+        return executor;
+    }
+}
@@ -0,0 +1,62 @@
+package org.code.privateclinic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT 配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+    /**
+     * Token 有效期（秒）
+     */
+    private Long expiration = 7200L;
+
+    /**
+     * 已验证 Token 声明的本地缓存条目上限，0 表示不缓存
+     */
+    private long claimsCacheSize = 10000;
+
+    /**
+     * 初始签发密钥 ID，为空时使用第一个密钥
+     */
+    private String activeKeyId;
+
+    /**
+     * 检查密钥轮换计划的间隔（毫秒）
+     */
+    private long rotationCheckInterval = 60000;
+
+    /**
+     * 密钥环，按 kid 区分
+     */
+    private List<KeyDefinition> keys = new ArrayList<>();
+
+    @Data
+    public static class KeyDefinition {
+        /**
+         * 密钥 ID，写入 Token 头部的 kid
+         */
+        private String id;
+
+        private String secret;
+
+        /**
+         * 到达该时间后自动成为签发密钥，为空表示不参与定时轮换
+         */
+        private OffsetDateTime activateAt;
+
+        /**
+         * 到达该时间后不再用于验证，应晚于下一个密钥生效时间加上 Token 有效期
+         */
+        private OffsetDateTime retireAt;
+    }
+}
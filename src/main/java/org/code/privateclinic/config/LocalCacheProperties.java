@@ -0,0 +1,40 @@
+package org.code.privateclinic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 进程内一级缓存配置
+ * 多实例部署时其它实例的一级缓存只能靠过期时间失效，因此过期时间应远小于 Redis 缓存
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.local")
+public class LocalCacheProperties {
+
+    /**
+     * 未单独配置的缓存使用的默认值
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * 按缓存名称单独配置
+     */
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec getSpec(String name) {
+        return specs.getOrDefault(name, defaults);
+    }
+
+    @Data
+    public static class Spec {
+        private long maximumSize = 1000;
+
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,41 @@
+package org.code.privateclinic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link org.code.privateclinic.annotation.Loggable} 方法日志配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "loggable")
+public class LoggableProperties {
+
+    /**
+     * 正常完成的调用以 INFO 记录的比例，0 表示只记录慢调用和异常
+     */
+    private double sampleRate = 0.0;
+
+    /**
+     * 耗时达到该值的调用一定以 INFO 记录
+     */
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    /**
+     * 按方法覆盖以上配置，键为「类名.方法名」，如 "[PatientServiceImpl.getPatientTimeline]"
+     */
+    private Map<String, MethodSettings> methods = new HashMap<>();
+
+    @Data
+    public static class MethodSettings {
+
+        private Double sampleRate;
+
+        private Duration slowThreshold;
+    }
+}
@@ -0,0 +1,36 @@
+package org.code.privateclinic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分页配置
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+
+    /**
+     * 未指定每页条数时的默认值
+     */
+    private int defaultSize = 20;
+
+    /**
+     * 每页条数上限
+     */
+    private int maxSize = 100;
+
+    /**
+     * 不分页的列表接口最多返回的条数
+     */
+    private int listLimit = 1000;
+
+    public int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultSize;
+        }
+        return Math.min(size, maxSize);
+    }
+}
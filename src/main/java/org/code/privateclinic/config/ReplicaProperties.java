@@ -0,0 +1,58 @@
+package org.code.privateclinic.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只读副本配置
+ * 只读事务在健康且复制延迟不超限的副本上执行，未配置副本时全部查询走主库
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * 副本列表
+     */
+    private List<Node> nodes = new ArrayList<>();
+
+    /**
+     * 健康检查与主库心跳的间隔（毫秒），也是复制延迟的测量精度
+     */
+    private long healthCheckInterval = 1000;
+
+    /**
+     * 复制延迟超过该值的副本暂停使用
+     */
+    private Duration maxLag = Duration.ofSeconds(3);
+
+    /**
+     * 用户写入后该时间内该用户的只读查询仍走主库，应不小于 maxLag 加一个检查间隔
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * 从副本连接池取连接的超时时间
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 每个副本的连接池大小
+     */
+    private int maximumPoolSize = 10;
+
+    @Data
+    public static class Node {
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
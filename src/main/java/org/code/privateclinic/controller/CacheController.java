@@ -0,0 +1,40 @@
+package org.code.privateclinic.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.LocalCacheStats;
+import org.code.privateclinic.cache.LocalCacheRegistry;
+import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Autowired
+    private LocalCacheRegistry localCacheRegistry;
+
+    /**
+     * 查看一级缓存命中、未命中、淘汰统计
+     */
+    @GetMapping("/stats")
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看缓存统计")
+    public ResponseMessage<List<LocalCacheStats>> getLocalCacheStats(){
+        List<LocalCacheStats> stats = localCacheRegistry.getCaches().stream()
+                .map(cache -> {
+                    CacheStats cacheStats = cache.stats();
+                    return new LocalCacheStats(cache.getName(), cache.size(), cacheStats.hitCount(),
+                            cacheStats.missCount(), cacheStats.evictionCount(), cacheStats.hitRate());
+                })
+                .sorted(Comparator.comparing(LocalCacheStats::getName))
+                .toList();
+        return ResponseMessage.success(stats);
+    }
+}
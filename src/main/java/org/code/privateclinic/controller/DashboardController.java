@@ -0,0 +1,32 @@
+package org.code.privateclinic.controller;
+
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.DashboardSummary;
+import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
+import org.code.privateclinic.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * 看板统计：患者数、各状态病例数、今日处方数与金额、药品数与低库存药品数
+     */
+    @GetMapping("/summary")
+    @RequireRole(value = {UserRole.ADMIN, UserRole.DOCTOR}, message = "请先登录")
+    public ResponseMessage<DashboardSummary> getSummary(){
+        try {
+            return ResponseMessage.success(dashboardService.getSummary());
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+}
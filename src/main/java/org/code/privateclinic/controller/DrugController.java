@@ -1,12 +1,10 @@
 package org.code.privateclinic.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
+import org.code.privateclinic.annotation.RequireRole;
 import org.code.privateclinic.bean.Drug;
-import org.code.privateclinic.bean.User;
 import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
 import org.code.privateclinic.service.DrugService;
-import org.code.privateclinic.service.UserService;
-import org.code.privateclinic.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,27 +17,12 @@ public class DrugController {
     @Autowired
     private DrugService drugService;
 
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-
-    @Autowired
-    private UserService userService;
-
     /**
      * 获取所有药品列表
      */
     @GetMapping("/list")
-    public ResponseMessage<List<Drug>> getDrugList(HttpServletRequest request){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能查看药品列表
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看药品列表");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看药品列表")
+    public ResponseMessage<List<Drug>> getDrugList(){
         return ResponseMessage.success(drugService.getDrugList());
     }
 
@@ -47,17 +30,8 @@ public class DrugController {
      * 根据ID获取药品信息
      */
     @GetMapping("/{drugId}")
-    public ResponseMessage<Drug> getDrugById(HttpServletRequest request, @PathVariable Long drugId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能查看药品信息
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看药品信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看药品信息")
+    public ResponseMessage<Drug> getDrugById(@PathVariable Long drugId){
         Drug drug = drugService.getDrugById(drugId);
         if(drug == null){
             return ResponseMessage.failed("未查询到相关药品信息");
@@ -65,21 +39,26 @@ public class DrugController {
         return ResponseMessage.success(drug);
     }
 
+    /**
+     * 开处方时联想药品：keyword 为药品名称、说明书或拼音首字母的前缀，允许少量输入错误
+     */
+    @GetMapping("/suggest")
+    @RequireRole(value = {UserRole.ADMIN, UserRole.DOCTOR}, message = "请先登录")
+    public ResponseMessage<List<Drug>> suggestDrugs(@RequestParam String keyword,
+                                                    @RequestParam(required = false) Integer limit){
+        try {
+            return ResponseMessage.success(drugService.suggestDrugs(keyword, limit));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+
     /**
      * 根据药品名称获取药品信息
      */
     @GetMapping("/name/{drugName}")
-    public ResponseMessage<Drug> getDrugByName(HttpServletRequest request, @PathVariable String drugName){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能查看药品信息
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看药品信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看药品信息")
+    public ResponseMessage<Drug> getDrugByName(@PathVariable String drugName){
         Drug drug = drugService.getDrugByName(drugName);
         if(drug == null){
             return ResponseMessage.failed("未查询到相关药品信息");
@@ -91,17 +70,8 @@ public class DrugController {
      * 添加药品
      */
     @PostMapping
-    public ResponseMessage<Drug> addDrug(HttpServletRequest request, @RequestBody Drug drug){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能添加药品
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权添加药品");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权添加药品")
+    public ResponseMessage<Drug> addDrug(@RequestBody Drug drug){
         try {
             int result = drugService.addDrug(drug);
             if(result > 0){
@@ -118,17 +88,8 @@ public class DrugController {
      * 更新药品信息
      */
     @PutMapping
-    public ResponseMessage<String> updateDrug(HttpServletRequest request, @RequestBody Drug drug){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能更新药品信息
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权更新药品信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权更新药品信息")
+    public ResponseMessage<String> updateDrug(@RequestBody Drug drug){
         try {
             int result = drugService.updateDrug(drug);
             if(result > 0){
@@ -145,17 +106,8 @@ public class DrugController {
      * 逻辑删除药品（更新状态为0）
      */
     @DeleteMapping("/{drugId}")
-    public ResponseMessage<String> deleteDrug(HttpServletRequest request, @PathVariable Long drugId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能删除药品
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权删除药品");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权删除药品")
+    public ResponseMessage<String> deleteDrug(@PathVariable Long drugId){
         try {
             int result = drugService.deleteDrug(drugId);
             if(result > 0){
@@ -172,17 +124,8 @@ public class DrugController {
      * 物理删除药品
      */
     @DeleteMapping("/physical/{drugId}")
-    public ResponseMessage<String> deleteDrugPhysical(HttpServletRequest request, @PathVariable Long drugId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能物理删除药品
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权物理删除药品");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权物理删除药品")
+    public ResponseMessage<String> deleteDrugPhysical(@PathVariable Long drugId){
         try {
             int result = drugService.deleteDrugPhysical(drugId);
             if(result > 0){
@@ -195,21 +138,25 @@ public class DrugController {
         }
     }
 
+    /**
+     * 查询药品当前可用库存（含尚未汇总进库存快照的流水）
+     */
+    @GetMapping("/stock/{drugId}")
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看药品库存")
+    public ResponseMessage<Long> getAvailableStock(@PathVariable Long drugId){
+        try {
+            return ResponseMessage.success(drugService.getAvailableStock(drugId));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+
     /**
      * 更新药品库存
      */
     @PutMapping("/stock/{drugId}")
-    public ResponseMessage<String> updateStock(HttpServletRequest request, @PathVariable Long drugId, @RequestParam Integer stock){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能更新药品库存
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权更新药品库存");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权更新药品库存")
+    public ResponseMessage<String> updateStock(@PathVariable Long drugId, @RequestParam Integer stock){
         try {
             int result = drugService.updateStock(drugId, stock);
             if(result > 0){
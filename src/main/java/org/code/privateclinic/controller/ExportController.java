@@ -0,0 +1,137 @@
+package org.code.privateclinic.controller;
+
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.ExportQuery;
+import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
+import org.code.privateclinic.export.ExportFormat;
+import org.code.privateclinic.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 数据导出（供保险机构、审计使用）
+ * 结果逐行写入响应流，可选 gzip 压缩；日期范围按创建时间过滤，结束日期包含当天
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * 同时进行的导出任务数量上限，每个导出任务在整个导出期间占用一个数据库连接
+     */
+    private final Semaphore permits;
+
+    public ExportController(@Value("${export.max-concurrent:2}") int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 导出病例
+     */
+    @GetMapping("/medical-case")
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权导出数据")
+    public ResponseEntity<?> exportMedicalCases(@RequestParam(defaultValue = "csv") String format,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                @RequestParam(required = false) Long doctorId,
+                                                @RequestParam(defaultValue = "false") boolean gzip){
+        return export("medical-cases", format, gzip, query(startDate, endDate, doctorId), exportService::exportMedicalCases);
+    }
+
+    /**
+     * 导出处方
+     */
+    @GetMapping("/prescription")
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权导出数据")
+    public ResponseEntity<?> exportPrescriptions(@RequestParam(defaultValue = "csv") String format,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                 @RequestParam(required = false) Long doctorId,
+                                                 @RequestParam(defaultValue = "false") boolean gzip){
+        return export("prescriptions", format, gzip, query(startDate, endDate, doctorId), exportService::exportPrescriptions);
+    }
+
+    /**
+     * 导出处方明细，日期范围和医生条件作用于所属处方
+     */
+    @GetMapping("/prescription-item")
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权导出数据")
+    public ResponseEntity<?> exportPrescriptionItems(@RequestParam(defaultValue = "csv") String format,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                     @RequestParam(required = false) Long doctorId,
+                                                     @RequestParam(defaultValue = "false") boolean gzip){
+        return export("prescription-items", format, gzip, query(startDate, endDate, doctorId), exportService::exportPrescriptionItems);
+    }
+
+    private ResponseEntity<?> export(String name, String formatName, boolean gzip, ExportQuery query, Exporter exporter) {
+        ExportFormat format = ExportFormat.of(formatName);
+        if (format == null) {
+            return ResponseEntity.ok(ResponseMessage.failed("不支持的导出格式，可选 csv 或 ndjson"));
+        }
+        if (query.getStartTime() != null && query.getEndTime() != null
+                && !query.getStartTime().isBefore(query.getEndTime())) {
+            return ResponseEntity.ok(ResponseMessage.failed("开始日期不能晚于结束日期"));
+        }
+        if (!permits.tryAcquire()) {
+            return ResponseEntity.ok(ResponseMessage.failed("当前导出任务较多，请稍后再试"));
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                OutputStream target = gzip
+                        ? new GZIPOutputStream(out, BUFFER_SIZE)
+                        : new BufferedOutputStream(out, BUFFER_SIZE);
+                exporter.export(query, format, target);
+                if (target instanceof GZIPOutputStream gzipOut) {
+                    gzipOut.finish();
+                }
+                target.flush();
+            } finally {
+                permits.release();
+            }
+        };
+
+        String fileName = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    private static ExportQuery query(LocalDate startDate, LocalDate endDate, Long doctorId) {
+        return new ExportQuery(
+                startDate == null ? null : startDate.atStartOfDay(),
+                endDate == null ? null : endDate.plusDays(1).atStartOfDay(),
+                doctorId);
+    }
+
+    @FunctionalInterface
+    private interface Exporter {
+        long export(ExportQuery query, ExportFormat format, OutputStream out) throws IOException;
+    }
+}
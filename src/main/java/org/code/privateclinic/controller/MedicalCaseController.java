@@ -1,12 +1,12 @@
 package org.code.privateclinic.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.MedicalCase;
-import org.code.privateclinic.bean.User;
+import org.code.privateclinic.bean.SearchPage;
 import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
 import org.code.privateclinic.service.MedicalCaseService;
-import org.code.privateclinic.service.UserService;
-import org.code.privateclinic.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,45 +19,54 @@ public class MedicalCaseController {
     @Autowired
     private MedicalCaseService medicalCaseService;
 
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-
-    @Autowired
-    private UserService userService;
-
     /**
-     * 获取所有病例列表
+     * 获取病例列表，最多返回 pagination.list-limit 条，完整数据请使用 /page 分页接口
      */
     @GetMapping("/list")
-    public ResponseMessage<List<MedicalCase>> getMedicalCaseList(HttpServletRequest request){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<List<MedicalCase>> getMedicalCaseList(){
+        return ResponseMessage.success(medicalCaseService.getMedicalCaseList());
+    }
+
+    /**
+     * 游标分页获取病例列表，可按患者、医生、状态过滤；cursor 取上一页返回的 nextCursor，第一页不传
+     */
+    @GetMapping("/page")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<CursorPage<MedicalCase>> getMedicalCasePage(@RequestParam(required = false) Long patientId,
+                                                                       @RequestParam(required = false) Long doctorId,
+                                                                       @RequestParam(required = false) String caseStatus,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size){
+        try {
+            return ResponseMessage.success(medicalCaseService.getMedicalCasePage(patientId, doctorId, caseStatus, cursor, size));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
         }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看病例列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看病例列表");
+    }
+
+    /**
+     * 按关键词搜索病例症状与诊断，结果按相关度排序；可按医生过滤，page 从 1 开始
+     */
+    @GetMapping("/search")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<SearchPage<MedicalCase>> searchMedicalCases(@RequestParam String keyword,
+                                                                       @RequestParam(required = false) Long doctorId,
+                                                                       @RequestParam(required = false) Integer page,
+                                                                       @RequestParam(required = false) Integer size){
+        try {
+            return ResponseMessage.success(medicalCaseService.searchMedicalCases(keyword, doctorId, page, size));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
         }
-        return ResponseMessage.success(medicalCaseService.getMedicalCaseList());
     }
 
     /**
      * 根据ID获取病例信息
      */
     @GetMapping("/{caseId}")
-    public ResponseMessage<MedicalCase> getMedicalCaseById(HttpServletRequest request, @PathVariable Long caseId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看病例信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看病例信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例信息")
+    public ResponseMessage<MedicalCase> getMedicalCaseById(@PathVariable Long caseId){
         MedicalCase medicalCase = medicalCaseService.getMedicalCaseById(caseId);
         if(medicalCase == null){
             return ResponseMessage.failed("未查询到相关病例信息");
@@ -69,17 +78,8 @@ public class MedicalCaseController {
      * 根据患者ID获取病例列表
      */
     @GetMapping("/patient/{patientId}")
-    public ResponseMessage<List<MedicalCase>> getMedicalCaseByPatientId(HttpServletRequest request, @PathVariable Long patientId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看病例列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看病例列表");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<List<MedicalCase>> getMedicalCaseByPatientId(@PathVariable Long patientId){
         return ResponseMessage.success(medicalCaseService.getMedicalCaseByPatientId(patientId));
     }
 
@@ -87,17 +87,8 @@ public class MedicalCaseController {
      * 根据医生ID获取病例列表
      */
     @GetMapping("/doctor/{doctorId}")
-    public ResponseMessage<List<MedicalCase>> getMedicalCaseByDoctorId(HttpServletRequest request, @PathVariable Long doctorId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看病例列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看病例列表");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<List<MedicalCase>> getMedicalCaseByDoctorId(@PathVariable Long doctorId){
         return ResponseMessage.success(medicalCaseService.getMedicalCaseByDoctorId(doctorId));
     }
 
@@ -105,17 +96,8 @@ public class MedicalCaseController {
      * 根据状态获取病例列表
      */
     @GetMapping("/status/{caseStatus}")
-    public ResponseMessage<List<MedicalCase>> getMedicalCaseByStatus(HttpServletRequest request, @PathVariable String caseStatus){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看病例列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看病例列表");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看病例列表")
+    public ResponseMessage<List<MedicalCase>> getMedicalCaseByStatus(@PathVariable String caseStatus){
         return ResponseMessage.success(medicalCaseService.getMedicalCaseByStatus(caseStatus));
     }
 
@@ -123,17 +105,8 @@ public class MedicalCaseController {
      * 添加病例
      */
     @PostMapping
-    public ResponseMessage<MedicalCase> addMedicalCase(HttpServletRequest request, @RequestBody MedicalCase medicalCase){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能添加病例
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权添加病例");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权添加病例")
+    public ResponseMessage<MedicalCase> addMedicalCase(@RequestBody MedicalCase medicalCase){
         try {
             int result = medicalCaseService.addMedicalCase(medicalCase);
             if(result > 0){
@@ -150,17 +123,8 @@ public class MedicalCaseController {
      * 更新病例信息
      */
     @PutMapping
-    public ResponseMessage<String> updateMedicalCase(HttpServletRequest request, @RequestBody MedicalCase medicalCase){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能更新病例信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权更新病例信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权更新病例信息")
+    public ResponseMessage<String> updateMedicalCase(@RequestBody MedicalCase medicalCase){
         try {
             int result = medicalCaseService.updateMedicalCase(medicalCase);
             if(result > 0){
@@ -177,17 +141,8 @@ public class MedicalCaseController {
      * 删除病例
      */
     @DeleteMapping("/{caseId}")
-    public ResponseMessage<String> deleteMedicalCase(HttpServletRequest request, @PathVariable Long caseId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能删除病例
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权删除病例");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权删除病例")
+    public ResponseMessage<String> deleteMedicalCase(@PathVariable Long caseId){
         try {
             int result = medicalCaseService.deleteMedicalCase(caseId);
             if(result > 0){
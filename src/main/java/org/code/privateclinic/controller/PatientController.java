@@ -1,12 +1,12 @@
 package org.code.privateclinic.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.Patient;
-import org.code.privateclinic.bean.User;
+import org.code.privateclinic.bean.PatientTimeline;
 import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
 import org.code.privateclinic.service.PatientService;
-import org.code.privateclinic.service.UserService;
-import org.code.privateclinic.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,45 +19,50 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-
-    @Autowired
-    private UserService userService;
-
     /**
-     * 获取所有患者列表
+     * 获取患者列表，最多返回 pagination.list-limit 条，完整数据请使用 /page 分页接口
      */
     @GetMapping("/list")
-    public ResponseMessage<List<Patient>> getPatientList(HttpServletRequest request){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者列表")
+    public ResponseMessage<List<Patient>> getPatientList(){
+        return ResponseMessage.success(patientService.getPatientList());
+    }
+
+    /**
+     * 游标分页获取患者列表，可按医生过滤；cursor 取上一页返回的 nextCursor，第一页不传
+     */
+    @GetMapping("/page")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者列表")
+    public ResponseMessage<CursorPage<Patient>> getPatientPage(@RequestParam(required = false) Long doctorId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size){
+        try {
+            return ResponseMessage.success(patientService.getPatientPage(doctorId, cursor, size));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
         }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看患者列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看患者列表");
+    }
+
+    /**
+     * 前台查找患者：keyword 为姓名前缀、拼音首字母（如 zs）或手机尾号，返回最匹配的 limit 个
+     */
+    @GetMapping("/search")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者信息")
+    public ResponseMessage<List<Patient>> lookupPatients(@RequestParam String keyword,
+                                                         @RequestParam(required = false) Integer limit){
+        try {
+            return ResponseMessage.success(patientService.lookupPatients(keyword, limit));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
         }
-        return ResponseMessage.success(patientService.getPatientList());
     }
 
     /**
      * 根据ID获取患者信息
      */
     @GetMapping("/{patientId}")
-    public ResponseMessage<Patient> getPatientById(HttpServletRequest request, @PathVariable Long patientId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看患者信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看患者信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者信息")
+    public ResponseMessage<Patient> getPatientById(@PathVariable Long patientId){
         Patient patient = patientService.getPatientById(patientId);
         if(patient == null){
             return ResponseMessage.failed("未查询到相关患者信息");
@@ -65,21 +70,29 @@ public class PatientController {
         return ResponseMessage.success(patient);
     }
 
+    /**
+     * 获取患者病历时间线：患者信息、全部病例及其处方和处方明细，一次请求返回
+     */
+    @GetMapping("/{patientId}/timeline")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者信息")
+    public ResponseMessage<PatientTimeline> getPatientTimeline(@PathVariable Long patientId){
+        try {
+            PatientTimeline timeline = patientService.getPatientTimeline(patientId);
+            if(timeline == null){
+                return ResponseMessage.failed("未查询到相关患者信息");
+            }
+            return ResponseMessage.success(timeline);
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+
     /**
      * 根据医生ID获取患者列表
      */
     @GetMapping("/doctor/{doctorId}")
-    public ResponseMessage<List<Patient>> getPatientByDoctorId(HttpServletRequest request, @PathVariable Long doctorId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看患者列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看患者列表");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看患者列表")
+    public ResponseMessage<List<Patient>> getPatientByDoctorId(@PathVariable Long doctorId){
         return ResponseMessage.success(patientService.getPatientByDoctorId(doctorId));
     }
 
@@ -87,17 +100,8 @@ public class PatientController {
      * 添加患者
      */
     @PostMapping
-    public ResponseMessage<Patient> addPatient(HttpServletRequest request, @RequestBody Patient patient){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能添加患者
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权添加患者");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权添加患者")
+    public ResponseMessage<Patient> addPatient(@RequestBody Patient patient){
         try {
             int result = patientService.addPatient(patient);
             if(result > 0){
@@ -114,17 +118,8 @@ public class PatientController {
      * 更新患者信息
      */
     @PutMapping
-    public ResponseMessage<String> updatePatient(HttpServletRequest request, @RequestBody Patient patient){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能更新患者信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权更新患者信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权更新患者信息")
+    public ResponseMessage<String> updatePatient(@RequestBody Patient patient){
         try {
             int result = patientService.updatePatient(patient);
             if(result > 0){
@@ -141,17 +136,8 @@ public class PatientController {
      * 删除患者
      */
     @DeleteMapping("/{patientId}")
-    public ResponseMessage<String> deletePatient(HttpServletRequest request, @PathVariable Long patientId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能删除患者
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权删除患者");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权删除患者")
+    public ResponseMessage<String> deletePatient(@PathVariable Long patientId){
         try {
             int result = patientService.deletePatient(patientId);
             if(result > 0){
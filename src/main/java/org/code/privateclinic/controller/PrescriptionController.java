@@ -1,12 +1,11 @@
 package org.code.privateclinic.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.Prescription;
-import org.code.privateclinic.bean.User;
 import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
 import org.code.privateclinic.service.PrescriptionService;
-import org.code.privateclinic.service.UserService;
-import org.code.privateclinic.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,45 +18,42 @@ public class PrescriptionController {
     @Autowired
     private PrescriptionService prescriptionService;
 
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-
-    @Autowired
-    private UserService userService;
-
     /**
-     * 获取所有处方列表
+     * 获取处方列表，最多返回 pagination.list-limit 条，完整数据请使用 /page 分页接口
+     * withItems 为 true 时同时返回每个处方的明细（明细只多一次查询）
      */
     @GetMapping("/list")
-    public ResponseMessage<List<Prescription>> getPrescriptionList(HttpServletRequest request){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看处方列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看处方列表");
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看处方列表")
+    public ResponseMessage<List<Prescription>> getPrescriptionList(@RequestParam(defaultValue = "false") boolean withItems){
+        return ResponseMessage.success(withItems(prescriptionService.getPrescriptionList(), withItems));
+    }
+
+    /**
+     * 游标分页获取处方列表，可按病例、医生过滤；cursor 取上一页返回的 nextCursor，第一页不传
+     * withItems 为 true 时同时返回本页处方的明细
+     */
+    @GetMapping("/page")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看处方列表")
+    public ResponseMessage<CursorPage<Prescription>> getPrescriptionPage(@RequestParam(required = false) Long caseId,
+                                                                         @RequestParam(required = false) Long doctorId,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer size,
+                                                                         @RequestParam(defaultValue = "false") boolean withItems){
+        try {
+            CursorPage<Prescription> page = prescriptionService.getPrescriptionPage(caseId, doctorId, cursor, size);
+            withItems(page.getItems(), withItems);
+            return ResponseMessage.success(page);
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
         }
-        return ResponseMessage.success(prescriptionService.getPrescriptionList());
     }
 
     /**
      * 根据ID获取处方信息
      */
     @GetMapping("/{prescriptionId}")
-    public ResponseMessage<Prescription> getPrescriptionById(HttpServletRequest request, @PathVariable Long prescriptionId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看处方信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看处方信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看处方信息")
+    public ResponseMessage<Prescription> getPrescriptionById(@PathVariable Long prescriptionId){
         Prescription prescription = prescriptionService.getPrescriptionById(prescriptionId);
         if(prescription == null){
             return ResponseMessage.failed("未查询到相关处方信息");
@@ -66,56 +62,31 @@ public class PrescriptionController {
     }
 
     /**
-     * 根据病例ID获取处方列表
+     * 根据病例ID获取处方列表，withItems 为 true 时同时返回明细，共两次查询
      */
     @GetMapping("/case/{caseId}")
-    public ResponseMessage<List<Prescription>> getPrescriptionByCaseId(HttpServletRequest request, @PathVariable Long caseId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看处方列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看处方列表");
-        }
-        return ResponseMessage.success(prescriptionService.getPrescriptionByCaseId(caseId));
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看处方列表")
+    public ResponseMessage<List<Prescription>> getPrescriptionByCaseId(@PathVariable Long caseId,
+                                                                       @RequestParam(defaultValue = "false") boolean withItems){
+        return ResponseMessage.success(withItems(prescriptionService.getPrescriptionByCaseId(caseId), withItems));
     }
 
     /**
-     * 根据医生ID获取处方列表
+     * 根据医生ID获取处方列表，withItems 为 true 时同时返回明细
      */
     @GetMapping("/doctor/{doctorId}")
-    public ResponseMessage<List<Prescription>> getPrescriptionByDoctorId(HttpServletRequest request, @PathVariable Long doctorId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能查看处方列表
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权查看处方列表");
-        }
-        return ResponseMessage.success(prescriptionService.getPrescriptionByDoctorId(doctorId));
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权查看处方列表")
+    public ResponseMessage<List<Prescription>> getPrescriptionByDoctorId(@PathVariable Long doctorId,
+                                                                         @RequestParam(defaultValue = "false") boolean withItems){
+        return ResponseMessage.success(withItems(prescriptionService.getPrescriptionByDoctorId(doctorId), withItems));
     }
 
     /**
      * 添加处方
      */
     @PostMapping
-    public ResponseMessage<Prescription> addPrescription(HttpServletRequest request, @RequestBody Prescription prescription){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能添加处方
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权添加处方");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权添加处方")
+    public ResponseMessage<Prescription> addPrescription(@RequestBody Prescription prescription){
         try {
             int result = prescriptionService.addPrescription(prescription);
             if(result > 0){
@@ -128,21 +99,25 @@ public class PrescriptionController {
         }
     }
 
+    /**
+     * 一次性创建处方及全部明细，单价与总金额由服务端按药品当前价格计算
+     */
+    @PostMapping("/with-items")
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权添加处方")
+    public ResponseMessage<Prescription> addPrescriptionWithItems(@RequestBody Prescription prescription){
+        try {
+            return ResponseMessage.success(prescriptionService.addPrescriptionWithItems(prescription), "添加处方成功");
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+
     /**
      * 更新处方信息
      */
     @PutMapping
-    public ResponseMessage<String> updatePrescription(HttpServletRequest request, @RequestBody Prescription prescription){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能更新处方信息
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权更新处方信息");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权更新处方信息")
+    public ResponseMessage<String> updatePrescription(@RequestBody Prescription prescription){
         try {
             int result = prescriptionService.updatePrescription(prescription);
             if(result > 0){
@@ -159,17 +134,8 @@ public class PrescriptionController {
      * 删除处方
      */
     @DeleteMapping("/{prescriptionId}")
-    public ResponseMessage<String> deletePrescription(HttpServletRequest request, @PathVariable Long prescriptionId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有医生能删除处方
-        if (user == null || (!"DOCTOR".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有医生有权删除处方");
-        }
+    @RequireRole(value = UserRole.DOCTOR, message = "只有医生有权删除处方")
+    public ResponseMessage<String> deletePrescription(@PathVariable Long prescriptionId){
         try {
             int result = prescriptionService.deletePrescription(prescriptionId);
             if(result > 0){
@@ -181,5 +147,8 @@ public class PrescriptionController {
             return ResponseMessage.failed(e.getMessage());
         }
     }
-}
 
+    private List<Prescription> withItems(List<Prescription> prescriptions, boolean withItems) {
+        return withItems ? prescriptionService.attachItems(prescriptions) : prescriptions;
+    }
+}
@@ -1,5 +1,6 @@
 package org.code.privateclinic.controller;
 
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.PrescriptionItem;
 import org.code.privateclinic.common.ResponseMessage;
 import org.code.privateclinic.service.PrescriptionItemService;
@@ -16,13 +17,27 @@ public class PrescriptionItemController {
     private PrescriptionItemService prescriptionItemService;
 
     /**
-     * 获取所有处方明细列表
+     * 获取处方明细列表，最多返回 pagination.list-limit 条，完整数据请使用 /page 分页接口
      */
     @GetMapping("/list")
     public ResponseMessage<List<PrescriptionItem>> getPrescriptionItemList(){
         return ResponseMessage.success(prescriptionItemService.getPrescriptionItemList());
     }
 
+    /**
+     * 游标分页获取处方明细列表，可按处方过滤；cursor 取上一页返回的 nextCursor，第一页不传
+     */
+    @GetMapping("/page")
+    public ResponseMessage<CursorPage<PrescriptionItem>> getPrescriptionItemPage(@RequestParam(required = false) Long prescriptionId,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(required = false) Integer size){
+        try {
+            return ResponseMessage.success(prescriptionItemService.getPrescriptionItemPage(prescriptionId, cursor, size));
+        } catch (Exception e) {
+            return ResponseMessage.failed(e.getMessage());
+        }
+    }
+
     /**
      * 根据ID获取处方明细信息
      */
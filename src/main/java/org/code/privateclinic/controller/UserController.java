@@ -1,10 +1,12 @@
 package org.code.privateclinic.controller;
 
-import jakarta.servlet.http.HttpServletRequest;
+import org.code.privateclinic.annotation.CurrentUser;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.LoginUser;
 import org.code.privateclinic.bean.User;
 import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.UserRole;
 import org.code.privateclinic.service.UserService;
-import org.code.privateclinic.util.JwtTokenUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,24 +19,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-
     /**
      * 获取所有用户列表
      */
     @GetMapping("/list")
-    public ResponseMessage<List<User>> getUserList(HttpServletRequest request){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能查看用户列表
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看用户列表");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看用户列表")
+    public ResponseMessage<List<User>> getUserList(){
         return ResponseMessage.success(userService.getUserList());
     }
 
@@ -42,17 +32,8 @@ public class UserController {
      * 根据ID获取用户信息
      */
     @GetMapping("/{userId}")
-    public ResponseMessage<User> getUserById(HttpServletRequest request, @PathVariable Long userId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能查看用户信息
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看用户信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看用户信息")
+    public ResponseMessage<User> getUserById(@PathVariable Long userId){
         User user = userService.getUserById(userId);
         if(user == null){
             return ResponseMessage.failed("未查询到相关用户信息");
@@ -64,17 +45,8 @@ public class UserController {
      * 根据用户名获取用户信息
      */
     @GetMapping("/userName/{userName}")
-    public ResponseMessage<User> getUserByUserName(HttpServletRequest request, @PathVariable String userName){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能查看用户信息
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看用户信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看用户信息")
+    public ResponseMessage<User> getUserByUserName(@PathVariable String userName){
         User user = userService.getUserByUserName(userName);
         if(user == null){
             return ResponseMessage.failed("未查询到相关用户信息");
@@ -86,17 +58,8 @@ public class UserController {
      * 根据角色获取用户列表
      */
     @GetMapping("/role/{role}")
-    public ResponseMessage<List<User>> getUserByRole(HttpServletRequest request, @PathVariable String role){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userService.getUserByUserName(username);
-        // 只有管理员能查看用户列表
-        if (user == null || (!"ADMIN".equalsIgnoreCase(user.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权查看用户列表");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权查看用户列表")
+    public ResponseMessage<List<User>> getUserByRole(@PathVariable String role){
         return ResponseMessage.success(userService.getUserByRole(role));
     }
 
@@ -104,17 +67,8 @@ public class UserController {
      * 添加用户
      */
     @PostMapping
-    public ResponseMessage<User> addUser(HttpServletRequest request, @RequestBody User user){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能添加用户
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权添加用户");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权添加用户")
+    public ResponseMessage<User> addUser(@RequestBody User user){
         try {
             int result = userService.addUser(user);
             if(result > 0){
@@ -131,17 +85,8 @@ public class UserController {
      * 更新用户信息
      */
     @PutMapping
-    public ResponseMessage<String> updateUser(HttpServletRequest request, @RequestBody User user){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能更新用户信息
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权更新用户信息");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权更新用户信息")
+    public ResponseMessage<String> updateUser(@RequestBody User user){
         try {
             int result = userService.updateUser(user);
             if(result > 0){
@@ -158,17 +103,8 @@ public class UserController {
      * 逻辑删除用户（更新状态为0）
      */
     @DeleteMapping("/{userId}")
-    public ResponseMessage<String> deleteUser(HttpServletRequest request, @PathVariable Long userId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能删除用户
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权删除用户");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权删除用户")
+    public ResponseMessage<String> deleteUser(@CurrentUser LoginUser currentUser, @PathVariable Long userId){
         // 管理员不能删除自己
         if (currentUser.getUserId().equals(userId)) {
             return ResponseMessage.failed("系统管理员不能删除自己");
@@ -189,17 +125,8 @@ public class UserController {
      * 物理删除用户
      */
     @DeleteMapping("/physical/{userId}")
-    public ResponseMessage<String> deleteUserPhysical(HttpServletRequest request, @PathVariable Long userId){
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-        }
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User currentUser = userService.getUserByUserName(username);
-        // 只有管理员能物理删除用户
-        if (currentUser == null || (!"ADMIN".equalsIgnoreCase(currentUser.getRole()))) {
-            return ResponseMessage.failed("只有管理员有权物理删除用户");
-        }
+    @RequireRole(value = UserRole.ADMIN, message = "只有管理员有权物理删除用户")
+    public ResponseMessage<String> deleteUserPhysical(@CurrentUser LoginUser currentUser, @PathVariable Long userId){
         // 管理员不能删除自己
         if (currentUser.getUserId().equals(userId)) {
             return ResponseMessage.failed("系统管理员不能删除自己");
@@ -0,0 +1,28 @@
+package org.code.privateclinic.datasource;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 每条 INSERT、UPDATE、DELETE 执行成功后记录当前用户刚写入过数据，之后一段时间内该用户的只读查询走主库
+ */
+@Component
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class RecentWriteInterceptor implements Interceptor {
+
+    @Autowired
+    private RecentWriters recentWriters;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        recentWriters.markWrite();
+        return result;
+    }
+}
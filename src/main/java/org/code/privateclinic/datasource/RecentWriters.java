@@ -0,0 +1,84 @@
+package org.code.privateclinic.datasource;
+
+import org.code.privateclinic.bean.LoginUser;
+import org.code.privateclinic.config.ReplicaProperties;
+import org.code.privateclinic.interceptor.AuthInterceptor;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最近写入过数据的用户（读己之写）：用户写入后 sticky-window 内，该用户的只读查询走主库
+ * 1. 由 {@link RecentWriteInterceptor} 在每条 INSERT、UPDATE、DELETE 之后记录，在事务中时提交后再记录一次，
+ *    窗口从提交时开始计算
+ * 2. 用户取自当前请求的登录用户，定时任务等没有登录用户的写入不记录
+ * 3. 只记录本实例处理的请求，多实例部署时依赖负载均衡把同一用户的请求发到同一实例
+ */
+@Component
+public class RecentWriters {
+
+    @Autowired
+    private ReplicaProperties replicaProperties;
+
+    /**
+     * 用户ID → 窗口结束时间（System.nanoTime），过期的记录在下一次查询该用户时移除
+     */
+    private final Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+
+    /**
+     * 记录当前用户刚写入过数据
+     */
+    public void markWrite() {
+        if (replicaProperties.getNodes().isEmpty()) {
+            return;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return;
+        }
+        mark(userId);
+        TransactionHooks.afterCommitIfActive(() -> mark(userId));
+    }
+
+    /**
+     * 当前用户是否仍在写入后的窗口内
+     */
+    public boolean isRecentWriter() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long deadline = deadlines.get(userId);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        deadlines.remove(userId, deadline);
+        return false;
+    }
+
+    private void mark(Long userId) {
+        deadlines.put(userId, System.nanoTime() + replicaProperties.getStickyWindow().toNanos());
+    }
+
+    private static Long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        try {
+            Object user = attributes.getAttribute(AuthInterceptor.LOGIN_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            return user instanceof LoginUser loginUser ? loginUser.getUserId() : null;
+        } catch (IllegalStateException e) {
+            // 请求已结束（如异步导出线程），按没有登录用户处理
+            return null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.code.privateclinic.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.config.ReplicaProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读事务使用的数据源：在可用的副本间轮询取连接，没有可用副本时取主库连接
+ * 1. 副本在首次健康检查通过后才可用；取连接失败的副本立即停用，由下一次健康检查恢复
+ * 2. 复制延迟由心跳表测量：每次检查先读取主库与各副本的心跳时间，两者之差即延迟（精度为检查间隔），
+ *    再在主库写入新的心跳；延迟超过 max-lag 的副本停用
+ * 3. 当前用户刚写入过数据（{@link RecentWriters}）时直接取主库连接，保证读到自己的写入
+ * 按路由统计只读连接数（clinic.datasource.reads，route=replica/sticky/fallback），并导出各副本的延迟与可用状态
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final String READS_METER = "clinic.datasource.reads";
+
+    private static final String SELECT_BEAT = "SELECT beat_time FROM replica_heartbeat WHERE heartbeat_id = 1";
+
+    private static final String UPDATE_BEAT = "UPDATE replica_heartbeat SET beat_time = NOW(3) WHERE heartbeat_id = 1";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final RecentWriters recentWriters;
+
+    private final long maxLagMillis;
+
+    private final int queryTimeoutSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaReads;
+
+    private final Counter stickyReads;
+
+    private final Counter fallbackReads;
+
+    ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaProperties properties,
+                             RecentWriters recentWriters, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.recentWriters = recentWriters;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.queryTimeoutSeconds = (int) Math.max(1, properties.getConnectionTimeout().toSeconds());
+        this.replicaReads = Counter.builder(READS_METER).tag("route", "replica").register(meterRegistry);
+        this.stickyReads = Counter.builder(READS_METER).tag("route", "sticky").register(meterRegistry);
+        this.fallbackReads = Counter.builder(READS_METER).tag("route", "fallback").register(meterRegistry);
+        for (Replica replica : replicas) {
+            Gauge.builder("clinic.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .tag("replica", replica.name).baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("clinic.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", replica.name).register(meterRegistry);
+        }
+    }
+
+    /**
+     * 按配置为每个副本创建只读连接池，连接池在首次取连接时才建立连接
+     */
+    public static ReplicaRoutingDataSource create(DataSource primary, ReplicaProperties properties,
+                                                  RecentWriters recentWriters, MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>();
+        for (ReplicaProperties.Node node : properties.getNodes()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            pool.setJdbcUrl(node.getUrl());
+            pool.setUsername(node.getUsername());
+            pool.setPassword(node.getPassword());
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(properties.getConnectionTimeout().toMillis());
+            pool.setMaximumPoolSize(properties.getMaximumPoolSize());
+            // 副本不可达时不影响启动，由健康检查发现
+            pool.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(pool.getPoolName(), pool));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, properties, recentWriters, meterRegistry);
+    }
+
+    /**
+     * 是否配置了副本，未配置时只读事务也直接使用主库
+     */
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (recentWriters.isRecentWriter()) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markUnavailable(replica, "取连接失败：" + e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("只读数据源不支持指定用户名密码取连接");
+    }
+
+    /**
+     * 健康检查：测量各副本的复制延迟并更新可用状态，然后写入主库心跳
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval:1000}")
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        Timestamp primaryBeat;
+        try (Connection connection = primary.getConnection()) {
+            primaryBeat = readBeat(connection);
+        } catch (SQLException e) {
+            // 主库不可用时无法测量延迟，副本保持原状态
+            log.warn("读取主库复制心跳失败：{}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                long lag = Math.max(0, primaryBeat.getTime() - readBeat(connection).getTime());
+                replica.lagMillis = lag;
+                if (lag > maxLagMillis) {
+                    markUnavailable(replica, "复制延迟 " + lag + "ms 超过上限 " + maxLagMillis + "ms");
+                } else if (!replica.available) {
+                    replica.available = true;
+                    replica.reported = true;
+                    log.info("副本 {} 恢复使用，复制延迟 {}ms", replica.name, lag);
+                }
+            } catch (SQLException e) {
+                markUnavailable(replica, "健康检查失败：" + e.getMessage());
+            }
+        }
+        try (Connection connection = primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPDATE_BEAT)) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            log.warn("写入主库复制心跳失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private Timestamp readBeat(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_BEAT)) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new SQLException("复制心跳记录不存在");
+                }
+                return resultSet.getTimestamp(1);
+            }
+        }
+    }
+
+    private void markUnavailable(Replica replica, String reason) {
+        // 只在状态变化时记录；启动后第一次检查就不可用的副本也记录一次
+        if (replica.available || !replica.reported) {
+            replica.available = false;
+            replica.reported = true;
+            log.warn("副本 {} 暂停使用，{}", replica.name, reason);
+        }
+    }
+
+    static final class Replica {
+
+        private final String name;
+
+        private final HikariDataSource pool;
+
+        private volatile boolean available;
+
+        private volatile long lagMillis;
+
+        /**
+         * 是否已记录过可用状态
+         */
+        private volatile boolean reported;
+
+        Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.code.privateclinic.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * CSV 写出（RFC 4180），UTF-8 带 BOM 以便 Excel 正确识别中文
+ * 以 = + - @ 开头的文本加单引号前缀，防止在表格软件中被当作公式执行
+ */
+public class CsvRowWriter<T> implements RowWriter<T> {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final List<ExportColumn<T>> columns;
+
+    private final Writer writer;
+
+    public CsvRowWriter(List<ExportColumn<T>> columns, OutputStream out) throws IOException {
+        this.columns = columns;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write('\uFEFF');
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(columns.get(i).value().apply(row));
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCell(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number) {
+            writer.write(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+            return;
+        }
+        String text = value instanceof LocalDateTime dateTime ? DATE_TIME_FORMATTER.format(dateTime) : value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,13 @@
+package org.code.privateclinic.export;
+
+import java.util.function.Function;
+
+/**
+ * CSV 导出列：列名与取值函数
+ */
+public record ExportColumn<T>(String name, Function<T, Object> value) {
+
+    public static <T> ExportColumn<T> of(String name, Function<T, Object> value) {
+        return new ExportColumn<>(name, value);
+    }
+}
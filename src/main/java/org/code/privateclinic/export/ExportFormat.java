@@ -0,0 +1,43 @@
+package org.code.privateclinic.export;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    /**
+     * 每行一个 JSON 对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称解析，忽略大小写；不支持的格式返回 null
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
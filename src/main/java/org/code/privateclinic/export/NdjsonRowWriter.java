@@ -0,0 +1,46 @@
+package org.code.privateclinic.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * NDJSON 写出，JSON 格式与接口返回的实体一致，每行（包括最后一行）以换行结尾
+ */
+public class NdjsonRowWriter<T> implements RowWriter<T> {
+
+    private final SequenceWriter sequenceWriter;
+
+    private final OutputStream out;
+
+    private boolean empty = true;
+
+    public NdjsonRowWriter(ObjectMapper objectMapper, Class<T> type, OutputStream out) throws IOException {
+        this.out = out;
+        this.sequenceWriter = objectMapper.writerFor(type)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out);
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+        sequenceWriter.write(row);
+        empty = false;
+    }
+
+    /**
+     * 行之间的换行由 SequenceWriter 写在下一行之前，最后一行的换行在这里补上
+     */
+    @Override
+    public void finish() throws IOException {
+        sequenceWriter.close();
+        if (!empty) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
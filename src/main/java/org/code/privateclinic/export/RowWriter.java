@@ -0,0 +1,13 @@
+package org.code.privateclinic.export;
+
+import java.io.IOException;
+
+/**
+ * 逐行写出导出数据，写完后调用 finish 刷出缓冲区（不关闭底层输出流）
+ */
+public interface RowWriter<T> {
+
+    void write(T row) throws IOException;
+
+    void finish() throws IOException;
+}
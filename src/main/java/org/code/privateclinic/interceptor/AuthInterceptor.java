@@ -0,0 +1,153 @@
+package org.code.privateclinic.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.annotation.CurrentUser;
+import org.code.privateclinic.annotation.RequireRole;
+import org.code.privateclinic.bean.LoginUser;
+import org.code.privateclinic.common.ResponseMessage;
+import org.code.privateclinic.common.ResultCode;
+import org.code.privateclinic.common.UserRole;
+import org.code.privateclinic.util.JwtTokenUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 认证拦截器：每个请求只解析一次 Token，由声明构建 LoginUser 并校验 @RequireRole
+ * 各接口的角色规则在容器启动完成后一次性计算好，请求时只做一次 Map 查找
+ */
+@Slf4j
+@Component
+public class AuthInterceptor implements HandlerInterceptor, ApplicationListener<ContextRefreshedEvent> {
+
+    /**
+     * 当前登录用户在 request 中的属性名
+     */
+    public static final String LOGIN_USER_ATTRIBUTE = LoginUser.class.getName();
+
+    private static final String TOKEN_HEADER = "Authorization";
+    private static final String TOKEN_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Map<Method, AuthRule> rules = Collections.emptyMap();
+
+    /**
+     * 容器刷新完成后扫描所有接口，预先计算角色规则
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        Map<Method, AuthRule> resolved = new HashMap<>();
+        event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()
+                .forEach(mapping -> mapping.getHandlerMethods().values().forEach(handlerMethod -> {
+                    AuthRule rule = resolveRule(handlerMethod);
+                    if (rule != null) {
+                        resolved.put(handlerMethod.getMethod(), rule);
+                    }
+                }));
+        rules = Collections.unmodifiableMap(resolved);
+        log.info("认证规则初始化完成，共 {} 个受保护接口", resolved.size());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AuthRule rule = rules.get(handlerMethod.getMethod());
+        if (rule == null) {
+            return true;
+        }
+
+        LoginUser loginUser = resolveLoginUser(request);
+        if (loginUser == null || !rule.permits(loginUser)) {
+            writeFailed(response, rule.message());
+            return false;
+        }
+        request.setAttribute(LOGIN_USER_ATTRIBUTE, loginUser);
+        return true;
+    }
+
+    private LoginUser resolveLoginUser(HttpServletRequest request) {
+        String token = request.getHeader(TOKEN_HEADER);
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (token.startsWith(TOKEN_PREFIX)) {
+            token = token.substring(TOKEN_PREFIX.length());
+        }
+        Claims claims = jwtTokenUtil.validateToken(token);
+        if (claims == null) {
+            return null;
+        }
+        try {
+            Object userId = claims.get("userId");
+            return new LoginUser(
+                    Long.valueOf(userId != null ? userId.toString() : claims.getSubject()),
+                    claims.get("userName", String.class),
+                    UserRole.of(claims.get("userRole", String.class)));
+        } catch (RuntimeException e) {
+            log.warn("Token 声明不完整，无法构建登录用户，错误信息: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeFailed(HttpServletResponse response, String message) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(), ResponseMessage.failed(message));
+    }
+
+    private static AuthRule resolveRule(HandlerMethod handlerMethod) {
+        RequireRole requireRole = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequireRole.class);
+        if (requireRole == null) {
+            requireRole = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequireRole.class);
+        }
+        if (requireRole != null) {
+            Set<UserRole> roles = EnumSet.noneOf(UserRole.class);
+            roles.addAll(Arrays.asList(requireRole.value()));
+            return new AuthRule(roles, requireRole.message());
+        }
+        // 未声明角色但需要注入当前用户的接口，只要求登录
+        for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+            if (parameter.hasParameterAnnotation(CurrentUser.class)) {
+                return new AuthRule(EnumSet.allOf(UserRole.class), ResultCode.UNAUTHORIZED.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 单个接口的访问规则
+     */
+    private record AuthRule(Set<UserRole> roles, String message) {
+        boolean permits(LoginUser loginUser) {
+            return loginUser.getRole() != null && roles.contains(loginUser.getRole());
+        }
+    }
+}
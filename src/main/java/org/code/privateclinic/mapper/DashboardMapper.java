@@ -0,0 +1,18 @@
+package org.code.privateclinic.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Mapper
+public interface DashboardMapper {
+
+    long countPatients();
+
+    List<Map<String, Object>> countMedicalCasesByStatus();
+
+    Map<String, Object> sumPrescriptionsSince(@Param("startTime") LocalDateTime startTime);
+}
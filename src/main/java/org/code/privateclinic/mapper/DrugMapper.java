@@ -2,8 +2,10 @@ package org.code.privateclinic.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.code.privateclinic.bean.Drug;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -11,6 +13,12 @@ public interface DrugMapper {
 
     List<Drug> getDrugList();
 
+    List<Drug> getDrugCatalog();
+
+    List<Drug> getDrugsByIds(@Param("drugIds") Collection<Long> drugIds);
+
+    List<Drug> getDrugPricesLocked(@Param("drugIds") Collection<Long> drugIds);
+
     Drug getDrugById(Long drugId);
 
     Drug getDrugByName(String drugName);
@@ -23,6 +31,4 @@ public interface DrugMapper {
     int deleteDrug(Long drugId);
 
     int deleteDrugPhysical(Long drugId);
-
-    int updateStock(Long drugId, Integer stock);
 }
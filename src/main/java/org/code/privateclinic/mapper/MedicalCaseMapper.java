@@ -2,22 +2,34 @@ package org.code.privateclinic.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.code.privateclinic.bean.ExportQuery;
 import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.common.PageCursor;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface MedicalCaseMapper {
 
-    List<MedicalCase> getMedicalCaseList();
+    List<MedicalCase> getMedicalCaseList(@Param("limit") int limit);
+
+    List<MedicalCase> getMedicalCasePage(@Param("patientId") Long patientId,
+                                         @Param("doctorId") Long doctorId,
+                                         @Param("caseStatus") String caseStatus,
+                                         @Param("cursor") PageCursor cursor,
+                                         @Param("limit") int limit);
 
     MedicalCase getMedicalCaseById(Long caseId);
 
-    List<MedicalCase> getMedicalCaseByPatientId(Long patientId);
+    List<MedicalCase> getMedicalCaseByPatientId(@Param("patientId") Long patientId, @Param("limit") int limit);
 
-    List<MedicalCase> getMedicalCaseByDoctorId(Long doctorId);
+    List<MedicalCase> getMedicalCaseByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
 
-    List<MedicalCase> getMedicalCaseByStatus(String caseStatus);
+    List<MedicalCase> getMedicalCaseByStatus(@Param("caseStatus") String caseStatus, @Param("limit") int limit);
 
     @Options(useGeneratedKeys = true, keyProperty = "caseId")
     int addMedicalCase(MedicalCase medicalCase);
@@ -25,5 +37,16 @@ public interface MedicalCaseMapper {
     int updateMedicalCase(MedicalCase medicalCase);
 
     int deleteMedicalCase(Long caseId);
-}
 
+    Cursor<MedicalCase> exportMedicalCases(ExportQuery query);
+
+    List<MedicalCase> getMedicalCasesByIds(@Param("caseIds") Collection<Long> caseIds);
+
+    List<MedicalCase> getMedicalCaseTextsAfterId(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    List<MedicalCase> getMedicalCaseTextsUpdatedSince(@Param("since") LocalDateTime since,
+                                                      @Param("afterId") long afterId,
+                                                      @Param("limit") int limit);
+
+    List<Long> getMedicalCaseIds();
+}
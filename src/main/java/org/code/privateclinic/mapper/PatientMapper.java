@@ -2,18 +2,30 @@ package org.code.privateclinic.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.common.PageCursor;
 
 import java.util.List;
 
 @Mapper
 public interface PatientMapper {
 
-    List<Patient> getPatientList();
+    List<Patient> getPatientList(@Param("limit") int limit);
+
+    List<Patient> getPatientPage(@Param("doctorId") Long doctorId,
+                                 @Param("cursor") PageCursor cursor,
+                                 @Param("limit") int limit);
 
     Patient getPatientById(Long patientId);
 
-    List<Patient> getPatientByDoctorId(Long doctorId);
+    List<Patient> getPatientLookupAfterId(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    Long getPatientIdByCaseId(Long caseId);
+
+    Long getPatientIdByPrescriptionId(Long prescriptionId);
+
+    List<Patient> getPatientByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
 
     @Options(useGeneratedKeys = true, keyProperty = "patientId")
     int addPatient(Patient patient);
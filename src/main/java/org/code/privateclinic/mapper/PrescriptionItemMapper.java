@@ -2,26 +2,43 @@ package org.code.privateclinic.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.code.privateclinic.bean.ExportQuery;
 import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.common.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface PrescriptionItemMapper {
 
-    List<PrescriptionItem> getPrescriptionItemList();
+    List<PrescriptionItem> getPrescriptionItemList(@Param("limit") int limit);
+
+    List<PrescriptionItem> getPrescriptionItemPage(@Param("prescriptionId") Long prescriptionId,
+                                                   @Param("cursor") PageCursor cursor,
+                                                   @Param("limit") int limit);
 
     PrescriptionItem getPrescriptionItemById(Long itemId);
 
     List<PrescriptionItem> getPrescriptionItemByPrescriptionId(Long prescriptionId);
 
+    List<PrescriptionItem> getPrescriptionItemsByPrescriptionIds(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+
+    List<PrescriptionItem> getPrescriptionItemsByPatientId(@Param("patientId") Long patientId, @Param("limit") int limit);
+
     @Options(useGeneratedKeys = true, keyProperty = "itemId")
     int addPrescriptionItem(PrescriptionItem prescriptionItem);
 
+    @Options(useGeneratedKeys = true, keyProperty = "items.itemId")
+    int addPrescriptionItems(@Param("items") List<PrescriptionItem> items);
+
     int updatePrescriptionItem(PrescriptionItem prescriptionItem);
 
     int deletePrescriptionItem(Long itemId);
 
     int deletePrescriptionItemByPrescriptionId(Long prescriptionId);
-}
 
+    Cursor<PrescriptionItem> exportPrescriptionItems(ExportQuery query);
+}
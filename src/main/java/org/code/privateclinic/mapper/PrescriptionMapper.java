@@ -2,20 +2,31 @@ package org.code.privateclinic.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.code.privateclinic.bean.ExportQuery;
 import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.common.PageCursor;
 
 import java.util.List;
 
 @Mapper
 public interface PrescriptionMapper {
 
-    List<Prescription> getPrescriptionList();
+    List<Prescription> getPrescriptionList(@Param("limit") int limit);
+
+    List<Prescription> getPrescriptionPage(@Param("caseId") Long caseId,
+                                           @Param("doctorId") Long doctorId,
+                                           @Param("cursor") PageCursor cursor,
+                                           @Param("limit") int limit);
 
     Prescription getPrescriptionById(Long prescriptionId);
 
-    List<Prescription> getPrescriptionByCaseId(Long caseId);
+    List<Prescription> getPrescriptionByCaseId(@Param("caseId") Long caseId, @Param("limit") int limit);
+
+    List<Prescription> getPrescriptionByPatientId(@Param("patientId") Long patientId, @Param("limit") int limit);
 
-    List<Prescription> getPrescriptionByDoctorId(Long doctorId);
+    List<Prescription> getPrescriptionByDoctorId(@Param("doctorId") Long doctorId, @Param("limit") int limit);
 
     @Options(useGeneratedKeys = true, keyProperty = "prescriptionId")
     int addPrescription(Prescription prescription);
@@ -23,5 +34,6 @@ public interface PrescriptionMapper {
     int updatePrescription(Prescription prescription);
 
     int deletePrescription(Long prescriptionId);
-}
 
+    Cursor<Prescription> exportPrescriptions(ExportQuery query);
+}
@@ -0,0 +1,27 @@
+package org.code.privateclinic.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.code.privateclinic.bean.StockMovement;
+
+import java.util.List;
+
+@Mapper
+public interface StockMovementMapper {
+
+    @Options(useGeneratedKeys = true, keyProperty = "movementId")
+    int addStockMovement(StockMovement stockMovement);
+
+    int addStockMovements(@Param("movements") List<StockMovement> movements);
+
+    Integer getAvailableStock(Long drugId);
+
+    List<Long> getPendingStockDrugIds();
+
+    List<StockMovement> getPendingStockMovements(@Param("drugId") Long drugId);
+
+    int markStockMovementsApplied(@Param("movementIds") List<Long> movementIds);
+
+    int applyStockSnapshot(@Param("drugId") Long drugId, @Param("quantity") int quantity);
+}
@@ -0,0 +1,59 @@
+package org.code.privateclinic.monitor;
+
+import java.util.List;
+
+/**
+ * 当前线程正在执行的操作是否命中缓存，用作操作耗时指标的 cache 标签
+ * 缓存层在查询时标记命中或未命中，一个操作中任何一次未命中都记为 miss，没有查询过缓存记为 none
+ * 状态保存在每个线程一个的 int 数组中，标记与读取都不分配对象
+ */
+public final class CacheOutcome {
+
+    public static final int NONE = 0;
+
+    public static final int HIT = 1;
+
+    public static final int MISS = 2;
+
+    public static final List<String> TAGS = List.of("none", "hit", "miss");
+
+    private static final ThreadLocal<int[]> CURRENT = ThreadLocal.withInitial(() -> new int[1]);
+
+    private CacheOutcome() {
+    }
+
+    public static void hit() {
+        mark(HIT);
+    }
+
+    public static void miss() {
+        mark(MISS);
+    }
+
+    /**
+     * 操作开始：清空当前状态，返回外层操作的状态，结束时交给 {@link #end(int)} 恢复
+     */
+    public static int begin() {
+        int[] state = CURRENT.get();
+        int previous = state[0];
+        state[0] = NONE;
+        return previous;
+    }
+
+    /**
+     * 操作结束：返回本操作的缓存结果，并把结果合并回外层操作
+     */
+    public static int end(int previous) {
+        int[] state = CURRENT.get();
+        int outcome = state[0];
+        state[0] = Math.max(previous, outcome);
+        return outcome;
+    }
+
+    private static void mark(int outcome) {
+        int[] state = CURRENT.get();
+        if (outcome > state[0]) {
+            state[0] = outcome;
+        }
+    }
+}
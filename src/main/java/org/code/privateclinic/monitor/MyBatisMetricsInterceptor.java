@@ -0,0 +1,71 @@
+package org.code.privateclinic.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 语句耗时：每条映射语句一个 clinic.mybatis 计时器，标签为语句（Mapper.方法）和结果
+ * 计时器按语句 ID 缓存，记录时不分配对象
+ * 流式导出的游标查询只在打开时经过这里，不计入
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class MyBatisMetricsInterceptor implements Interceptor {
+
+    static final String METER_NAME = "clinic.mybatis";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        Timer[] statementTimers = timers.get(statement.getId());
+        if (statementTimers == null) {
+            statementTimers = timers.computeIfAbsent(statement.getId(), this::createTimers);
+        }
+        long startTime = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            statementTimers[0].record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            statementTimers[1].record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * 语句 ID 为「包名.Mapper.方法」，标签只保留「Mapper.方法」
+     */
+    private Timer[] createTimers(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int mapper = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        String name = statementId.substring(mapper + 1);
+        return new Timer[]{
+                Timer.builder(METER_NAME).tag("statement", name).tag("outcome", "success").register(meterRegistry),
+                Timer.builder(METER_NAME).tag("statement", name).tag("outcome", "error").register(meterRegistry)
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package org.code.privateclinic.monitor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程固定（pinning）监控：只在启用虚拟线程时生效
+ * 通过 JFR 的 jdk.VirtualThreadPinned 事件发现虚拟线程在 synchronized 或本地方法中阻塞、占住载体线程的位置，
+ * 例如 JDBC 驱动或 Redis 客户端内部在持有监视器锁时做网络 I/O
+ * 同一调用位置只在第一次出现时打印完整堆栈，之后只累计次数
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("${virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold;
+
+    @Value("${virtual-threads.pinned-stack-depth:12}")
+    private int stackDepth;
+
+    private final Map<String, LongAdder> pinnedCounts = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("已启用虚拟线程固定监控，阈值 {}", threshold);
+        } catch (Exception e) {
+            log.warn("虚拟线程固定监控启动失败，错误信息: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * 各调用位置（堆栈中第一个非 JDK 的帧）被固定的次数
+     */
+    public Map<String, Long> getPinnedCounts() {
+        return pinnedCounts.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = site(frames);
+        LongAdder count = new LongAdder();
+        LongAdder existing = pinnedCounts.putIfAbsent(site, count);
+        if (existing != null) {
+            existing.increment();
+        } else {
+            count.increment();
+            log.warn("虚拟线程被固定 {} ms，位置 {}，堆栈:\n{}", event.getDuration().toMillis(), site, format(frames));
+        }
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0).getMethod().getType().getName();
+    }
+
+    private String format(List<RecordedFrame> frames) {
+        return frames.stream()
+                .limit(stackDepth)
+                .map(frame -> "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,34 @@
+package org.code.privateclinic.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动完成后报告请求处理使用的线程模式
+ * 配置了 spring.threads.virtual.enabled=true 但运行在 JDK 21 以下时，Spring Boot 会静默退回平台线程，这里给出警告
+ */
+@Slf4j
+@Component
+public class ThreadingModeReporter {
+
+    @Autowired
+    private Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("请求处理与异步任务运行在虚拟线程上");
+        } else if (requested) {
+            log.warn("已配置启用虚拟线程，但当前 JDK {} 不支持（需要 21 及以上），仍使用平台线程",
+                    Runtime.version().feature());
+        } else {
+            log.info("请求处理运行在平台线程池上");
+        }
+    }
+}
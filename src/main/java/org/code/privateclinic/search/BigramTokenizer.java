@@ -0,0 +1,81 @@
+package org.code.privateclinic.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二元分词：不依赖词典，中文按相邻两个字切分（“咳嗽发热” → 咳嗽、嗽发、发热），只有一个字的片段保留单字；
+ * 连续的字母、数字作为一个词并转为小写（超过 32 个字符的截断）；标点、空白等其它字符作为分隔
+ * 切分前先做 NFKC 规范化，全角字母数字与半角视为相同
+ */
+public final class BigramTokenizer {
+
+    /**
+     * 字母数字词的最大长度，超出部分截断
+     */
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private static final int OTHER = 0;
+    private static final int HAN = 1;
+    private static final int WORD = 2;
+
+    private BigramTokenizer() {
+    }
+
+    /**
+     * 切分文本，返回各词在文本中出现的次数（按首次出现的顺序）
+     */
+    public static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (Token token : split(text)) {
+            if (token.han && token.text.length() > 1) {
+                for (int i = 0; i + 1 < token.text.length(); i++) {
+                    terms.merge(token.text.substring(i, i + 2), 1, Integer::sum);
+                }
+            } else {
+                terms.merge(token.text, 1, Integer::sum);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 把文本切成中文片段与字母数字片段
+     */
+    static List<Token> split(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        int start = -1;
+        boolean han = false;
+        for (int i = 0; i <= normalized.length(); i++) {
+            int type = i < normalized.length() ? type(normalized.charAt(i)) : OTHER;
+            boolean isHan = type == HAN;
+            if (start >= 0 && (type == OTHER || isHan != han)) {
+                int end = han ? i : Math.min(i, start + MAX_WORD_LENGTH);
+                tokens.add(new Token(normalized.substring(start, end), han));
+                start = -1;
+            }
+            if (start < 0 && type != OTHER) {
+                start = i;
+                han = isHan;
+            }
+        }
+        return tokens;
+    }
+
+    private static int type(char c) {
+        if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+            return HAN;
+        }
+        return Character.isLetterOrDigit(c) ? WORD : OTHER;
+    }
+
+    record Token(String text, boolean han) {
+    }
+}
@@ -0,0 +1,584 @@
+package org.code.privateclinic.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 病历症状、诊断的进程内倒排索引
+ * 1. 病历按加入顺序分配从 0 递增的序号，倒排表只存序号与词频，新序号总是最大，倒排表只需追加
+ * 2. 修改病历时标记原序号为已删除并分配新序号，已删除的序号在查询时跳过，超过一定比例后整理（compact）；
+ *    整理前已删除的序号仍计入词的文档数，只影响打分，不影响命中
+ * 3. 查询要求命中关键词切分出的全部词（单个汉字匹配含该字的任意词），按 BM25 打分排序，可只查某个医生的病历
+ * 4. 查询与修改使用读写锁，查询之间不互斥
+ */
+public class CaseSearchIndex {
+
+    private static final int MAGIC = 0x50435349;
+    private static final int VERSION = 1;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * 汉字 → 含该字的二元词，用于单字查询
+     */
+    private final Map<Character, Set<String>> termsByChar = new HashMap<>();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private long[] caseIds = new long[1024];
+    private long[] doctorIds = new long[1024];
+    private long[] updateTimes = new long[1024];
+    private int[] lengths = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    /**
+     * 已同步到的数据库修改时间（毫秒），随快照保存
+     */
+    private volatile long watermark;
+
+    /**
+     * 加入或替换病历，updateTime 为数据库中的修改时间（毫秒），用于同步时跳过未变化的病历
+     */
+    public void put(long caseId, long doctorId, long updateTime, String... texts) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String text : texts) {
+            BigramTokenizer.tokenize(text).forEach((term, tf) -> terms.merge(term, tf, Integer::sum));
+        }
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        lock.writeLock().lock();
+        try {
+            removeLocked(caseId);
+            int ordinal = docCount++;
+            ensureCapacity(docCount);
+            caseIds[ordinal] = caseId;
+            doctorIds[ordinal] = doctorId;
+            updateTimes[ordinal] = updateTime;
+            lengths[ordinal] = length;
+            ordinals.put(caseId, ordinal);
+            liveCount++;
+            liveLength += length;
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, this::newPostings).add(ordinal, tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long caseId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(caseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除不在 existingCaseIds（升序）中、且修改时间早于 updatedBefore（毫秒）的病历，返回删除的条数；
+     * 用于清理其它途径删除的病历
+     */
+    public int retain(long[] existingCaseIds, long updatedBefore) {
+        lock.writeLock().lock();
+        try {
+            List<Long> missing = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : ordinals.entrySet()) {
+                if (updateTimes[entry.getValue()] < updatedBefore
+                        && Arrays.binarySearch(existingCaseIds, entry.getKey()) < 0) {
+                    missing.add(entry.getKey());
+                }
+            }
+            missing.forEach(this::removeLocked);
+            return missing.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引中病历的修改时间（毫秒），不在索引中时返回 Long.MIN_VALUE
+     */
+    public long updateTimeOf(long caseId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(caseId);
+            return ordinal == null ? Long.MIN_VALUE : updateTimes[ordinal];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(long watermark) {
+        this.watermark = watermark;
+    }
+
+    /**
+     * 查询病历，按相关度从高到低返回第 offset 条起的 limit 个病历ID；doctorId 为空时不按医生过滤
+     */
+    public SearchHits search(String keyword, Long doctorId, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<List<Postings>> groups = resolve(keyword);
+            if (groups.isEmpty() || liveCount == 0) {
+                return new SearchHits(0, List.of());
+            }
+            groups.sort(Comparator.comparingLong(CaseSearchIndex::totalSize));
+            float averageLength = Math.max(1f, (float) liveLength / liveCount);
+            Candidates candidates = firstGroup(groups.get(0), doctorId, averageLength);
+            for (int g = 1; g < groups.size() && candidates.size > 0; g++) {
+                candidates = intersect(candidates, groups.get(g), averageLength);
+            }
+            return new SearchHits(candidates.size, top(candidates, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已删除序号超过 maxDeletedRatio 时整理：去掉已删除的序号并重新编号，返回是否整理
+     */
+    public boolean compactIfNeeded(double maxDeletedRatio) {
+        lock.writeLock().lock();
+        try {
+            int deletedCount = docCount - liveCount;
+            if (deletedCount == 0 || deletedCount < docCount * maxDeletedRatio) {
+                return false;
+            }
+            int[] remap = new int[docCount];
+            int next = 0;
+            for (int ordinal = 0; ordinal < docCount; ordinal++) {
+                if (deleted.get(ordinal)) {
+                    remap[ordinal] = -1;
+                    continue;
+                }
+                remap[ordinal] = next;
+                caseIds[next] = caseIds[ordinal];
+                doctorIds[next] = doctorIds[ordinal];
+                updateTimes[next] = updateTimes[ordinal];
+                lengths[next] = lengths[ordinal];
+                ordinals.put(caseIds[next], next);
+                next++;
+            }
+            Iterator<Map.Entry<String, Postings>> iterator = postings.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Postings> entry = iterator.next();
+                if (entry.getValue().remap(remap) == 0) {
+                    iterator.remove();
+                    unregisterChars(entry.getKey());
+                }
+            }
+            docCount = next;
+            deleted.clear();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写出索引快照；序号按差值变长编码
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        lock.readLock().lock();
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(watermark);
+            out.writeInt(docCount);
+            for (int ordinal = 0; ordinal < docCount; ordinal++) {
+                out.writeBoolean(deleted.get(ordinal));
+                out.writeLong(caseIds[ordinal]);
+                out.writeLong(doctorIds[ordinal]);
+                out.writeLong(updateTimes[ordinal]);
+                out.writeInt(lengths[ordinal]);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(list.size);
+                int previous = 0;
+                for (int i = 0; i < list.size; i++) {
+                    writeVarInt(out, list.docs[i] - previous);
+                    previous = list.docs[i];
+                    out.writeByte(list.tfs[i]);
+                }
+            }
+            out.flush();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static CaseSearchIndex readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("索引快照格式不正确");
+        }
+        CaseSearchIndex index = new CaseSearchIndex();
+        index.watermark = in.readLong();
+        int docCount = in.readInt();
+        index.ensureCapacity(docCount);
+        for (int ordinal = 0; ordinal < docCount; ordinal++) {
+            boolean deleted = in.readBoolean();
+            index.caseIds[ordinal] = in.readLong();
+            index.doctorIds[ordinal] = in.readLong();
+            index.updateTimes[ordinal] = in.readLong();
+            index.lengths[ordinal] = in.readInt();
+            if (deleted) {
+                index.deleted.set(ordinal);
+            } else {
+                index.ordinals.put(index.caseIds[ordinal], ordinal);
+                index.liveCount++;
+                index.liveLength += index.lengths[ordinal];
+            }
+        }
+        index.docCount = docCount;
+        int termCount = in.readInt();
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            Postings list = index.newPostings(term);
+            list.docs = new int[Math.max(4, size)];
+            list.tfs = new byte[list.docs.length];
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += readVarInt(in);
+                list.docs[i] = previous;
+                list.tfs[i] = in.readByte();
+            }
+            list.size = size;
+            index.postings.put(term, list);
+        }
+        return index;
+    }
+
+    private boolean removeLocked(long caseId) {
+        Integer ordinal = ordinals.remove(caseId);
+        if (ordinal == null) {
+            return false;
+        }
+        deleted.set(ordinal);
+        liveCount--;
+        liveLength -= lengths[ordinal];
+        return true;
+    }
+
+    /**
+     * 关键词切分为若干组，每组是可以互相替代的词：二元词、字母数字词各自成组，单个汉字展开为含该字的全部词
+     * 任意一组在索引中没有对应的词时返回空列表（不可能命中）
+     */
+    private List<List<Postings>> resolve(String keyword) {
+        Set<Set<String>> groups = new LinkedHashSet<>();
+        for (BigramTokenizer.Token token : BigramTokenizer.split(keyword)) {
+            String text = token.text();
+            if (token.han() && text.length() == 1) {
+                Set<String> group = new HashSet<>(termsByChar.getOrDefault(text.charAt(0), Set.of()));
+                group.add(text);
+                groups.add(group);
+            } else if (token.han()) {
+                for (int i = 0; i + 1 < text.length(); i++) {
+                    groups.add(Set.of(text.substring(i, i + 2)));
+                }
+            } else {
+                groups.add(Set.of(text));
+            }
+        }
+        List<List<Postings>> resolved = new ArrayList<>(groups.size());
+        for (Set<String> group : groups) {
+            List<Postings> lists = new ArrayList<>(group.size());
+            for (String term : group) {
+                Postings list = postings.get(term);
+                if (list != null && list.size > 0) {
+                    lists.add(list);
+                }
+            }
+            if (lists.isEmpty()) {
+                return new ArrayList<>();
+            }
+            resolved.add(lists);
+        }
+        return resolved;
+    }
+
+    /**
+     * 以倒排表最短的一组作为候选集，多个词时按序号合并并累加得分
+     */
+    private Candidates firstGroup(List<Postings> group, Long doctorId, float averageLength) {
+        int total = (int) totalSize(group);
+        long[] packed = new long[total];
+        int n = 0;
+        for (Postings list : group) {
+            float idf = idf(list.size);
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.docs[i];
+                if (deleted.get(ordinal) || (doctorId != null && doctorIds[ordinal] != doctorId)) {
+                    continue;
+                }
+                float score = score(idf, list.tf(i), lengths[ordinal], averageLength);
+                packed[n++] = ((long) ordinal << 32) | (Float.floatToRawIntBits(score) & 0xFFFFFFFFL);
+            }
+        }
+        if (group.size() > 1) {
+            Arrays.sort(packed, 0, n);
+        }
+        Candidates candidates = new Candidates(n);
+        for (int i = 0; i < n; i++) {
+            int ordinal = (int) (packed[i] >>> 32);
+            float score = Float.intBitsToFloat((int) packed[i]);
+            if (candidates.size > 0 && candidates.ordinals[candidates.size - 1] == ordinal) {
+                candidates.scores[candidates.size - 1] += score;
+            } else {
+                candidates.add(ordinal, score);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 只保留命中该组任意一个词的候选，倒排表与候选都按序号升序，用跳跃查找逐个定位
+     */
+    private Candidates intersect(Candidates candidates, List<Postings> group, float averageLength) {
+        Candidates next = new Candidates(candidates.size);
+        int[] positions = new int[group.size()];
+        float[] idfs = new float[group.size()];
+        for (int g = 0; g < group.size(); g++) {
+            idfs[g] = idf(group.get(g).size);
+        }
+        for (int c = 0; c < candidates.size; c++) {
+            int ordinal = candidates.ordinals[c];
+            float score = 0;
+            boolean matched = false;
+            for (int g = 0; g < group.size(); g++) {
+                Postings list = group.get(g);
+                int position = list.seek(ordinal, positions[g]);
+                positions[g] = position;
+                if (position < list.size && list.docs[position] == ordinal) {
+                    matched = true;
+                    score += score(idfs[g], list.tf(position), lengths[ordinal], averageLength);
+                }
+            }
+            if (matched) {
+                next.add(ordinal, candidates.scores[c] + score);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 取得分最高的 offset + limit 个候选（得分相同时较新的在前），返回其中第 offset 条起的病历ID
+     */
+    private List<Long> top(Candidates candidates, int offset, int limit) {
+        int k = Math.min(offset + limit, candidates.size);
+        if (k <= offset) {
+            return List.of();
+        }
+        Comparator<Integer> order = Comparator.<Integer>comparingDouble(i -> candidates.scores[i])
+                .thenComparingInt(i -> candidates.ordinals[i]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, order);
+        for (int i = 0; i < candidates.size; i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (order.compare(i, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        Long[] ranked = new Long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = caseIds[candidates.ordinals[heap.poll()]];
+        }
+        return List.of(ranked).subList(offset, ranked.length);
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float score(float idf, int tf, int length, float averageLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static long totalSize(List<Postings> group) {
+        long total = 0;
+        for (Postings list : group) {
+            total += list.size;
+        }
+        return total;
+    }
+
+    private Postings newPostings(String term) {
+        if (term.length() == 2 && isHan(term.charAt(0)) && isHan(term.charAt(1))) {
+            termsByChar.computeIfAbsent(term.charAt(0), c -> new HashSet<>()).add(term);
+            termsByChar.computeIfAbsent(term.charAt(1), c -> new HashSet<>()).add(term);
+        }
+        return new Postings();
+    }
+
+    private void unregisterChars(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            Set<String> terms = termsByChar.get(term.charAt(i));
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByChar.remove(term.charAt(i));
+            }
+        }
+    }
+
+    private static boolean isHan(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= caseIds.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, caseIds.length * 2);
+        caseIds = Arrays.copyOf(caseIds, newLength);
+        doctorIds = Arrays.copyOf(doctorIds, newLength);
+        updateTimes = Arrays.copyOf(updateTimes, newLength);
+        lengths = Arrays.copyOf(lengths, newLength);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * 查询结果：命中总数与当前页的病历ID（按相关度排序）
+     */
+    public record SearchHits(long total, List<Long> caseIds) {
+    }
+
+    /**
+     * 一个词的倒排表：序号升序，词频超过 255 时按 255 计
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private byte[] tfs = new byte[4];
+        private int size;
+
+        private void add(int ordinal, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = ordinal;
+            tfs[size] = (byte) Math.min(tf, 255);
+            size++;
+        }
+
+        private int tf(int index) {
+            return tfs[index] & 0xFF;
+        }
+
+        /**
+         * 从 from 开始查找第一个不小于 ordinal 的位置：先按倍数跳跃确定范围，再二分
+         */
+        private int seek(int ordinal, int from) {
+            int bound = 1;
+            while (from + bound < size && docs[from + bound] < ordinal) {
+                bound <<= 1;
+            }
+            int low = from;
+            int high = Math.min(from + bound, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < ordinal) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 按新序号重写，去掉已删除的序号，返回剩余条数
+         */
+        private int remap(int[] remap) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[docs[i]];
+                if (ordinal >= 0) {
+                    docs[n] = ordinal;
+                    tfs[n] = tfs[i];
+                    n++;
+                }
+            }
+            size = n;
+            return n;
+        }
+    }
+
+    /**
+     * 候选病历：序号升序及累计得分
+     */
+    private static final class Candidates {
+        private final int[] ordinals;
+        private final float[] scores;
+        private int size;
+
+        private Candidates(int capacity) {
+            ordinals = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        private void add(int ordinal, float score) {
+            ordinals[size] = ordinal;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.code.privateclinic.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.mapper.MedicalCaseMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 病历全文索引的维护
+ * 1. 启动完成后在后台线程加载本地快照，没有快照或快照损坏时从数据库重建，加载完成前搜索不可用
+ * 2. 本实例对病例的修改在提交后同步进索引，加载完成前的修改由加载结束时的增量同步补上
+ * 3. 定时按 update_time 增量同步（回看 search.sync-lag，覆盖提交较晚的事务），其它实例的修改由此进入索引；
+ *    定时对比全部病例ID，清理其它途径删除的病历（如删除患者时级联删除的病例）
+ * 4. 索引有变化时定时写出快照，关闭时再写一次，重启后只需同步快照之后的修改
+ */
+@Slf4j
+@Component
+public class CaseSearchIndexer {
+
+    private static final String SNAPSHOT_FILE = "medical-case.idx";
+    private static final int BATCH_SIZE = 1000;
+    private static final double MAX_DELETED_RATIO = 0.25;
+
+    @Autowired
+    private MedicalCaseMapper medicalCaseMapper;
+
+    @Value("${search.index-dir:data/search-index}")
+    private Path indexDir;
+
+    @Value("${search.sync-lag:5s}")
+    private Duration syncLag;
+
+    private volatile CaseSearchIndex index;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * 增量同步与清理互斥，避免同一病历被两个线程交错更新
+     */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "case-search-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 查询病历ID，索引未加载完成时抛出异常
+     */
+    public CaseSearchIndex.SearchHits search(String keyword, Long doctorId, int offset, int limit) {
+        CaseSearchIndex current = index;
+        if (current == null) {
+            throw new RuntimeException("病历搜索索引正在加载，请稍后再试");
+        }
+        return current.search(keyword, doctorId, offset, limit);
+    }
+
+    /**
+     * 病例新增或修改后重新索引，在事务中时提交后执行
+     */
+    public void refreshAfterCommit(Long caseId) {
+        afterCommit(caseId, () -> {
+            MedicalCase row = medicalCaseMapper.getMedicalCaseById(caseId);
+            if (row == null) {
+                index.remove(caseId);
+            } else {
+                put(index, row);
+            }
+        });
+    }
+
+    /**
+     * 病例删除后移出索引，在事务中时提交后执行
+     */
+    public void removeAfterCommit(Long caseId) {
+        afterCommit(caseId, () -> index.remove(caseId));
+    }
+
+    /**
+     * 增量同步：读取上次同步之后修改的病例，修改时间与索引中不同的重新索引
+     */
+    @Scheduled(fixedDelayString = "${search.sync-interval:10000}")
+    public void syncChanges() {
+        CaseSearchIndex current = index;
+        if (current == null) {
+            // 启动时加载失败（如数据库暂不可用），重新加载
+            startLoading();
+            return;
+        }
+        syncLock.lock();
+        try {
+            int changed = sync(current);
+            boolean compacted = current.compactIfNeeded(MAX_DELETED_RATIO);
+            if (changed > 0 || compacted) {
+                dirty.set(true);
+            }
+        } catch (Exception e) {
+            log.warn("病历搜索索引同步失败，错误信息: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 清理数据库中已不存在的病历；修改时间在回看范围内的不清理，避免误删查询期间刚提交的病例
+     */
+    @Scheduled(fixedDelayString = "${search.reconcile-interval:600000}", initialDelayString = "${search.reconcile-interval:600000}")
+    public void reconcile() {
+        CaseSearchIndex current = index;
+        if (current == null) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            long before = System.currentTimeMillis() - syncLag.toMillis();
+            long[] caseIds = medicalCaseMapper.getMedicalCaseIds().stream().mapToLong(Long::longValue).toArray();
+            int removed = current.retain(caseIds, before);
+            if (removed > 0) {
+                dirty.set(true);
+                log.info("病历搜索索引已清理 {} 条已删除的病历", removed);
+            }
+        } catch (Exception e) {
+            log.warn("病历搜索索引清理失败，错误信息: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.snapshot-interval:60000}")
+    public void snapshot() {
+        CaseSearchIndex current = index;
+        if (current == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            writeSnapshot(current);
+        } catch (Exception e) {
+            dirty.set(true);
+            log.warn("病历搜索索引快照写入失败，错误信息: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    private void load() {
+        try {
+            long start = System.nanoTime();
+            CaseSearchIndex loaded = readSnapshot();
+            if (loaded == null) {
+                loaded = rebuild();
+                dirty.set(true);
+            }
+            syncLock.lock();
+            try {
+                if (sync(loaded) > 0) {
+                    dirty.set(true);
+                }
+                index = loaded;
+            } finally {
+                syncLock.unlock();
+            }
+            log.info("病历搜索索引加载完成，共 {} 条病历，耗时 {} ms",
+                    loaded.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("病历搜索索引加载失败，稍后重试，错误信息: {}", e.getMessage(), e);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private CaseSearchIndex readSnapshot() {
+        Path file = indexDir.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return CaseSearchIndex.readFrom(in);
+        } catch (IOException e) {
+            log.warn("病历搜索索引快照读取失败，从数据库重建，错误信息: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再替换，写出过程中进程退出不会留下不完整的快照
+     */
+    private void writeSnapshot(CaseSearchIndex current) throws IOException {
+        Files.createDirectories(indexDir);
+        Path temp = indexDir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            current.writeTo(out);
+        }
+        Files.move(temp, indexDir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 按病例ID顺序分批读取全部病例建立索引
+     */
+    private CaseSearchIndex rebuild() {
+        CaseSearchIndex rebuilt = new CaseSearchIndex();
+        long watermark = 0;
+        long afterId = 0;
+        List<MedicalCase> rows;
+        do {
+            rows = medicalCaseMapper.getMedicalCaseTextsAfterId(afterId, BATCH_SIZE);
+            for (MedicalCase row : rows) {
+                put(rebuilt, row);
+                watermark = Math.max(watermark, millis(row.getUpdateTime()));
+                afterId = row.getCaseId();
+            }
+        } while (rows.size() == BATCH_SIZE);
+        rebuilt.setWatermark(watermark);
+        return rebuilt;
+    }
+
+    private int sync(CaseSearchIndex target) {
+        long watermark = target.getWatermark();
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(watermark - syncLag.toMillis()), ZoneId.systemDefault());
+        long afterId = 0;
+        int changed = 0;
+        List<MedicalCase> rows;
+        do {
+            rows = medicalCaseMapper.getMedicalCaseTextsUpdatedSince(since, afterId, BATCH_SIZE);
+            for (MedicalCase row : rows) {
+                long updateTime = millis(row.getUpdateTime());
+                if (target.updateTimeOf(row.getCaseId()) != updateTime) {
+                    put(target, row);
+                    changed++;
+                }
+                watermark = Math.max(watermark, updateTime);
+                since = row.getUpdateTime();
+                afterId = row.getCaseId();
+            }
+        } while (rows.size() == BATCH_SIZE);
+        target.setWatermark(watermark);
+        return changed;
+    }
+
+    private void afterCommit(Long caseId, Runnable action) {
+        if (caseId == null || index == null) {
+            // 加载完成前的修改由加载结束时的增量同步补上
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            action.run();
+            dirty.set(true);
+        }, e -> log.warn("更新病历搜索索引失败，等待定时同步，病例ID {}，错误信息: {}", caseId, e.getMessage()));
+    }
+
+    private static void put(CaseSearchIndex target, MedicalCase row) {
+        target.put(row.getCaseId(), row.getDoctorId(), millis(row.getUpdateTime()), row.getSymptom(), row.getDiagnosis());
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
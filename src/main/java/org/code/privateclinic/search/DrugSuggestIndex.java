@@ -0,0 +1,499 @@
+package org.code.privateclinic.search;
+
+import org.code.privateclinic.bean.Drug;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 药品名称联想用的不可变前缀树
+ * 1. 只收录启用的药品，每个药品登记药品名称、说明书与名称拼音首字母三类词，词做 NFKC 规范化并忽略大小写与空白
+ * 2. 建树时为每个节点预先算好经过该节点的前 MAX_SUGGESTIONS 个药品（词越短越靠前，同长度按药品名称），
+ *    前缀查询只需沿树走到节点，取现成的结果
+ * 3. 前缀命中不足 limit 个时按编辑距离容错补足：3 到 5 个字符允许错 1 个，更长的允许错 2 个；
+ *    在树上逐层计算编辑距离矩阵的一行，整行都超出允许距离时剪枝
+ * 4. 建成后不再修改，可被多个线程同时查询；药品变化时用 {@link #with}、{@link #without} 生成新的索引替换，
+ *    只复制该药品各个词路径上的节点，其余节点与原索引共用；移除药品留下的空位在下一次整体建立时回收
+ */
+public final class DrugSuggestIndex {
+
+    /**
+     * 单次联想返回的药品数上限
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Comparator<Drug> DRUG_ORDER =
+            Comparator.comparing(Drug::getDrugName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                    .thenComparing(Drug::getDrugId);
+
+    private static final DrugSuggestIndex EMPTY = new DrugSuggestIndex(List.of());
+
+    /**
+     * 药品ID → 序号
+     */
+    private final Map<Long, Integer> slots;
+
+    /**
+     * 按序号保存的药品，即节点中保存的编号；整体建立时按药品名称排列，之后加入的药品排在末尾，已移除的药品为空
+     */
+    private final Drug[] drugs;
+
+    private final Node root;
+
+    private DrugSuggestIndex(List<Drug> activeDrugs) {
+        this.drugs = activeDrugs.stream().sorted(DRUG_ORDER).toArray(Drug[]::new);
+        Map<Long, Integer> byId = new HashMap<>();
+        for (int slot = 0; slot < drugs.length; slot++) {
+            byId.put(drugs[slot].getDrugId(), slot);
+        }
+        this.slots = byId;
+        this.root = build(drugs);
+    }
+
+    private DrugSuggestIndex(Drug[] drugs, Map<Long, Integer> slots, Node root) {
+        this.drugs = drugs;
+        this.slots = slots;
+        this.root = root;
+    }
+
+    public static DrugSuggestIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由药品目录建立索引，停用的药品不收录
+     */
+    public static DrugSuggestIndex of(Iterable<Drug> catalog) {
+        Map<Long, Drug> active = new LinkedHashMap<>();
+        for (Drug drug : catalog) {
+            if (isActive(drug)) {
+                active.put(drug.getDrugId(), drug);
+            }
+        }
+        return new DrugSuggestIndex(new ArrayList<>(active.values()));
+    }
+
+    /**
+     * 加入或替换一个药品后的新索引；药品已停用时等同于移除
+     * 名称、说明书都没变时（如只改了价格、库存）沿用原来的树，只替换药品对象；
+     * 否则先沿旧词的路径移除，再沿新词的路径加入
+     */
+    public DrugSuggestIndex with(Drug drug) {
+        if (!isActive(drug)) {
+            return without(drug == null ? null : drug.getDrugId());
+        }
+        Integer slot = slots.get(drug.getDrugId());
+        Drug previous = slot == null ? null : drugs[slot];
+        if (previous != null
+                && Objects.equals(previous.getDrugName(), drug.getDrugName())
+                && Objects.equals(previous.getSpecification(), drug.getSpecification())) {
+            Drug[] replaced = drugs.clone();
+            replaced[slot] = drug;
+            return new DrugSuggestIndex(replaced, slots, root);
+        }
+        Node tree = root;
+        Drug[] next;
+        Map<Long, Integer> nextSlots = slots;
+        if (previous != null) {
+            Comparator<long[]> order = order(drugs);
+            for (String term : terms(previous)) {
+                tree = remove(tree, term, 0, slot, order);
+            }
+            next = drugs.clone();
+        } else {
+            slot = drugs.length;
+            next = Arrays.copyOf(drugs, drugs.length + 1);
+            nextSlots = new HashMap<>(slots);
+            nextSlots.put(drug.getDrugId(), slot);
+        }
+        next[slot] = drug;
+        Comparator<long[]> order = order(next);
+        for (String term : terms(drug)) {
+            tree = insert(tree, term, 0, slot, order);
+        }
+        return new DrugSuggestIndex(next, nextSlots, tree);
+    }
+
+    /**
+     * 移除一个药品后的新索引，药品不在索引中时返回自身
+     */
+    public DrugSuggestIndex without(Long drugId) {
+        Integer slot = drugId == null ? null : slots.get(drugId);
+        if (slot == null) {
+            return this;
+        }
+        Node tree = root;
+        Comparator<long[]> order = order(drugs);
+        for (String term : terms(drugs[slot])) {
+            tree = remove(tree, term, 0, slot, order);
+        }
+        Drug[] next = drugs.clone();
+        next[slot] = null;
+        Map<Long, Integer> nextSlots = new HashMap<>(slots);
+        nextSlots.remove(drugId);
+        return new DrugSuggestIndex(next, nextSlots, tree);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * 按输入联想药品，最多返回 limit 个（不超过 {@link #MAX_SUGGESTIONS}）；
+     * 前缀命中的在前，容错匹配的按编辑距离从小到大补在后面
+     */
+    public List<Drug> suggest(String keyword, int limit) {
+        String query = normalize(keyword);
+        int max = Math.min(limit, MAX_SUGGESTIONS);
+        if (query.isEmpty() || max <= 0) {
+            return List.of();
+        }
+        Set<Integer> hits = new LinkedHashSet<>();
+        Node exact = root.find(query);
+        if (exact != null) {
+            collect(exact.top, max, hits);
+        }
+        int maxEdits = maxEdits(query.length());
+        if (hits.size() < max && maxEdits > 0) {
+            List<List<Node>> byDistance = new ArrayList<>();
+            for (int d = 0; d <= maxEdits; d++) {
+                byDistance.add(new ArrayList<>());
+            }
+            int[] firstRow = new int[query.length() + 1];
+            for (int j = 0; j < firstRow.length; j++) {
+                firstRow[j] = j;
+            }
+            fuzzy(root, query, firstRow, maxEdits, byDistance);
+            for (int d = 1; d <= maxEdits && hits.size() < max; d++) {
+                for (Node node : byDistance.get(d)) {
+                    collect(node.top, max, hits);
+                }
+            }
+        }
+        List<Drug> result = new ArrayList<>(hits.size());
+        for (int ordinal : hits) {
+            result.add(drugs[ordinal]);
+        }
+        return result;
+    }
+
+    private static void collect(int[] top, int max, Set<Integer> hits) {
+        for (int ordinal : top) {
+            if (hits.size() >= max) {
+                return;
+            }
+            hits.add(ordinal);
+        }
+    }
+
+    /**
+     * 沿树计算输入与各节点前缀的编辑距离，距离在允许范围内的节点按距离归类
+     */
+    private static void fuzzy(Node node, String query, int[] row, int maxEdits, List<List<Node>> byDistance) {
+        int m = query.length();
+        for (int i = 0; i < node.labels.length; i++) {
+            char label = node.labels[i];
+            int[] next = new int[m + 1];
+            next[0] = row[0] + 1;
+            int rowMin = next[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = query.charAt(j - 1) == label ? 0 : 1;
+                next[j] = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                rowMin = Math.min(rowMin, next[j]);
+            }
+            Node child = node.children[i];
+            if (next[m] <= maxEdits) {
+                byDistance.get(next[m]).add(child);
+            }
+            if (rowMin <= maxEdits) {
+                fuzzy(child, query, next, maxEdits, byDistance);
+            }
+        }
+    }
+
+    private static int maxEdits(int length) {
+        if (length < 3) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    private static Node build(Drug[] drugs) {
+        Builder root = new Builder();
+        for (int slot = 0; slot < drugs.length; slot++) {
+            for (String term : terms(drugs[slot])) {
+                Builder node = root;
+                for (int i = 0; i < term.length(); i++) {
+                    node = node.children.computeIfAbsent(term.charAt(i), c -> new Builder());
+                }
+                node.ends.add(slot);
+            }
+        }
+        // 整体建立时序号按药品名称排列，直接比较序号，与 order(drugs) 的顺序相同
+        return root.freeze(0, Comparator.<long[]>comparingLong(c -> c[0]).thenComparingLong(c -> c[1]));
+    }
+
+    /**
+     * 药品登记的词：名称、说明书与名称拼音首字母，去重并去掉空词
+     */
+    private static Set<String> terms(Drug drug) {
+        String name = normalize(drug.getDrugName());
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add(name);
+        terms.add(normalize(drug.getSpecification()));
+        terms.addAll(PinyinInitials.of(name));
+        terms.remove("");
+        return terms;
+    }
+
+    /**
+     * 沿词的路径复制节点并登记药品；加入只会让药品排得更靠前，路径上各节点只需把它合并进原来的候选
+     */
+    private static Node insert(Node node, String term, int depth, int slot, Comparator<long[]> order) {
+        char[] labels = node == null ? Node.NO_LABELS : node.labels;
+        Node[] children = node == null ? Node.NO_CHILDREN : node.children;
+        int[] ends = node == null ? Node.NO_SLOTS : node.ends;
+        if (depth == term.length()) {
+            ends = Arrays.copyOf(ends, ends.length + 1);
+            ends[ends.length - 1] = slot;
+        } else {
+            int pos = Arrays.binarySearch(labels, term.charAt(depth));
+            Node child = insert(pos >= 0 ? children[pos] : null, term, depth + 1, slot, order);
+            if (pos >= 0) {
+                children = children.clone();
+                children[pos] = child;
+            } else {
+                int at = -pos - 1;
+                labels = insertAt(labels, at, term.charAt(depth));
+                children = insertAt(children, at, child);
+            }
+        }
+        List<long[]> candidates = node == null ? new ArrayList<>(1) : node.candidates();
+        candidates.add(new long[]{term.length(), slot});
+        return new Node(labels, children, ends, rank(candidates, order));
+    }
+
+    /**
+     * 沿词的路径复制节点并移除药品，节点变空时返回 null；
+     * 药品不在某个节点的候选中时该节点的候选不变，在其中时由本节点的词与子节点的候选重新合并
+     */
+    private static Node remove(Node node, String term, int depth, int slot, Comparator<long[]> order) {
+        if (node == null) {
+            return null;
+        }
+        char[] labels = node.labels;
+        Node[] children = node.children;
+        int[] ends = node.ends;
+        if (depth == term.length()) {
+            ends = Arrays.stream(ends).filter(end -> end != slot).toArray();
+        } else {
+            int pos = Arrays.binarySearch(labels, term.charAt(depth));
+            if (pos < 0) {
+                return node;
+            }
+            Node child = remove(children[pos], term, depth + 1, slot, order);
+            if (child != null) {
+                children = children.clone();
+                children[pos] = child;
+            } else {
+                labels = removeAt(labels, pos);
+                children = removeAt(children, pos);
+            }
+        }
+        if (depth > 0 && ends.length == 0 && children.length == 0) {
+            return null;
+        }
+        if (Arrays.stream(node.top).noneMatch(top -> top == slot)) {
+            return new Node(labels, children, ends, node.top, node.topLengths);
+        }
+        return merge(labels, children, ends, depth, order);
+    }
+
+    /**
+     * 由本节点结束的词与子节点的候选合并出本节点的候选
+     */
+    private static Node merge(char[] labels, Node[] children, int[] ends, int depth, Comparator<long[]> order) {
+        List<long[]> candidates = new ArrayList<>(ends.length + children.length * 4);
+        for (int end : ends) {
+            candidates.add(new long[]{depth, end});
+        }
+        for (Node child : children) {
+            candidates.addAll(child.candidates());
+        }
+        return new Node(labels, children, ends, rank(candidates, order));
+    }
+
+    /**
+     * 同一药品只保留最短的词，按词长、药品名称排序后截取
+     */
+    private static List<long[]> rank(List<long[]> candidates, Comparator<long[]> order) {
+        candidates.sort(order);
+        Set<Long> seen = new HashSet<>();
+        List<long[]> kept = new ArrayList<>(Math.min(candidates.size(), MAX_SUGGESTIONS));
+        for (long[] candidate : candidates) {
+            if (kept.size() >= MAX_SUGGESTIONS) {
+                break;
+            }
+            if (seen.add(candidate[1])) {
+                kept.add(candidate);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * 候选 {词长, 序号} 的顺序：词越短越靠前，同长度按药品名称、药品ID
+     */
+    private static Comparator<long[]> order(Drug[] drugs) {
+        return Comparator.<long[]>comparingLong(c -> c[0]).thenComparing(c -> drugs[(int) c[1]], DRUG_ORDER);
+    }
+
+    private static char[] insertAt(char[] array, int at, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    private static Node[] insertAt(Node[] array, int at, Node value) {
+        Node[] result = new Node[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    private static char[] removeAt(char[] array, int at) {
+        char[] result = new char[array.length - 1];
+        System.arraycopy(array, 0, result, 0, at);
+        System.arraycopy(array, at + 1, result, at, array.length - at - 1);
+        return result;
+    }
+
+    private static Node[] removeAt(Node[] array, int at) {
+        Node[] result = new Node[array.length - 1];
+        System.arraycopy(array, 0, result, 0, at);
+        System.arraycopy(array, at + 1, result, at, array.length - at - 1);
+        return result;
+    }
+
+    private static boolean isActive(Drug drug) {
+        return drug != null && drug.getDrugId() != null && Integer.valueOf(1).equals(drug.getStatus());
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_SLOTS = new int[0];
+
+        /**
+         * 子节点的字符，升序，与 children 一一对应
+         */
+        private final char[] labels;
+        private final Node[] children;
+
+        /**
+         * 在该节点结束的词所属的药品序号，词长即节点深度
+         */
+        private final int[] ends;
+
+        /**
+         * 经过该节点的前 MAX_SUGGESTIONS 个药品序号，已排好序；topLengths 是对应药品在子树中最短的词长
+         */
+        private final int[] top;
+        private final int[] topLengths;
+
+        private Node(char[] labels, Node[] children, int[] ends, int[] top, int[] topLengths) {
+            this.labels = labels;
+            this.children = children;
+            this.ends = ends;
+            this.top = top;
+            this.topLengths = topLengths;
+        }
+
+        private Node(char[] labels, Node[] children, int[] ends, List<long[]> ranked) {
+            this(labels, children, ends, new int[ranked.size()], new int[ranked.size()]);
+            for (int k = 0; k < top.length; k++) {
+                topLengths[k] = (int) ranked.get(k)[0];
+                top[k] = (int) ranked.get(k)[1];
+            }
+        }
+
+        /**
+         * 本节点的候选 {词长, 序号}，供合并
+         */
+        private List<long[]> candidates() {
+            List<long[]> candidates = new ArrayList<>(top.length + 1);
+            for (int k = 0; k < top.length; k++) {
+                candidates.add(new long[]{topLengths[k], top[k]});
+            }
+            return candidates;
+        }
+
+        private Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                int pos = Arrays.binarySearch(node.labels, prefix.charAt(i));
+                node = pos >= 0 ? node.children[pos] : null;
+            }
+            return node;
+        }
+    }
+
+    /**
+     * 建树用的可变节点，建完后转为 {@link Node}
+     */
+    private static final class Builder {
+
+        private final TreeMap<Character, Builder> children = new TreeMap<>();
+
+        /**
+         * 在该节点结束的词所属的药品序号
+         */
+        private final List<Integer> ends = new ArrayList<>(1);
+
+        /**
+         * 自下而上合并子节点的候选
+         */
+        private Node freeze(int depth, Comparator<long[]> order) {
+            char[] labels = children.isEmpty() ? Node.NO_LABELS : new char[children.size()];
+            Node[] frozen = children.isEmpty() ? Node.NO_CHILDREN : new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze(depth + 1, order);
+                i++;
+            }
+            int[] slots = ends.isEmpty() ? Node.NO_SLOTS : ends.stream().mapToInt(Integer::intValue).toArray();
+            return merge(labels, frozen, slots, depth, order);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.code.privateclinic.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.cache.DrugCatalogCache;
+import org.code.privateclinic.mapper.DrugMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 药品联想索引的维护
+ * 1. 第一次联想时从 Redis 药品目录建立索引（目录未加载时由目录从数据库加载）
+ * 2. 本实例的药品增删改在事务提交后基于当前索引生成新索引并整体替换，查询始终读到完整的某一版索引
+ * 3. 定时从药品目录重新建立，其它实例的修改由此进入索引
+ */
+@Slf4j
+@Component
+public class DrugSuggester {
+
+    @Autowired
+    private DrugCatalogCache drugCatalogCache;
+
+    @Autowired
+    private DrugMapper drugMapper;
+
+    private volatile DrugSuggestIndex index;
+
+    /**
+     * 按药品名称、说明书或名称拼音首字母联想药品
+     */
+    public List<Drug> suggest(String keyword, int limit) {
+        DrugSuggestIndex current = index;
+        if (current == null) {
+            current = load();
+        }
+        return current.suggest(keyword, limit);
+    }
+
+    /**
+     * 药品新增、修改或停用后替换索引中的该药品，在事务中时提交后执行
+     */
+    public void putAfterCommit(Drug drug) {
+        afterCommit(drug.getDrugId(), () -> replace(index.with(drug)));
+    }
+
+    /**
+     * 药品物理删除后移出索引，在事务中时提交后执行
+     */
+    public void removeAfterCommit(Long drugId) {
+        afterCommit(drugId, () -> replace(index.without(drugId)));
+    }
+
+    @Scheduled(fixedDelayString = "${search.drug-reload-interval:60000}", initialDelayString = "${search.drug-reload-interval:60000}")
+    public void reload() {
+        if (index == null) {
+            return;
+        }
+        try {
+            replace(DrugSuggestIndex.of(drugCatalogCache.getAll(drugMapper::getDrugCatalog)));
+        } catch (Exception e) {
+            log.warn("药品联想索引重建失败，错误信息: {}", e.getMessage());
+        }
+    }
+
+    private synchronized DrugSuggestIndex load() {
+        if (index == null) {
+            index = DrugSuggestIndex.of(drugCatalogCache.getAll(drugMapper::getDrugCatalog));
+            log.info("药品联想索引建立完成，共 {} 个药品", index.size());
+        }
+        return index;
+    }
+
+    private synchronized void replace(DrugSuggestIndex next) {
+        index = next;
+    }
+
+    private void afterCommit(Long drugId, Runnable action) {
+        if (drugId == null || index == null) {
+            // 索引尚未建立，第一次联想时会读到最新的目录
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                action.run();
+            }
+        }, e -> log.warn("更新药品联想索引失败，等待定时重建，药品ID {}，错误信息: {}", drugId, e.getMessage()));
+    }
+}
@@ -0,0 +1,166 @@
+package org.code.privateclinic.search;
+
+import org.code.privateclinic.bean.Patient;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 前台查找患者用的进程内前缀索引
+ * 1. 每个患者登记三类键：姓名、姓名拼音首字母（多音字展开，最多 8 种）、倒序的手机号，
+ *    手机号倒序后“尾号匹配”变成前缀匹配；键后拼接倒序的患者ID，同一个键下新登记的患者排在前面
+ * 2. 键存放在跳表中，前缀查询是一次定位加顺序遍历，只取前 limit 个，与患者总数基本无关；
+ *    前缀相同时较短的键排在前面，完全匹配的姓名总是先返回
+ * 3. 查询不加锁；修改串行执行，先登记新键再移除旧键，修改过程中查询不会漏掉该患者
+ * 4. 只保存查找结果需要展示的字段（不含地址、备注），完整信息按ID另行查询
+ */
+public class PatientLookupIndex {
+
+    private static final char NAME = 'n';
+    private static final char INITIALS = 'p';
+    private static final char PHONE = 't';
+    private static final char SEPARATOR = '\u0000';
+    private static final char UPPER_BOUND = '\uffff';
+
+    private final ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 加入或更新患者
+     */
+    public synchronized void put(Patient patient) {
+        Long patientId = patient.getPatientId();
+        Patient summary = summaryOf(patient);
+        List<String> patientKeys = keysOf(summary);
+        for (String key : patientKeys) {
+            keys.put(key, patientId);
+        }
+        Entry old = entries.put(patientId, new Entry(summary, patientKeys));
+        if (old != null) {
+            for (String key : old.keys()) {
+                if (!patientKeys.contains(key)) {
+                    keys.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 移除患者，不存在时忽略
+     */
+    public synchronized void remove(Long patientId) {
+        Entry old = entries.remove(patientId);
+        if (old != null) {
+            for (String key : old.keys()) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 按关键词查找患者，最多返回 limit 个
+     * 全是数字时按手机尾号匹配；全是字母时先按拼音首字母、再按姓名匹配；其它按姓名前缀匹配
+     * 关键词做 NFKC 规范化并忽略大小写与空白
+     */
+    public List<Patient> lookup(String keyword, int limit) {
+        String query = normalize(keyword);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> patientIds = new LinkedHashSet<>();
+        if (query.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            scan(PHONE + new StringBuilder(query).reverse().toString(), limit, patientIds);
+        } else {
+            if (query.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+                scan(INITIALS + query, limit, patientIds);
+            }
+            scan(NAME + query, limit, patientIds);
+        }
+        List<Patient> patients = new ArrayList<>(patientIds.size());
+        for (Long patientId : patientIds) {
+            Entry entry = entries.get(patientId);
+            if (entry != null) {
+                patients.add(summaryOf(entry.patient()));
+            }
+        }
+        return patients;
+    }
+
+    private void scan(String prefix, int limit, Set<Long> patientIds) {
+        for (Long patientId : keys.subMap(prefix, prefix + UPPER_BOUND).values()) {
+            if (patientIds.size() >= limit) {
+                return;
+            }
+            patientIds.add(patientId);
+        }
+    }
+
+    private static List<String> keysOf(Patient patient) {
+        String suffix = SEPARATOR + String.format("%019d", Long.MAX_VALUE - patient.getPatientId());
+        List<String> patientKeys = new ArrayList<>();
+        String name = normalize(patient.getPatientName());
+        if (!name.isEmpty()) {
+            patientKeys.add(NAME + name + suffix);
+            for (String initials : PinyinInitials.of(name)) {
+                patientKeys.add(INITIALS + initials + suffix);
+            }
+        }
+        String phone = digitsOf(patient.getPhone());
+        if (!phone.isEmpty()) {
+            patientKeys.add(PHONE + new StringBuilder(phone).reverse().toString() + suffix);
+        }
+        return patientKeys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c) && c != SEPARATOR && c != UPPER_BOUND) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String digitsOf(String phone) {
+        String normalized = normalize(phone);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Patient summaryOf(Patient patient) {
+        Patient summary = new Patient();
+        summary.setPatientId(patient.getPatientId());
+        summary.setPatientName(patient.getPatientName());
+        summary.setGender(patient.getGender());
+        summary.setAge(patient.getAge());
+        summary.setPhone(patient.getPhone());
+        summary.setDoctorId(patient.getDoctorId());
+        return summary;
+    }
+
+    private record Entry(Patient patient, List<String> keys) {
+    }
+}
@@ -0,0 +1,173 @@
+package org.code.privateclinic.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.mapper.PatientMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 患者查找索引的维护
+ * 1. 启动完成后在后台线程按患者ID分批读取全部患者建立索引，建立完成前查找不可用
+ * 2. 本实例新增、修改的患者在事务提交后按ID重新读取并索引，删除的移出索引
+ * 3. 定时整体重建，其它实例的修改与级联删除由此进入索引；重建期间本实例修改过的患者在替换索引时重新读取，
+ *    避免被重建开始前读到的旧数据覆盖
+ */
+@Slf4j
+@Component
+public class PatientLookupIndexer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private PatientMapper patientMapper;
+
+    private volatile PatientLookupIndex index;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    /**
+     * 保护 rebuilding 与 changedDuringRebuild，并与替换索引互斥
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private boolean rebuilding;
+
+    private final Set<Long> changedDuringRebuild = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(this::reload, "patient-lookup-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 按姓名、拼音首字母或手机尾号查找患者，索引未建立完成时抛出异常
+     */
+    public List<Patient> lookup(String keyword, int limit) {
+        PatientLookupIndex current = index;
+        if (current == null) {
+            throw new RuntimeException("患者查找索引正在加载，请稍后再试");
+        }
+        return current.lookup(keyword, limit);
+    }
+
+    /**
+     * 患者新增或修改后重新索引，在事务中时提交后执行
+     */
+    public void refreshAfterCommit(Long patientId) {
+        afterCommit(patientId, () -> apply(patientId, patientMapper.getPatientById(patientId)));
+    }
+
+    /**
+     * 患者删除后移出索引，在事务中时提交后执行
+     */
+    public void removeAfterCommit(Long patientId) {
+        afterCommit(patientId, () -> apply(patientId, null));
+    }
+
+    @Scheduled(fixedDelayString = "${search.patient-rebuild-interval:600000}", initialDelayString = "${search.patient-rebuild-interval:600000}")
+    public void rebuild() {
+        // 启动时加载失败（如数据库暂不可用）时也由此重新加载
+        if (loading.compareAndSet(false, true)) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        try {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.unlock();
+            }
+            PatientLookupIndex rebuilt = build();
+            lock.lock();
+            try {
+                for (Long patientId : changedDuringRebuild) {
+                    put(rebuilt, patientId, patientMapper.getPatientById(patientId));
+                }
+                index = rebuilt;
+            } finally {
+                changedDuringRebuild.clear();
+                rebuilding = false;
+                lock.unlock();
+            }
+            log.info("患者查找索引建立完成，共 {} 名患者，耗时 {} ms",
+                    rebuilt.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            lock.lock();
+            try {
+                changedDuringRebuild.clear();
+                rebuilding = false;
+            } finally {
+                lock.unlock();
+            }
+            log.error("患者查找索引建立失败，稍后重试，错误信息: {}", e.getMessage(), e);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private PatientLookupIndex build() {
+        PatientLookupIndex rebuilt = new PatientLookupIndex();
+        long afterId = 0;
+        List<Patient> rows;
+        do {
+            rows = patientMapper.getPatientLookupAfterId(afterId, BATCH_SIZE);
+            for (Patient row : rows) {
+                rebuilt.put(row);
+                afterId = row.getPatientId();
+            }
+        } while (rows.size() == BATCH_SIZE);
+        return rebuilt;
+    }
+
+    private void apply(Long patientId, Patient row) {
+        lock.lock();
+        try {
+            if (rebuilding) {
+                changedDuringRebuild.add(patientId);
+            }
+            PatientLookupIndex current = index;
+            if (current != null) {
+                put(current, patientId, row);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void afterCommit(Long patientId, Runnable action) {
+        if (patientId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(action,
+                e -> log.warn("更新患者查找索引失败，等待定时重建，患者ID {}，错误信息: {}", patientId, e.getMessage()));
+    }
+
+    private static void put(PatientLookupIndex target, Long patientId, Patient row) {
+        if (row == null) {
+            target.remove(patientId);
+        } else {
+            target.put(row);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.code.privateclinic.search;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 汉字拼音首字母（如 张三 → zs），用于按首字母查找患者、药品
+ */
+final class PinyinInitials {
+
+    /**
+     * 多音字组合的数量上限，超出的读音组合丢弃（常用读音在前）
+     */
+    private static final int MAX_VARIANTS = 8;
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 文本的拼音首字母，多音字展开为多种组合；小写字母原样保留，其它字符忽略；文本中没有汉字时返回空
+     */
+    static List<String> of(String text) {
+        List<String> variants = List.of("");
+        boolean han = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Set<Character> options = new LinkedHashSet<>();
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c);
+            if (readings != null && readings.length > 0) {
+                han = true;
+                for (String reading : readings) {
+                    options.add(reading.charAt(0));
+                }
+            } else if (c >= 'a' && c <= 'z') {
+                options.add(c);
+            } else {
+                continue;
+            }
+            List<String> expanded = new ArrayList<>();
+            for (String variant : variants) {
+                for (Character option : options) {
+                    if (expanded.size() < MAX_VARIANTS) {
+                        expanded.add(variant + option);
+                    }
+                }
+            }
+            variants = expanded;
+        }
+        return han ? variants : List.of();
+    }
+}
@@ -0,0 +1,8 @@
+package org.code.privateclinic.service;
+
+import org.code.privateclinic.bean.DashboardSummary;
+
+public interface DashboardService {
+
+    DashboardSummary getSummary();
+}
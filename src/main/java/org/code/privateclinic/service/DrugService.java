@@ -2,7 +2,9 @@ package org.code.privateclinic.service;
 
 import org.code.privateclinic.bean.Drug;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface DrugService {
     /**
@@ -15,11 +17,22 @@ public interface DrugService {
      */
     Drug getDrugById(Long drugId);
 
+    /**
+     * 根据ID批量获取药品信息，结果按传入顺序排列，不存在的ID不出现在结果中
+     */
+    Map<Long, Drug> getDrugsByIds(Collection<Long> drugIds);
+
     /**
      * 根据药品名称获取药品信息
      */
     Drug getDrugByName(String drugName);
 
+    /**
+     * 按药品名称、说明书或名称拼音首字母的前缀联想启用的药品，允许少量输入错误；
+     * 最多返回 limit 个（默认 10，上限 20）
+     */
+    List<Drug> suggestDrugs(String keyword, Integer limit);
+
     /**
      * 添加药品
      */
@@ -41,7 +54,17 @@ public interface DrugService {
     int deleteDrugPhysical(Long drugId);
 
     /**
-     * 更新药品库存
+     * 更新药品库存（按差额追加调整流水）
      */
     int updateStock(Long drugId, Integer stock);
+
+    /**
+     * 获取药品当前可用库存
+     */
+    long getAvailableStock(Long drugId);
+
+    /**
+     * 药品在其它地方被修改（如库存快照）后刷新缓存
+     */
+    void refreshDrugCache(Long drugId);
 }
\ No newline at end of file
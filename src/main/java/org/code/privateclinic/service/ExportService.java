@@ -0,0 +1,24 @@
+package org.code.privateclinic.service;
+
+import org.code.privateclinic.bean.ExportQuery;
+import org.code.privateclinic.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    /**
+     * 流式导出病例，返回导出的行数
+     */
+    long exportMedicalCases(ExportQuery query, ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 流式导出处方，返回导出的行数
+     */
+    long exportPrescriptions(ExportQuery query, ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * 流式导出处方明细，返回导出的行数
+     */
+    long exportPrescriptionItems(ExportQuery query, ExportFormat format, OutputStream out) throws IOException;
+}
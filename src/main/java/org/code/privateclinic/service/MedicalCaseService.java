@@ -1,6 +1,8 @@
 package org.code.privateclinic.service;
 
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.bean.SearchPage;
 
 import java.util.List;
 
@@ -10,6 +12,16 @@ public interface MedicalCaseService {
      */
     List<MedicalCase> getMedicalCaseList();
 
+    /**
+     * 游标分页获取病例列表，患者、医生、状态条件为空时不过滤
+     */
+    CursorPage<MedicalCase> getMedicalCasePage(Long patientId, Long doctorId, String caseStatus, String cursor, Integer size);
+
+    /**
+     * 按关键词全文搜索病例症状与诊断，按相关度排序分页，page 从 1 开始；doctorId 为空时搜索全部医生的病例
+     */
+    SearchPage<MedicalCase> searchMedicalCases(String keyword, Long doctorId, Integer page, Integer size);
+
     /**
      * 根据ID获取病例信息
      */
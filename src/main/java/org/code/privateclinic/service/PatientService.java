@@ -1,6 +1,8 @@
 package org.code.privateclinic.service;
 
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.bean.PatientTimeline;
 
 import java.util.List;
 
@@ -10,11 +12,27 @@ public interface PatientService {
      */
     List<Patient> getPatientList();
 
+    /**
+     * 游标分页获取患者列表，doctorId 为空时查询全部患者
+     */
+    CursorPage<Patient> getPatientPage(Long doctorId, String cursor, Integer size);
+
+    /**
+     * 按姓名前缀、拼音首字母或手机尾号查找患者，最多返回 limit 个（默认与上限同分页大小）；
+     * 结果只含姓名、性别、年龄、手机号与负责医生
+     */
+    List<Patient> lookupPatients(String keyword, Integer limit);
+
     /**
      * 根据ID获取患者信息
      */
     Patient getPatientById(Long patientId);
 
+    /**
+     * 获取患者病历时间线：患者信息及其全部病例，病例带有处方，处方带有明细；患者不存在时返回 null
+     */
+    PatientTimeline getPatientTimeline(Long patientId);
+
     /**
      * 根据医生ID获取患者列表
      */
@@ -1,5 +1,6 @@
 package org.code.privateclinic.service;
 
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.PrescriptionItem;
 
 import java.util.List;
@@ -10,6 +11,11 @@ public interface PrescriptionItemService {
      */
     List<PrescriptionItem> getPrescriptionItemList();
 
+    /**
+     * 游标分页获取处方明细列表，prescriptionId 为空时查询全部明细
+     */
+    CursorPage<PrescriptionItem> getPrescriptionItemPage(Long prescriptionId, String cursor, Integer size);
+
     /**
      * 根据ID获取处方明细信息
      */
@@ -1,5 +1,6 @@
 package org.code.privateclinic.service;
 
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.Prescription;
 
 import java.util.List;
@@ -10,6 +11,11 @@ public interface PrescriptionService {
      */
     List<Prescription> getPrescriptionList();
 
+    /**
+     * 游标分页获取处方列表，病例、医生条件为空时不过滤
+     */
+    CursorPage<Prescription> getPrescriptionPage(Long caseId, Long doctorId, String cursor, Integer size);
+
     /**
      * 根据ID获取处方信息
      */
@@ -25,11 +31,21 @@ public interface PrescriptionService {
      */
     List<Prescription> getPrescriptionByDoctorId(Long doctorId);
 
+    /**
+     * 为一批处方填充明细：无论多少个处方，只用一条 IN 查询取回全部明细
+     */
+    List<Prescription> attachItems(List<Prescription> prescriptions);
+
     /**
      * 添加处方
      */
     int addPrescription(Prescription prescription);
 
+    /**
+     * 一次性创建处方及其全部明细，在同一个事务中批量插入；单价取药品当前价格，总金额由服务端计算
+     */
+    Prescription addPrescriptionWithItems(Prescription prescription);
+
     /**
      * 更新处方信息
      */
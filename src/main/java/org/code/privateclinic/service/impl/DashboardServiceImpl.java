@@ -0,0 +1,43 @@
+package org.code.privateclinic.service.impl;
+
+import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.DashboardSummary;
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.service.DashboardService;
+import org.code.privateclinic.service.DrugService;
+import org.code.privateclinic.stats.DashboardCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private DrugService drugService;
+
+    @Value("${dashboard.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    /**
+     * 患者、病例、处方数取自增量维护的计数；药品数与低库存数由药品目录缓存中的启用药品直接算出
+     */
+    @Override
+    @Loggable("查询看板统计")
+    public DashboardSummary getSummary() {
+        DashboardSummary summary = dashboardCounters.snapshot();
+        List<Drug> drugs = drugService.getDrugList();
+        long lowStock = drugs.stream()
+                .filter(drug -> drug.getStock() != null && drug.getStock() < lowStockThreshold)
+                .count();
+        summary.setDrugCount(drugs.size());
+        summary.setLowStockDrugCount(lowStock);
+        summary.setLowStockThreshold(lowStockThreshold);
+        return summary;
+    }
+}
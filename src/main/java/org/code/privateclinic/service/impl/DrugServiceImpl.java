@@ -1,18 +1,31 @@
 package org.code.privateclinic.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.code.privateclinic.annotation.Loggable;
 import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.cache.DrugCatalogCache;
+import org.code.privateclinic.cache.LocalCache;
+import org.code.privateclinic.cache.LocalCacheRegistry;
+import org.code.privateclinic.cache.RedisCacheAside;
+import org.code.privateclinic.cache.SecondaryKeyCache;
 import org.code.privateclinic.mapper.DrugMapper;
+import org.code.privateclinic.search.DrugSuggester;
 import org.code.privateclinic.service.DrugService;
+import org.code.privateclinic.stock.StockLedger;
+import org.code.privateclinic.util.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -22,79 +35,140 @@ public class DrugServiceImpl implements DrugService {
     private DrugMapper drugMapper;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private DrugCatalogCache drugCatalogCache;
 
-    private static final String CACHE_KEY_PREFIX = "drug:";
-    private static final String CACHE_KEY_LIST = "drugList";
-    private static final long CACHE_EXPIRE_HOURS = 24;
     @Autowired
-    private ObjectMapper objectMapper;
+    private StockLedger stockLedger;
+
+    @Autowired
+    private DrugSuggester drugSuggester;
+
+    /**
+     * 药品联想默认返回的数量
+     */
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+
+    @Autowired
+    private RedisCacheAside cacheAside;
+
+    private static final String LOCAL_KEY_LIST = "drugList";
+    private static final String NAME_KEY_PREFIX = "drugName:";
+    private static final Duration NAME_CACHE_EXPIRE = Duration.ofHours(24);
+
+    /**
+     * 药品列表按创建时间倒序
+     */
+    private static final Comparator<Drug> LIST_ORDER = Comparator
+            .comparing(Drug::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Drug::getDrugId, Comparator.reverseOrder());
+
+    @Autowired
+    private LocalCacheRegistry localCacheRegistry;
+
+    /**
+     * 一级缓存，保存已反序列化的药品对象，命中时不访问 Redis
+     */
+    private LocalCache<Long, Drug> drugLocalCache;
+    private LocalCache<String, List<Drug>> drugListLocalCache;
+
+    /**
+     * 药品名称 → 药品ID；按名称只查启用的药品，停用后映射失效
+     */
+    private SecondaryKeyCache<Drug> drugNameCache;
+
+    @PostConstruct
+    public void initLocalCache() {
+        drugLocalCache = localCacheRegistry.getCache("drug");
+        drugListLocalCache = localCacheRegistry.getCache("drug-list");
+        drugNameCache = new SecondaryKeyCache<>(NAME_KEY_PREFIX, localCacheRegistry.getCache("drug-name"), cacheAside,
+                NAME_CACHE_EXPIRE, Drug::getDrugId,
+                (name, drug) -> name.equalsIgnoreCase(drug.getDrugName()) && Integer.valueOf(1).equals(drug.getStatus()));
+    }
 
     @Override
     @Loggable("查询药品列表")
     public List<Drug> getDrugList() {
-        if (redisTemplate.hasKey(CACHE_KEY_LIST)) {
-            try {
-                String cache = redisTemplate.opsForValue().get(CACHE_KEY_LIST);
-                if (cache != null && !cache.isEmpty()) {
-                    return objectMapper.readValue(cache, new TypeReference<List<Drug>>() {});
-                }
-            } catch (Exception e) {
-                log.warn("缓存数据反序列化失败，删除缓存键 {}，错误信息: {}", CACHE_KEY_LIST, e.getMessage());
-                redisTemplate.delete(CACHE_KEY_LIST);
-            }
+        List<Drug> localList = drugListLocalCache.get(LOCAL_KEY_LIST);
+        if (localList != null) {
+            return localList;
         }
-
-        List<Drug> drugList = drugMapper.getDrugList();
-        if (drugList != null && !drugList.isEmpty()) {
-            try {
-                String jsonValue = objectMapper.writeValueAsString(drugList);
-                redisTemplate.opsForValue().set(CACHE_KEY_LIST, jsonValue, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            } catch (Exception e) {
-                log.error("药品列表数据序列化失败，无法存入缓存，错误信息: {}", e.getMessage());
+        List<Drug> drugList = new ArrayList<>();
+        for (Drug drug : drugCatalogCache.getAll(drugMapper::getDrugCatalog)) {
+            if (Integer.valueOf(1).equals(drug.getStatus())) {
+                drugList.add(drug);
             }
         }
+        drugList.sort(LIST_ORDER);
+        drugList = Collections.unmodifiableList(drugList);
+        drugListLocalCache.put(LOCAL_KEY_LIST, drugList);
         return drugList;
     }
 
     @Override
     @Loggable("根据ID查询药品信息")
     public Drug getDrugById(Long drugId) {
-        String cacheKey = CACHE_KEY_PREFIX + drugId;
-        if (redisTemplate.hasKey(cacheKey)) {
-            try {
-                String cache = redisTemplate.opsForValue().get(cacheKey);
-                if (cache != null && !cache.isEmpty()) {
-                    return objectMapper.readValue(cache, Drug.class);
-                }
-            } catch (Exception e) {
-                log.warn("缓存数据反序列化失败，删除缓存键 {}，错误信息: {}", cacheKey, e.getMessage());
-                redisTemplate.delete(cacheKey);
-            }
+        Drug localDrug = drugLocalCache.get(drugId);
+        if (localDrug != null) {
+            return localDrug;
         }
-
-        Drug drug = drugMapper.getDrugById(drugId);
+        Drug drug = drugCatalogCache.get(drugId, () -> drugMapper.getDrugById(drugId));
         if (drug != null) {
-            try {
-                String jsonValue = objectMapper.writeValueAsString(drug);
-                redisTemplate.opsForValue().set(cacheKey, jsonValue, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            } catch (Exception e) {
-                log.error("药品信息序列化失败，无法存入缓存，药品ID: {}，错误信息: {}", drugId, e.getMessage());
-            }
+            drugLocalCache.put(drugId, drug);
         }
         return drug;
     }
 
+    @Override
+    @Loggable("根据ID批量查询药品信息")
+    public Map<Long, Drug> getDrugsByIds(Collection<Long> drugIds) {
+        Map<Long, Drug> result = new LinkedHashMap<>();
+        if (drugIds == null || drugIds.isEmpty()) {
+            return result;
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long drugId : drugIds) {
+            Drug localDrug = drugLocalCache.get(drugId);
+            if (localDrug == null) {
+                missing.add(drugId);
+            }
+        }
+        Map<Long, Drug> loaded = missing.isEmpty()
+                ? Map.of()
+                : drugCatalogCache.multiGet(missing, drugMapper::getDrugsByIds);
+        for (Long drugId : drugIds) {
+            Drug drug = drugLocalCache.get(drugId);
+            if (drug == null) {
+                drug = loaded.get(drugId);
+                if (drug != null) {
+                    drugLocalCache.put(drugId, drug);
+                }
+            }
+            if (drug != null) {
+                result.put(drugId, drug);
+            }
+        }
+        return result;
+    }
+
     @Override
     @Loggable("根据药品名称查询药品信息")
     public Drug getDrugByName(String drugName) {
-        return drugMapper.getDrugByName(drugName);
+        return drugNameCache.get(drugName, drugMapper::getDrugByName, this::getDrugById);
+    }
+
+    @Override
+    @Loggable("联想药品")
+    public List<Drug> suggestDrugs(String keyword, Integer limit) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new RuntimeException("联想关键词不能为空");
+        }
+        return drugSuggester.suggest(keyword, limit == null ? DEFAULT_SUGGEST_LIMIT : limit);
     }
 
     @Override
     @Loggable("添加药品")
     public int addDrug(Drug drug) {
-        Drug existingDrug = drugMapper.getDrugByName(drug.getDrugName());
+        Drug existingDrug = getDrugByName(drug.getDrugName());
         if (existingDrug != null) {
             throw new RuntimeException("药品名称已存在");
         }
@@ -104,27 +178,36 @@ public class DrugServiceImpl implements DrugService {
 
         int result = drugMapper.addDrug(drug);
         if (result > 0) {
-            clearDrugCache();
+            drugNameCache.evict(drug.getDrugName());
+            refreshDrugCache(drug.getDrugId());
         }
         return result;
     }
 
     @Override
+    @Transactional
     @Loggable("更新药品信息")
     public int updateDrug(Drug drug) {
         if (drug.getDrugId() == null) {
             throw new RuntimeException("药品ID不能为空");
         }
         if (drug.getDrugName() != null && !drug.getDrugName().isEmpty()) {
-            Drug existingDrug = drugMapper.getDrugByName(drug.getDrugName());
+            Drug existingDrug = getDrugByName(drug.getDrugName());
             if (existingDrug != null && !existingDrug.getDrugId().equals(drug.getDrugId())) {
                 throw new RuntimeException("药品名称已被使用");
             }
         }
 
+        Drug before = drugMapper.getDrugById(drug.getDrugId());
         int result = drugMapper.updateDrug(drug);
+        // 库存只能通过流水调整，不直接改写库存快照
+        if (result > 0 && drug.getStock() != null) {
+            adjustStock(drug.getDrugId(), drug.getStock());
+        }
         if (result > 0) {
-            clearDrugCache();
+            // 改名或改状态后新旧名称的映射一起失效
+            drugNameCache.evict(before == null ? null : before.getDrugName(), drug.getDrugName());
+            refreshDrugCache(drug.getDrugId());
         }
         return result;
     }
@@ -138,7 +221,8 @@ public class DrugServiceImpl implements DrugService {
         }
         int result = drugMapper.deleteDrug(drugId);
         if (result > 0) {
-            clearDrugCache();
+            drugNameCache.evict(drug.getDrugName());
+            refreshDrugCache(drugId);
         }
         return result;
     }
@@ -152,26 +236,64 @@ public class DrugServiceImpl implements DrugService {
         }
         int result = drugMapper.deleteDrugPhysical(drugId);
         if (result > 0) {
-            clearDrugCache();
+            drugListLocalCache.invalidate(LOCAL_KEY_LIST);
+            drugLocalCache.invalidate(drugId);
+            drugCatalogCache.remove(drugId);
+            drugNameCache.evict(drug.getDrugName());
+            stockLedger.evict(drugId);
+            drugSuggester.removeAfterCommit(drugId);
         }
         return result;
     }
 
     @Override
+    @Transactional
     @Loggable("更新药品库存")
     public int updateStock(Long drugId, Integer stock) {
-        int result = drugMapper.updateStock(drugId, stock);
-        if (result > 0) {
-            clearDrugCache();
+        if (drugMapper.getDrugById(drugId) == null) {
+            return 0;
         }
-        return result;
+        adjustStock(drugId, stock);
+        return 1;
+    }
+
+    @Override
+    @Loggable("查询药品可用库存")
+    public long getAvailableStock(Long drugId) {
+        return stockLedger.getAvailableStock(drugId);
+    }
+
+    /**
+     * 药品变更后重新读取该药品并写回 Redis 药品目录，只更新这一个条目
+     * 在事务中时一级缓存失效与写回 Redis 都在提交后进行，避免把未提交（可能回滚）的数据写进缓存
+     */
+    @Override
+    public void refreshDrugCache(Long drugId) {
+        Drug drug = drugMapper.getDrugById(drugId);
+        if (drug != null) {
+            drugSuggester.putAfterCommit(drug);
+        } else {
+            drugSuggester.removeAfterCommit(drugId);
+        }
+        Runnable refresh = () -> {
+            drugListLocalCache.invalidate(LOCAL_KEY_LIST);
+            drugLocalCache.invalidate(drugId);
+            if (drug != null) {
+                drugCatalogCache.put(drug);
+            } else {
+                drugCatalogCache.remove(drugId);
+            }
+        };
+        TransactionHooks.afterCommit(refresh);
     }
 
-    private void clearDrugCache() {
-        try {
-            redisTemplate.delete(CACHE_KEY_LIST);
-        } catch (Exception e) {
-            log.warn("清除药品列表缓存失败，错误信息: {}", e.getMessage());
+    /**
+     * 按与当前可用库存的差额追加调整流水，库存快照由定时任务推进
+     */
+    private void adjustStock(Long drugId, Integer stock) {
+        if (stock == null || stock < 0) {
+            throw new RuntimeException("库存不能为负数");
         }
+        stockLedger.adjustTo(drugId, stock);
     }
 }
@@ -0,0 +1,115 @@
+package org.code.privateclinic.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.ExportQuery;
+import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.export.CsvRowWriter;
+import org.code.privateclinic.export.ExportColumn;
+import org.code.privateclinic.export.ExportFormat;
+import org.code.privateclinic.export.NdjsonRowWriter;
+import org.code.privateclinic.export.RowWriter;
+import org.code.privateclinic.mapper.MedicalCaseMapper;
+import org.code.privateclinic.mapper.PrescriptionItemMapper;
+import org.code.privateclinic.mapper.PrescriptionMapper;
+import org.code.privateclinic.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 流式导出：MyBatis Cursor 逐行读取，逐行写出，内存占用与行数无关
+ * Cursor 需要在事务内遍历，事务结束时连接才归还连接池
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final List<ExportColumn<MedicalCase>> MEDICAL_CASE_COLUMNS = List.of(
+            ExportColumn.of("caseId", MedicalCase::getCaseId),
+            ExportColumn.of("patientId", MedicalCase::getPatientId),
+            ExportColumn.of("patientName", MedicalCase::getPatientName),
+            ExportColumn.of("doctorId", MedicalCase::getDoctorId),
+            ExportColumn.of("doctorName", MedicalCase::getDoctorName),
+            ExportColumn.of("symptom", MedicalCase::getSymptom),
+            ExportColumn.of("diagnosis", MedicalCase::getDiagnosis),
+            ExportColumn.of("caseStatus", MedicalCase::getCaseStatus),
+            ExportColumn.of("visitTime", MedicalCase::getVisitTime),
+            ExportColumn.of("createTime", MedicalCase::getCreateTime),
+            ExportColumn.of("updateTime", MedicalCase::getUpdateTime));
+
+    private static final List<ExportColumn<Prescription>> PRESCRIPTION_COLUMNS = List.of(
+            ExportColumn.of("prescriptionId", Prescription::getPrescriptionId),
+            ExportColumn.of("caseId", Prescription::getCaseId),
+            ExportColumn.of("patientName", Prescription::getPatientName),
+            ExportColumn.of("doctorId", Prescription::getDoctorId),
+            ExportColumn.of("doctorName", Prescription::getDoctorName),
+            ExportColumn.of("totalAmount", Prescription::getTotalAmount),
+            ExportColumn.of("createTime", Prescription::getCreateTime));
+
+    private static final List<ExportColumn<PrescriptionItem>> PRESCRIPTION_ITEM_COLUMNS = List.of(
+            ExportColumn.of("itemId", PrescriptionItem::getItemId),
+            ExportColumn.of("prescriptionId", PrescriptionItem::getPrescriptionId),
+            ExportColumn.of("drugId", PrescriptionItem::getDrugId),
+            ExportColumn.of("drugName", PrescriptionItem::getDrugName),
+            ExportColumn.of("specification", PrescriptionItem::getSpecification),
+            ExportColumn.of("quantity", PrescriptionItem::getQuantity),
+            ExportColumn.of("usageMethod", PrescriptionItem::getUsageMethod),
+            ExportColumn.of("price", PrescriptionItem::getPrice));
+
+    @Autowired
+    private MedicalCaseMapper medicalCaseMapper;
+
+    @Autowired
+    private PrescriptionMapper prescriptionMapper;
+
+    @Autowired
+    private PrescriptionItemMapper prescriptionItemMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Loggable("导出病例")
+    public long exportMedicalCases(ExportQuery query, ExportFormat format, OutputStream out) throws IOException {
+        return export(medicalCaseMapper.exportMedicalCases(query), MedicalCase.class, MEDICAL_CASE_COLUMNS, format, out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Loggable("导出处方")
+    public long exportPrescriptions(ExportQuery query, ExportFormat format, OutputStream out) throws IOException {
+        return export(prescriptionMapper.exportPrescriptions(query), Prescription.class, PRESCRIPTION_COLUMNS, format, out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Loggable("导出处方明细")
+    public long exportPrescriptionItems(ExportQuery query, ExportFormat format, OutputStream out) throws IOException {
+        return export(prescriptionItemMapper.exportPrescriptionItems(query), PrescriptionItem.class,
+                PRESCRIPTION_ITEM_COLUMNS, format, out);
+    }
+
+    private <T> long export(Cursor<T> cursor, Class<T> type, List<ExportColumn<T>> columns,
+                            ExportFormat format, OutputStream out) throws IOException {
+        try (cursor) {
+            RowWriter<T> writer = format == ExportFormat.CSV
+                    ? new CsvRowWriter<>(columns, out)
+                    : new NdjsonRowWriter<>(objectMapper, type, out);
+            long rows = 0;
+            for (T row : cursor) {
+                writer.write(row);
+                rows++;
+            }
+            writer.finish();
+            return rows;
+        }
+    }
+}
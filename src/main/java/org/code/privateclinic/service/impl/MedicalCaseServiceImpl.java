@@ -1,13 +1,26 @@
 package org.code.privateclinic.service.impl;
 
 import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.bean.SearchPage;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.config.PaginationProperties;
 import org.code.privateclinic.mapper.MedicalCaseMapper;
+import org.code.privateclinic.search.CaseSearchIndex;
+import org.code.privateclinic.search.CaseSearchIndexer;
 import org.code.privateclinic.service.MedicalCaseService;
+import org.code.privateclinic.stats.DashboardCounters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class MedicalCaseServiceImpl implements MedicalCaseService {
@@ -15,34 +28,86 @@ public class MedicalCaseServiceImpl implements MedicalCaseService {
     @Autowired
     private MedicalCaseMapper medicalCaseMapper;
 
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private PatientTimelineCache patientTimelineCache;
+
+    @Autowired
+    private CaseSearchIndexer caseSearchIndexer;
+
     @Override
+    @Transactional(readOnly = true)
     @Loggable("查询病例列表")
     public List<MedicalCase> getMedicalCaseList() {
-        return medicalCaseMapper.getMedicalCaseList();
+        return medicalCaseMapper.getMedicalCaseList(paginationProperties.getListLimit());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Loggable("分页查询病例列表")
+    public CursorPage<MedicalCase> getMedicalCasePage(Long patientId, Long doctorId, String caseStatus,
+                                                      String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        List<MedicalCase> rows = medicalCaseMapper.getMedicalCasePage(patientId, doctorId, caseStatus,
+                PageCursor.decode(cursor, true), pageSize + 1);
+        return CursorPage.of(rows, pageSize, medicalCase -> PageCursor.of(medicalCase.getCreateTime(), medicalCase.getCaseId()));
     }
 
     @Override
+    @Loggable("全文搜索病例")
+    public SearchPage<MedicalCase> searchMedicalCases(String keyword, Long doctorId, Integer page, Integer size) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new RuntimeException("搜索关键词不能为空");
+        }
+        int pageSize = paginationProperties.pageSize(size);
+        int pageNo = page == null || page < 1 ? 1 : page;
+        int offset = (pageNo - 1) * pageSize;
+        if (offset + pageSize > paginationProperties.getListLimit()) {
+            throw new RuntimeException("最多只能查看前 " + paginationProperties.getListLimit() + " 条搜索结果，请调整关键词");
+        }
+        CaseSearchIndex.SearchHits hits = caseSearchIndexer.search(keyword, doctorId, offset, pageSize);
+        if (hits.caseIds().isEmpty()) {
+            return new SearchPage<>(List.of(), hits.total(), pageNo, pageSize);
+        }
+        // 按相关度顺序排列；索引尚未清理的已删除病例查不到，直接跳过
+        // 不使用只读事务（副本）：索引在主库提交后即更新，副本可能还没复制到新病例，结果会少于命中总数
+        Map<Long, MedicalCase> rows = medicalCaseMapper.getMedicalCasesByIds(hits.caseIds()).stream()
+                .collect(Collectors.toMap(MedicalCase::getCaseId, Function.identity()));
+        List<MedicalCase> items = hits.caseIds().stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new SearchPage<>(items, hits.total(), pageNo, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Loggable("根据ID查询病例信息")
     public MedicalCase getMedicalCaseById(Long caseId) {
         return medicalCaseMapper.getMedicalCaseById(caseId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据患者ID查询病例列表")
     public List<MedicalCase> getMedicalCaseByPatientId(Long patientId) {
-        return medicalCaseMapper.getMedicalCaseByPatientId(patientId);
+        return medicalCaseMapper.getMedicalCaseByPatientId(patientId, paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据医生ID查询病例列表")
     public List<MedicalCase> getMedicalCaseByDoctorId(Long doctorId) {
-        return medicalCaseMapper.getMedicalCaseByDoctorId(doctorId);
+        return medicalCaseMapper.getMedicalCaseByDoctorId(doctorId, paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据状态查询病例列表")
     public List<MedicalCase> getMedicalCaseByStatus(String caseStatus) {
-        return medicalCaseMapper.getMedicalCaseByStatus(caseStatus);
+        return medicalCaseMapper.getMedicalCaseByStatus(caseStatus, paginationProperties.getListLimit());
     }
 
     @Override
@@ -57,16 +122,36 @@ public class MedicalCaseServiceImpl implements MedicalCaseService {
         if (medicalCase.getCaseStatus() == null || medicalCase.getCaseStatus().isEmpty()) {
             medicalCase.setCaseStatus("NEW");
         }
-        return medicalCaseMapper.addMedicalCase(medicalCase);
+        int rows = medicalCaseMapper.addMedicalCase(medicalCase);
+        if (rows > 0) {
+            dashboardCounters.caseAdded(medicalCase.getCaseStatus());
+            patientTimelineCache.evictPatient(medicalCase.getPatientId());
+            caseSearchIndexer.refreshAfterCommit(medicalCase.getCaseId());
+        }
+        return rows;
     }
 
     @Override
+    @Transactional
     @Loggable("更新病例信息")
     public int updateMedicalCase(MedicalCase medicalCase) {
         if (medicalCase.getCaseId() == null) {
             throw new RuntimeException("病例ID不能为空");
         }
-        return medicalCaseMapper.updateMedicalCase(medicalCase);
+        // 修改状态时先取出原状态，用于调整看板中各状态的病例数
+        MedicalCase before = medicalCase.getCaseStatus() != null
+                ? medicalCaseMapper.getMedicalCaseById(medicalCase.getCaseId()) : null;
+        // 病例可能被改到其他患者名下，原患者和新患者的时间线都要删除，事务提交后执行
+        patientTimelineCache.evictByCase(medicalCase.getCaseId());
+        int rows = medicalCaseMapper.updateMedicalCase(medicalCase);
+        if (rows > 0) {
+            patientTimelineCache.evictPatient(medicalCase.getPatientId());
+            caseSearchIndexer.refreshAfterCommit(medicalCase.getCaseId());
+        }
+        if (rows > 0 && before != null && !medicalCase.getCaseStatus().equals(before.getCaseStatus())) {
+            dashboardCounters.caseStatusChanged(before.getCaseStatus(), medicalCase.getCaseStatus());
+        }
+        return rows;
     }
 
     @Override
@@ -77,6 +162,12 @@ public class MedicalCaseServiceImpl implements MedicalCaseService {
             return 0;
         }
         // 数据库级联删除：删除病历时，会自动删除相关的处方和处方项
-        return medicalCaseMapper.deleteMedicalCase(caseId);
+        int rows = medicalCaseMapper.deleteMedicalCase(caseId);
+        if (rows > 0) {
+            dashboardCounters.caseDeleted(medicalCase.getCaseStatus());
+            patientTimelineCache.evictPatient(medicalCase.getPatientId());
+            caseSearchIndexer.removeAfterCommit(caseId);
+        }
+        return rows;
     }
 }
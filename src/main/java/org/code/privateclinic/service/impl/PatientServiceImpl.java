@@ -1,13 +1,42 @@
 package org.code.privateclinic.service.impl;
 
 import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.CursorPage;
+import org.code.privateclinic.bean.MedicalCase;
 import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.bean.PatientTimeline;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.config.PaginationProperties;
+import org.code.privateclinic.mapper.MedicalCaseMapper;
 import org.code.privateclinic.mapper.PatientMapper;
+import org.code.privateclinic.mapper.PrescriptionItemMapper;
+import org.code.privateclinic.mapper.PrescriptionMapper;
+import org.code.privateclinic.search.PatientLookupIndexer;
 import org.code.privateclinic.service.PatientService;
+import org.code.privateclinic.stats.DashboardCounters;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 public class PatientServiceImpl implements PatientService {
@@ -15,22 +44,83 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private PatientMapper patientMapper;
 
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private MedicalCaseMapper medicalCaseMapper;
+
+    @Autowired
+    private PrescriptionMapper prescriptionMapper;
+
+    @Autowired
+    private PrescriptionItemMapper prescriptionItemMapper;
+
+    @Autowired
+    private PatientTimelineCache patientTimelineCache;
+
+    @Autowired
+    private PatientLookupIndexer patientLookupIndexer;
+
+    @Autowired
+    @Qualifier("timelineExecutor")
+    private AsyncTaskExecutor timelineExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${timeline.timeout:3s}")
+    private Duration timelineTimeout;
+
+    @Value("${timeline.item-limit:5000}")
+    private int timelineItemLimit;
+
     @Override
+    @Transactional(readOnly = true)
     @Loggable("查询患者列表")
     public List<Patient> getPatientList() {
-        return patientMapper.getPatientList();
+        return patientMapper.getPatientList(paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Loggable("分页查询患者列表")
+    public CursorPage<Patient> getPatientPage(Long doctorId, String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        List<Patient> rows = patientMapper.getPatientPage(doctorId, PageCursor.decode(cursor, true), pageSize + 1);
+        return CursorPage.of(rows, pageSize, patient -> PageCursor.of(patient.getCreateTime(), patient.getPatientId()));
+    }
+
+    @Override
+    @Loggable("查找患者")
+    public List<Patient> lookupPatients(String keyword, Integer limit) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new RuntimeException("查找关键词不能为空");
+        }
+        return patientLookupIndexer.lookup(keyword, paginationProperties.pageSize(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Loggable("根据ID查询患者信息")
     public Patient getPatientById(Long patientId) {
         return patientMapper.getPatientById(patientId);
     }
 
     @Override
+    @Loggable("查询患者病历时间线")
+    public PatientTimeline getPatientTimeline(Long patientId) {
+        return patientTimelineCache.get(patientId, () -> loadPatientTimeline(patientId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Loggable("根据医生ID查询患者列表")
     public List<Patient> getPatientByDoctorId(Long doctorId) {
-        return patientMapper.getPatientByDoctorId(doctorId);
+        return patientMapper.getPatientByDoctorId(doctorId, paginationProperties.getListLimit());
     }
 
     @Override
@@ -39,7 +129,12 @@ public class PatientServiceImpl implements PatientService {
         if (patient.getDoctorId() == null) {
             throw new RuntimeException("负责医生ID不能为空");
         }
-        return patientMapper.addPatient(patient);
+        int rows = patientMapper.addPatient(patient);
+        if (rows > 0) {
+            dashboardCounters.patientAdded();
+            patientLookupIndexer.refreshAfterCommit(patient.getPatientId());
+        }
+        return rows;
     }
 
     @Override
@@ -48,7 +143,12 @@ public class PatientServiceImpl implements PatientService {
         if (patient.getPatientId() == null) {
             throw new RuntimeException("患者ID不能为空");
         }
-        return patientMapper.updatePatient(patient);
+        int rows = patientMapper.updatePatient(patient);
+        if (rows > 0) {
+            patientTimelineCache.evictPatient(patient.getPatientId());
+            patientLookupIndexer.refreshAfterCommit(patient.getPatientId());
+        }
+        return rows;
     }
 
     @Override
@@ -59,6 +159,104 @@ public class PatientServiceImpl implements PatientService {
             return 0;
         }
         // 数据库级联删除：删除患者时，会自动删除相关的病历、处方和处方项
-        return patientMapper.deletePatient(patientId);
+        int rows = patientMapper.deletePatient(patientId);
+        if (rows > 0) {
+            dashboardCounters.patientDeleted();
+            patientTimelineCache.evictPatient(patientId);
+            patientLookupIndexer.removeAfterCommit(patientId);
+        }
+        return rows;
+    }
+
+    /**
+     * 患者、病例、处方、处方明细四个查询互不依赖，在有界线程池中并发执行，
+     * 耗时接近最慢的单个查询；整体超过 timeline.timeout 时取消剩余查询并报错
+     * 取消时尚未开始的查询不再执行，执行中的查询所在线程被中断；每个查询在带超时的事务中执行，
+     * 语句超时（不短于 1 秒）由驱动在数据库端终止，不会在报错后继续占用线程与连接
+     * 线程池已满拒绝查询时取消已提交的查询，按加载失败报错
+     * 病例、处方、处方明细任一达到条数上限时标记为截断
+     */
+    private PatientTimeline loadPatientTimeline(Long patientId) {
+        int limit = paginationProperties.getListLimit();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout((int) Math.max(1, timelineTimeout.plusMillis(999).toSeconds()));
+        List<Future<?>> futures = new ArrayList<>(4);
+        Future<Patient> patientFuture;
+        Future<List<MedicalCase>> casesFuture;
+        Future<List<Prescription>> prescriptionsFuture;
+        Future<List<PrescriptionItem>> itemsFuture;
+        try {
+            patientFuture = query(transaction, futures, () -> patientMapper.getPatientById(patientId));
+            casesFuture = query(transaction, futures,
+                    () -> medicalCaseMapper.getMedicalCaseByPatientId(patientId, limit));
+            prescriptionsFuture = query(transaction, futures,
+                    () -> prescriptionMapper.getPrescriptionByPatientId(patientId, limit));
+            itemsFuture = query(transaction, futures,
+                    () -> prescriptionItemMapper.getPrescriptionItemsByPatientId(patientId, timelineItemLimit));
+        } catch (RejectedExecutionException e) {
+            cancel(futures);
+            throw new RuntimeException("患者病历加载失败：查询繁忙，请稍后再试", e);
+        }
+        long deadline = System.nanoTime() + timelineTimeout.toNanos();
+        try {
+            for (Future<?> future : futures) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            cancel(futures);
+            throw new RuntimeException("患者病历加载超时");
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("患者病历加载被中断");
+        } catch (ExecutionException e) {
+            cancel(futures);
+            throw new RuntimeException("患者病历加载失败：" + e.getCause().getMessage(), e.getCause());
+        }
+
+        Patient patient = completed(patientFuture);
+        if (patient == null) {
+            return null;
+        }
+        List<PrescriptionItem> items = completed(itemsFuture);
+        Map<Long, List<PrescriptionItem>> itemsByPrescription = new LinkedHashMap<>();
+        for (PrescriptionItem item : items) {
+            itemsByPrescription.computeIfAbsent(item.getPrescriptionId(), id -> new ArrayList<>()).add(item);
+        }
+        List<Prescription> prescriptions = completed(prescriptionsFuture);
+        Map<Long, List<Prescription>> prescriptionsByCase = new LinkedHashMap<>();
+        for (Prescription prescription : prescriptions) {
+            prescription.setItems(itemsByPrescription.getOrDefault(prescription.getPrescriptionId(), new ArrayList<>()));
+            prescriptionsByCase.computeIfAbsent(prescription.getCaseId(), id -> new ArrayList<>()).add(prescription);
+        }
+        List<MedicalCase> cases = completed(casesFuture);
+        for (MedicalCase medicalCase : cases) {
+            medicalCase.setPrescriptions(prescriptionsByCase.getOrDefault(medicalCase.getCaseId(), new ArrayList<>()));
+        }
+        boolean truncated = cases.size() >= limit || prescriptions.size() >= limit || items.size() >= timelineItemLimit;
+        return new PatientTimeline(patient, cases, truncated);
+    }
+
+    private <T> Future<T> query(TransactionTemplate transaction, List<Future<?>> futures, Supplier<T> query) {
+        Future<T> future = timelineExecutor.submit(() -> transaction.execute(status -> query.get()));
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * 取已完成查询的结果
+     */
+    private static <T> T completed(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void cancel(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
     }
 }
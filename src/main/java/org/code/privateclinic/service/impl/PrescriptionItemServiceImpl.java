@@ -1,11 +1,17 @@
 package org.code.privateclinic.service.impl;
 
 import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.CursorPage;
 import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.config.PaginationProperties;
 import org.code.privateclinic.mapper.PrescriptionItemMapper;
 import org.code.privateclinic.service.PrescriptionItemService;
+import org.code.privateclinic.stock.StockLedger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,25 +21,48 @@ public class PrescriptionItemServiceImpl implements PrescriptionItemService {
     @Autowired
     private PrescriptionItemMapper prescriptionItemMapper;
 
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private PatientTimelineCache patientTimelineCache;
+
     @Override
+    @Transactional(readOnly = true)
     @Loggable("查询处方明细列表")
     public List<PrescriptionItem> getPrescriptionItemList() {
-        return prescriptionItemMapper.getPrescriptionItemList();
+        return prescriptionItemMapper.getPrescriptionItemList(paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Loggable("分页查询处方明细列表")
+    public CursorPage<PrescriptionItem> getPrescriptionItemPage(Long prescriptionId, String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        List<PrescriptionItem> rows = prescriptionItemMapper.getPrescriptionItemPage(prescriptionId,
+                PageCursor.decode(cursor, false), pageSize + 1);
+        return CursorPage.of(rows, pageSize, item -> PageCursor.of(item.getItemId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Loggable("根据ID查询处方明细信息")
     public PrescriptionItem getPrescriptionItemById(Long itemId) {
         return prescriptionItemMapper.getPrescriptionItemById(itemId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据处方ID查询处方明细列表")
     public List<PrescriptionItem> getPrescriptionItemByPrescriptionId(Long prescriptionId) {
         return prescriptionItemMapper.getPrescriptionItemByPrescriptionId(prescriptionId);
     }
 
     @Override
+    @Transactional
     @Loggable("添加处方明细")
     public int addPrescriptionItem(PrescriptionItem prescriptionItem) {
         if (prescriptionItem.getPrescriptionId() == null) {
@@ -45,31 +74,83 @@ public class PrescriptionItemServiceImpl implements PrescriptionItemService {
         if (prescriptionItem.getQuantity() == null || prescriptionItem.getQuantity() <= 0) {
             throw new RuntimeException("数量必须大于0");
         }
-        return prescriptionItemMapper.addPrescriptionItem(prescriptionItem);
+        int result = prescriptionItemMapper.addPrescriptionItem(prescriptionItem);
+        if (result > 0) {
+            stockLedger.dispense(prescriptionItem.getDrugId(), prescriptionItem.getQuantity(), prescriptionItem.getItemId());
+            patientTimelineCache.evictByPrescription(prescriptionItem.getPrescriptionId());
+        }
+        return result;
     }
 
     @Override
+    @Transactional
     @Loggable("更新处方明细信息")
     public int updatePrescriptionItem(PrescriptionItem prescriptionItem) {
         if (prescriptionItem.getItemId() == null) {
             throw new RuntimeException("明细ID不能为空");
         }
-        return prescriptionItemMapper.updatePrescriptionItem(prescriptionItem);
+        if (prescriptionItem.getQuantity() != null && prescriptionItem.getQuantity() <= 0) {
+            throw new RuntimeException("数量必须大于0");
+        }
+        PrescriptionItem before = prescriptionItemMapper.getPrescriptionItemById(prescriptionItem.getItemId());
+        if (before == null) {
+            return 0;
+        }
+        int result = prescriptionItemMapper.updatePrescriptionItem(prescriptionItem);
+        if (result > 0) {
+            adjustStock(before, prescriptionItem);
+            patientTimelineCache.evictByPrescription(before.getPrescriptionId());
+            if (prescriptionItem.getPrescriptionId() != null && !prescriptionItem.getPrescriptionId().equals(before.getPrescriptionId())) {
+                patientTimelineCache.evictByPrescription(prescriptionItem.getPrescriptionId());
+            }
+        }
+        return result;
     }
 
     @Override
+    @Transactional
     @Loggable("删除处方明细")
     public int deletePrescriptionItem(Long itemId) {
         PrescriptionItem prescriptionItem = prescriptionItemMapper.getPrescriptionItemById(itemId);
         if (prescriptionItem == null) {
             return 0;
         }
-        return prescriptionItemMapper.deletePrescriptionItem(itemId);
+        int result = prescriptionItemMapper.deletePrescriptionItem(itemId);
+        if (result > 0) {
+            stockLedger.release(prescriptionItem.getDrugId(), prescriptionItem.getQuantity(), itemId);
+            patientTimelineCache.evictByPrescription(prescriptionItem.getPrescriptionId());
+        }
+        return result;
     }
 
     @Override
+    @Transactional
     @Loggable("根据处方ID删除所有处方明细")
     public int deletePrescriptionItemByPrescriptionId(Long prescriptionId) {
-        return prescriptionItemMapper.deletePrescriptionItemByPrescriptionId(prescriptionId);
+        List<PrescriptionItem> items = prescriptionItemMapper.getPrescriptionItemByPrescriptionId(prescriptionId);
+        int result = prescriptionItemMapper.deletePrescriptionItemByPrescriptionId(prescriptionId);
+        for (PrescriptionItem item : items) {
+            stockLedger.release(item.getDrugId(), item.getQuantity(), item.getItemId());
+        }
+        if (result > 0) {
+            patientTimelineCache.evictByPrescription(prescriptionId);
+        }
+        return result;
+    }
+
+    /**
+     * 修改药品或数量时调整库存：换药时归还原药品、出库新药品，数量变化时按差额出库或归还
+     */
+    private void adjustStock(PrescriptionItem before, PrescriptionItem after) {
+        Long drugId = after.getDrugId() != null ? after.getDrugId() : before.getDrugId();
+        int quantity = after.getQuantity() != null ? after.getQuantity() : before.getQuantity();
+        if (!drugId.equals(before.getDrugId())) {
+            stockLedger.release(before.getDrugId(), before.getQuantity(), before.getItemId());
+            stockLedger.dispense(drugId, quantity, before.getItemId());
+        } else if (quantity > before.getQuantity()) {
+            stockLedger.dispense(drugId, quantity - before.getQuantity(), before.getItemId());
+        } else if (quantity < before.getQuantity()) {
+            stockLedger.release(drugId, before.getQuantity() - quantity, before.getItemId());
+        }
     }
 }
@@ -1,13 +1,29 @@
 package org.code.privateclinic.service.impl;
 
 import org.code.privateclinic.annotation.Loggable;
+import org.code.privateclinic.bean.CursorPage;
+import org.code.privateclinic.bean.Drug;
 import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.config.PaginationProperties;
+import org.code.privateclinic.mapper.DrugMapper;
+import org.code.privateclinic.mapper.PrescriptionItemMapper;
 import org.code.privateclinic.mapper.PrescriptionMapper;
 import org.code.privateclinic.service.PrescriptionService;
+import org.code.privateclinic.stats.DashboardCounters;
+import org.code.privateclinic.stock.StockLedger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PrescriptionServiceImpl implements PrescriptionService {
@@ -15,28 +31,79 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     @Autowired
     private PrescriptionMapper prescriptionMapper;
 
+    @Autowired
+    private DashboardCounters dashboardCounters;
+
+    @Autowired
+    private PrescriptionItemMapper prescriptionItemMapper;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private DrugMapper drugMapper;
+
+    @Autowired
+    private PatientTimelineCache patientTimelineCache;
+
     @Override
+    @Transactional(readOnly = true)
     @Loggable("查询处方列表")
     public List<Prescription> getPrescriptionList() {
-        return prescriptionMapper.getPrescriptionList();
+        return prescriptionMapper.getPrescriptionList(paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Loggable("分页查询处方列表")
+    public CursorPage<Prescription> getPrescriptionPage(Long caseId, Long doctorId, String cursor, Integer size) {
+        int pageSize = paginationProperties.pageSize(size);
+        List<Prescription> rows = prescriptionMapper.getPrescriptionPage(caseId, doctorId,
+                PageCursor.decode(cursor, true), pageSize + 1);
+        return CursorPage.of(rows, pageSize, prescription -> PageCursor.of(prescription.getCreateTime(), prescription.getPrescriptionId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     @Loggable("根据ID查询处方信息")
     public Prescription getPrescriptionById(Long prescriptionId) {
         return prescriptionMapper.getPrescriptionById(prescriptionId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据病例ID查询处方列表")
     public List<Prescription> getPrescriptionByCaseId(Long caseId) {
-        return prescriptionMapper.getPrescriptionByCaseId(caseId);
+        return prescriptionMapper.getPrescriptionByCaseId(caseId, paginationProperties.getListLimit());
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Loggable("根据医生ID查询处方列表")
     public List<Prescription> getPrescriptionByDoctorId(Long doctorId) {
-        return prescriptionMapper.getPrescriptionByDoctorId(doctorId);
+        return prescriptionMapper.getPrescriptionByDoctorId(doctorId, paginationProperties.getListLimit());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Loggable("批量加载处方明细")
+    public List<Prescription> attachItems(List<Prescription> prescriptions) {
+        if (prescriptions == null || prescriptions.isEmpty()) {
+            return prescriptions;
+        }
+        Map<Long, List<PrescriptionItem>> itemsByPrescription = new HashMap<>();
+        for (Prescription prescription : prescriptions) {
+            List<PrescriptionItem> items = new ArrayList<>();
+            prescription.setItems(items);
+            itemsByPrescription.put(prescription.getPrescriptionId(), items);
+        }
+        for (PrescriptionItem item : prescriptionItemMapper.getPrescriptionItemsByPrescriptionIds(itemsByPrescription.keySet())) {
+            itemsByPrescription.get(item.getPrescriptionId()).add(item);
+        }
+        return prescriptions;
     }
 
     @Override
@@ -48,26 +115,108 @@ public class PrescriptionServiceImpl implements PrescriptionService {
         if (prescription.getDoctorId() == null) {
             throw new RuntimeException("医生ID不能为空");
         }
-        return prescriptionMapper.addPrescription(prescription);
+        int rows = prescriptionMapper.addPrescription(prescription);
+        if (rows > 0) {
+            dashboardCounters.prescriptionAdded(prescription.getTotalAmount());
+            patientTimelineCache.evictByCase(prescription.getCaseId());
+        }
+        return rows;
+    }
+
+    @Override
+    @Transactional
+    @Loggable("一次性创建处方及明细")
+    public Prescription addPrescriptionWithItems(Prescription prescription) {
+        if (prescription.getCaseId() == null) {
+            throw new RuntimeException("病例ID不能为空");
+        }
+        if (prescription.getDoctorId() == null) {
+            throw new RuntimeException("医生ID不能为空");
+        }
+        List<PrescriptionItem> items = prescription.getItems();
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("处方明细不能为空");
+        }
+        List<Long> drugIds = new ArrayList<>(items.size());
+        for (PrescriptionItem item : items) {
+            if (item.getDrugId() == null) {
+                throw new RuntimeException("药品ID不能为空");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("数量必须大于0");
+            }
+            drugIds.add(item.getDrugId());
+        }
+
+        // 单价取数据库中的当前价格，不使用客户端传入的单价和总金额；不读缓存，价格、状态与库存预占在同一事务中确定
+        Map<Long, Drug> drugs = new HashMap<>();
+        for (Drug drug : drugMapper.getDrugPricesLocked(drugIds)) {
+            drugs.put(drug.getDrugId(), drug);
+        }
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (PrescriptionItem item : items) {
+            Drug drug = drugs.get(item.getDrugId());
+            if (drug == null || !Integer.valueOf(1).equals(drug.getStatus())) {
+                throw new RuntimeException("药品不存在或已停用，药品ID: " + item.getDrugId());
+            }
+            BigDecimal price = BigDecimal.valueOf(drug.getPrice()).setScale(2, RoundingMode.HALF_UP);
+            item.setPrice(price);
+            totalAmount = totalAmount.add(price.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        prescription.setTotalAmount(totalAmount);
+
+        prescriptionMapper.addPrescription(prescription);
+        for (PrescriptionItem item : items) {
+            item.setPrescriptionId(prescription.getPrescriptionId());
+        }
+        prescriptionItemMapper.addPrescriptionItems(items);
+        stockLedger.dispense(items);
+        dashboardCounters.prescriptionAdded(totalAmount);
+        patientTimelineCache.evictByCase(prescription.getCaseId());
+        return prescription;
     }
 
     @Override
+    @Transactional
     @Loggable("更新处方信息")
     public int updatePrescription(Prescription prescription) {
         if (prescription.getPrescriptionId() == null) {
             throw new RuntimeException("处方ID不能为空");
         }
-        return prescriptionMapper.updatePrescription(prescription);
+        // 修改金额时先取出原处方，用于调整看板中的今日金额
+        Prescription before = prescription.getTotalAmount() != null
+                ? prescriptionMapper.getPrescriptionById(prescription.getPrescriptionId()) : null;
+        // 处方可能被改到其他病例下，原病例和新病例所属患者的时间线都要删除，事务提交后执行
+        patientTimelineCache.evictByPrescription(prescription.getPrescriptionId());
+        int rows = prescriptionMapper.updatePrescription(prescription);
+        if (rows > 0) {
+            patientTimelineCache.evictByCase(prescription.getCaseId());
+        }
+        if (rows > 0 && before != null) {
+            dashboardCounters.prescriptionAmountChanged(before, prescription.getTotalAmount());
+        }
+        return rows;
     }
 
     @Override
+    @Transactional
     @Loggable("删除处方")
     public int deletePrescription(Long prescriptionId) {
         Prescription prescription = prescriptionMapper.getPrescriptionById(prescriptionId);
         if (prescription == null) {
             return 0;
         }
+        List<PrescriptionItem> items = prescriptionItemMapper.getPrescriptionItemByPrescriptionId(prescriptionId);
+        patientTimelineCache.evictByCase(prescription.getCaseId());
         // 数据库级联删除：删除处方时，会自动删除相关的处方项
-        return prescriptionMapper.deletePrescription(prescriptionId);
+        int rows = prescriptionMapper.deletePrescription(prescriptionId);
+        if (rows > 0) {
+            // 作废处方归还其明细占用的库存；删除病例、患者属于清理档案，级联删除的明细不归还库存
+            for (PrescriptionItem item : items) {
+                stockLedger.release(item.getDrugId(), item.getQuantity(), item.getItemId());
+            }
+            dashboardCounters.prescriptionDeleted(prescription);
+        }
+        return rows;
     }
 }
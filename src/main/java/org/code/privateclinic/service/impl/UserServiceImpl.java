@@ -1,18 +1,22 @@
 package org.code.privateclinic.service.impl;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.code.privateclinic.annotation.Loggable;
 import org.code.privateclinic.bean.User;
+import org.code.privateclinic.cache.LocalCache;
+import org.code.privateclinic.cache.LocalCacheRegistry;
+import org.code.privateclinic.cache.RedisCacheAside;
+import org.code.privateclinic.cache.SecondaryKeyCache;
+import org.code.privateclinic.cache.codec.ValueCodec;
 import org.code.privateclinic.mapper.UserMapper;
 import org.code.privateclinic.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -21,37 +25,55 @@ public class UserServiceImpl implements UserService {
     private UserMapper userMapper;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private RedisCacheAside cacheAside;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ValueCodec<List<User>> userListCodec;
+
+    @Autowired
+    private ValueCodec<User> userCodec;
+
+    @Autowired
+    private LocalCacheRegistry localCacheRegistry;
 
     private static final String CACHE_KEY = "userList";
-    private static final long CACHE_EXPIRE_HOURS = 24;
+    private static final Duration CACHE_EXPIRE = Duration.ofHours(24);
+    private static final String USER_KEY_PREFIX = "user:";
+    private static final String NAME_KEY_PREFIX = "userName:";
+    private static final Duration USER_CACHE_EXPIRE = Duration.ofMinutes(30);
+
+    /**
+     * 一级缓存，保存已反序列化的用户列表，命中时不访问 Redis
+     */
+    private LocalCache<String, List<User>> userListLocalCache;
+
+    private LocalCache<Long, User> userLocalCache;
+
+    /**
+     * 用户名 → 用户ID，登录与用户名重复检查使用
+     */
+    private SecondaryKeyCache<User> userNameCache;
+
+    @PostConstruct
+    public void initLocalCache() {
+        userListLocalCache = localCacheRegistry.getCache("user-list");
+        userLocalCache = localCacheRegistry.getCache("user");
+        userNameCache = new SecondaryKeyCache<>(NAME_KEY_PREFIX, localCacheRegistry.getCache("user-name"), cacheAside,
+                USER_CACHE_EXPIRE, User::getUserId, (name, user) -> name.equalsIgnoreCase(user.getUserName()));
+    }
 
     @Override
     @Loggable("查询用户列表")
     public List<User> getUserList() {
-        if (redisTemplate.hasKey(CACHE_KEY)) {
-            try {
-                String cache = redisTemplate.opsForValue().get(CACHE_KEY);
-                if (cache != null && !cache.isEmpty()) {
-                    return objectMapper.readValue(cache, new TypeReference<List<User>>() {});
-                }
-            } catch (Exception e) {
-                log.warn("缓存数据反序列化失败，删除缓存键 {}，错误信息: {}", CACHE_KEY, e.getMessage());
-                redisTemplate.delete(CACHE_KEY);
-            }
+        List<User> localList = userListLocalCache.get(CACHE_KEY);
+        if (localList != null) {
+            return localList;
         }
-
-        List<User> userList = userMapper.selectUser();
-        if (userList != null && !userList.isEmpty()) {
-            try {
-                String jsonValue = objectMapper.writeValueAsString(userList);
-                redisTemplate.opsForValue().set(CACHE_KEY, jsonValue, CACHE_EXPIRE_HOURS, TimeUnit.HOURS);
-            } catch (Exception e) {
-                log.error("用户列表数据序列化失败，无法存入缓存，错误信息: {}", e.getMessage());
-            }
+        List<User> userList = cacheAside.get(CACHE_KEY, userListCodec, CACHE_EXPIRE,
+                userMapper::selectUser);
+        if (userList != null) {
+            userList = Collections.unmodifiableList(userList);
+            userListLocalCache.put(CACHE_KEY, userList);
         }
         return userList;
     }
@@ -59,13 +81,24 @@ public class UserServiceImpl implements UserService {
     @Override
     @Loggable("根据ID查询用户信息")
     public User getUserById(Long id) {
-        return userMapper.selectUserById(id);
+        if (id == null) {
+            return null;
+        }
+        User localUser = userLocalCache.get(id);
+        if (localUser != null) {
+            return localUser;
+        }
+        User user = cacheAside.get(USER_KEY_PREFIX + id, userCodec, USER_CACHE_EXPIRE, () -> userMapper.selectUserById(id));
+        if (user != null) {
+            userLocalCache.put(id, user);
+        }
+        return user;
     }
 
     @Override
     @Loggable("根据用户名查询用户信息")
     public User getUserByUserName(String userName) {
-        return userMapper.selectUserByUserName(userName);
+        return userNameCache.get(userName, userMapper::selectUserByUserName, this::getUserById);
     }
 
     @Override
@@ -77,7 +110,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Loggable("添加用户")
     public int addUser(User user) {
-        User existingUser = userMapper.selectUserByUserName(user.getUserName());
+        User existingUser = getUserByUserName(user.getUserName());
         if (existingUser != null) {
             throw new RuntimeException("用户名已存在");
         }
@@ -92,6 +125,7 @@ public class UserServiceImpl implements UserService {
 
         int result = userMapper.insertUser(user);
         if (result > 0) {
+            userNameCache.evict(user.getUserName());
             clearUserListCache();
         }
         return result;
@@ -104,15 +138,17 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("用户ID不能为空");
         }
         if (user.getUserName() != null && !user.getUserName().isEmpty()) {
-            User existingUser = userMapper.selectUserByUserName(user.getUserName());
+            User existingUser = getUserByUserName(user.getUserName());
             if (existingUser != null && !existingUser.getUserId().equals(user.getUserId())) {
                 throw new RuntimeException("用户名已被使用");
             }
         }
 
+        User before = userMapper.selectUserById(user.getUserId());
         int result = userMapper.updateUser(user);
         if (result > 0) {
-            clearUserListCache();
+            // 改名、改密码或改状态后，按ID的缓存与新旧用户名的映射一起失效
+            evictUser(user.getUserId(), before == null ? null : before.getUserName(), user.getUserName());
         }
         return result;
     }
@@ -130,7 +166,7 @@ public class UserServiceImpl implements UserService {
         updateUser.setStatus(0);
         int result = userMapper.updateUser(updateUser);
         if (result > 0) {
-            clearUserListCache();
+            evictUser(id, user.getUserName());
         }
         return result;
     }
@@ -144,16 +180,20 @@ public class UserServiceImpl implements UserService {
         }
         int result = userMapper.deleteUserByIdPhysical(id);
         if (result > 0) {
-            clearUserListCache();
+            evictUser(id, user.getUserName());
         }
         return result;
     }
 
+    private void evictUser(Long id, String... userNames) {
+        userLocalCache.invalidate(id);
+        cacheAside.evict(USER_KEY_PREFIX + id);
+        userNameCache.evict(userNames);
+        clearUserListCache();
+    }
+
     private void clearUserListCache() {
-        try {
-            redisTemplate.delete(CACHE_KEY);
-        } catch (Exception e) {
-            log.warn("清除用户列表缓存失败，错误信息: {}", e.getMessage());
-        }
+        userListLocalCache.invalidate(CACHE_KEY);
+        cacheAside.evict(CACHE_KEY);
     }
 }
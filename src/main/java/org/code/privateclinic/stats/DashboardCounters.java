@@ -0,0 +1,298 @@
+package org.code.privateclinic.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.DashboardSummary;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.mapper.DashboardMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 看板计数：由服务层的增删改增量维护，定时用 COUNT 查询与数据库校准
+ * 1. 在事务中的变动提交后才计入，回滚的不计入
+ * 2. 级联删除（患者、病例）无法得知被连带删除的行数，只标记为待校准，下一次检查时重新统计
+ * 3. 校准期间如果又有增删改，或校准结束时仍有未结束事务的变动，本次结果可能已经过时，保留待校准标记，下一次检查时再统计
+ * 4. 只在当前进程内维护，多实例部署时其它实例的变动要等定时校准才能反映
+ */
+@Slf4j
+@Component
+public class DashboardCounters {
+
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+
+    @Autowired
+    private DashboardMapper dashboardMapper;
+
+    @Value("${dashboard.reconcile-interval:5m}")
+    private Duration reconcileInterval;
+
+    private final AtomicLong patientCount = new AtomicLong();
+
+    private final ConcurrentMap<String, AtomicLong> caseStatusCounts = new ConcurrentHashMap<>();
+
+    private final AtomicReference<DailyCounter> today = new AtomicReference<>(new DailyCounter(LocalDate.now()));
+
+    /**
+     * 每次增量变动加一，用于判断校准期间是否有并发变动
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 已登记、所在事务尚未结束的变动数；这些事务可能在校准的 COUNT 之前提交，之后才计入，校准无法判断是否重复
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private volatile boolean stale = true;
+
+    private volatile LocalDateTime reconcileTime;
+
+    /**
+     * 校准期间要执行 COUNT 查询，使用 ReentrantLock 而不是 synchronized，虚拟线程等待查询时不会占住载体线程
+     */
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    public void patientAdded() {
+        afterCommit(patientCount::incrementAndGet);
+    }
+
+    /**
+     * 删除患者会级联删除病例、处方，标记待校准
+     */
+    public void patientDeleted() {
+        afterCommit(() -> {
+            patientCount.decrementAndGet();
+            stale = true;
+        });
+    }
+
+    public void caseAdded(String caseStatus) {
+        afterCommit(() -> statusCounter(caseStatus).incrementAndGet());
+    }
+
+    public void caseStatusChanged(String fromStatus, String toStatus) {
+        afterCommit(() -> {
+            statusCounter(fromStatus).decrementAndGet();
+            statusCounter(toStatus).incrementAndGet();
+        });
+    }
+
+    /**
+     * 删除病例会级联删除处方，标记待校准
+     */
+    public void caseDeleted(String caseStatus) {
+        afterCommit(() -> {
+            statusCounter(caseStatus).decrementAndGet();
+            stale = true;
+        });
+    }
+
+    /**
+     * 新增处方，创建时间由数据库生成，按今日处方计入
+     */
+    public void prescriptionAdded(BigDecimal totalAmount) {
+        afterCommit(() -> currentDay().add(1, totalAmount));
+    }
+
+    /**
+     * 处方金额变动，只影响今日开具的处方
+     */
+    public void prescriptionAmountChanged(Prescription before, BigDecimal totalAmount) {
+        afterCommit(() -> {
+            if (isToday(before.getCreateTime())) {
+                currentDay().add(0, amount(totalAmount).subtract(amount(before.getTotalAmount())));
+            }
+        });
+    }
+
+    public void prescriptionDeleted(Prescription prescription) {
+        afterCommit(() -> {
+            if (isToday(prescription.getCreateTime())) {
+                currentDay().add(-1, amount(prescription.getTotalAmount()).negate());
+            }
+        });
+    }
+
+    /**
+     * 标记待校准，下一次定时检查时重新统计
+     */
+    public void markStale() {
+        afterCommit(() -> stale = true);
+    }
+
+    /**
+     * 当前计数快照（不含药品相关字段），从未校准过时先同步统计一次
+     */
+    public DashboardSummary snapshot() {
+        if (reconcileTime == null) {
+            reconcile();
+        }
+        Map<String, Long> statusCounts = new TreeMap<>();
+        long caseCount = 0;
+        for (Map.Entry<String, AtomicLong> entry : caseStatusCounts.entrySet()) {
+            long count = entry.getValue().get();
+            if (count > 0) {
+                statusCounts.put(entry.getKey(), count);
+                caseCount += count;
+            }
+        }
+        DailyCounter day = currentDay();
+        DashboardSummary summary = new DashboardSummary();
+        summary.setPatientCount(patientCount.get());
+        summary.setCaseCount(caseCount);
+        summary.setCaseStatusCounts(statusCounts);
+        summary.setPrescriptionCountToday(day.count.get());
+        summary.setRevenueToday(day.revenue.get());
+        summary.setReconcileTime(reconcileTime);
+        return summary;
+    }
+
+    /**
+     * 定时检查：待校准、跨天或距上次校准超过校准间隔时重新统计
+     */
+    @Scheduled(fixedDelayString = "${dashboard.check-interval:5000}")
+    public void reconcileIfNeeded() {
+        LocalDateTime last = reconcileTime;
+        if (!stale && last != null && last.toLocalDate().equals(LocalDate.now())
+                && last.plus(reconcileInterval).isAfter(LocalDateTime.now())) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("看板计数校准失败，错误信息: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 用 COUNT 查询重新统计并覆盖当前计数
+     */
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            doReconcile();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void doReconcile() {
+        long startVersion = version.get();
+        stale = false;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate date = now.toLocalDate();
+
+        long patients = dashboardMapper.countPatients();
+        Map<String, Long> statusCounts = new HashMap<>();
+        for (Map<String, Object> row : dashboardMapper.countMedicalCasesByStatus()) {
+            Object status = row.get("caseStatus");
+            statusCounts.merge(status == null ? UNKNOWN_STATUS : status.toString(),
+                    ((Number) row.get("caseCount")).longValue(), Long::sum);
+        }
+        Map<String, Object> prescriptions = dashboardMapper.sumPrescriptionsSince(date.atStartOfDay());
+        long prescriptionCount = ((Number) prescriptions.get("prescriptionCount")).longValue();
+        BigDecimal revenue = new BigDecimal(prescriptions.get("revenue").toString());
+
+        boolean drifted = patientCount.getAndSet(patients) != patients;
+        for (Map.Entry<String, AtomicLong> entry : caseStatusCounts.entrySet()) {
+            long expected = statusCounts.getOrDefault(entry.getKey(), 0L);
+            drifted |= entry.getValue().getAndSet(expected) != expected;
+        }
+        for (Map.Entry<String, Long> entry : statusCounts.entrySet()) {
+            drifted |= statusCounter(entry.getKey()).getAndSet(entry.getValue()) != entry.getValue();
+        }
+        DailyCounter day = new DailyCounter(date);
+        day.count.set(prescriptionCount);
+        day.revenue.set(revenue);
+        DailyCounter previous = today.getAndSet(day);
+        drifted |= previous.date.equals(date)
+                && (previous.count.get() != prescriptionCount || previous.revenue.get().compareTo(revenue) != 0);
+
+        if (version.get() != startVersion || pending.get() > 0) {
+            // 统计期间有并发变动，或有变动所在事务未结束，本次结果可能漏掉或重复计入这些变动
+            stale = true;
+        }
+        if (drifted && reconcileTime != null) {
+            log.info("看板计数与数据库不一致，已校准: 患者 {}，病例 {}，今日处方 {}，今日金额 {}",
+                    patients, statusCounts, prescriptionCount, revenue);
+        }
+        reconcileTime = now;
+    }
+
+    /**
+     * 在事务中时提交后再修改计数，修改后增加版本号
+     */
+    private void afterCommit(Runnable change) {
+        pending.incrementAndGet();
+        TransactionHooks.afterCompletion(committed -> {
+            try {
+                if (committed) {
+                    change.run();
+                    version.incrementAndGet();
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private AtomicLong statusCounter(String caseStatus) {
+        return caseStatusCounts.computeIfAbsent(caseStatus == null ? UNKNOWN_STATUS : caseStatus, key -> new AtomicLong());
+    }
+
+    /**
+     * 今日计数，跨天时清零并标记待校准
+     */
+    private DailyCounter currentDay() {
+        DailyCounter day = today.get();
+        LocalDate date = LocalDate.now();
+        if (day.date.equals(date)) {
+            return day;
+        }
+        DailyCounter next = new DailyCounter(date);
+        if (today.compareAndSet(day, next)) {
+            stale = true;
+            version.incrementAndGet();
+            return next;
+        }
+        return today.get();
+    }
+
+    private static boolean isToday(LocalDateTime time) {
+        return time != null && time.toLocalDate().equals(LocalDate.now());
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static final class DailyCounter {
+        private final LocalDate date;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+
+        private DailyCounter(LocalDate date) {
+            this.date = date;
+        }
+
+        private void add(long delta, BigDecimal amount) {
+            count.addAndGet(delta);
+            revenue.accumulateAndGet(amount(amount), BigDecimal::add);
+        }
+    }
+}
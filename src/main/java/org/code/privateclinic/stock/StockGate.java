@@ -0,0 +1,178 @@
+package org.code.privateclinic.stock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Redis 库存闸门：每个药品一个计数键，保存当前可用库存
+ * 1. 预占用 Lua 脚本做「库存 >= 数量 才扣减」的原子判断，同一药品的并发出库不需要数据库行锁
+ * 2. 键不存在时由 loader 从库存快照和流水算出可用库存后写入（SET NX），之后不过期
+ * 3. 每次加载同时生成新的版本号（单独的版本键），预占、设置时返回当前版本；
+ *    回滚归还、提交后归还只在版本未变时累加，重新加载之后不会再把加载前的预占加回去
+ */
+@Slf4j
+@Component
+public class StockGate {
+
+    static final String KEY_PREFIX = "drug:stock:";
+
+    static final String GENERATION_KEY_PREFIX = "drug:stock:gen:";
+
+    private static final long NOT_LOADED = -1;
+
+    private static final long INSUFFICIENT = -2;
+
+    /**
+     * KEYS[1] 计数键，KEYS[2] 版本键；ARGV[1] 库存，ARGV[2] 新版本号；键已存在时不写入，返回 0
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if not redis.call('SET', KEYS[1], ARGV[1], 'NX') then return 0 end "
+                    + "redis.call('SET', KEYS[2], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * ARGV[1] 预占数量，ARGV[2] 版本键不存在时使用的版本号；
+     * 返回 {扣减后的库存, 版本号}，未加载时为 {-1}，库存不足时为 {-2, 版本号}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) "
+                    + "if not stock then return {-1} end "
+                    + "local generation = redis.call('GET', KEYS[2]) "
+                    + "if not generation then generation = ARGV[2] redis.call('SET', KEYS[2], generation) end "
+                    + "if tonumber(stock) < tonumber(ARGV[1]) then return {-2, generation} end "
+                    + "return {redis.call('DECRBY', KEYS[1], ARGV[1]), generation}",
+            List.class);
+
+    /**
+     * ARGV[1] 变动量，ARGV[2] 预期的版本号；键不存在或版本已变化时不写入，返回 0
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 or redis.call('GET', KEYS[2]) ~= ARGV[2] then return 0 end "
+                    + "redis.call('INCRBY', KEYS[1], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * ARGV[1] 新库存，ARGV[2] 版本键不存在时使用的版本号；返回 {原库存, 版本号}，键不存在时返回空列表
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SET_SCRIPT = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) "
+                    + "if not stock then return {} end "
+                    + "local generation = redis.call('GET', KEYS[2]) "
+                    + "if not generation then generation = ARGV[2] redis.call('SET', KEYS[2], generation) end "
+                    + "redis.call('SET', KEYS[1], ARGV[1]) "
+                    + "return {tonumber(stock), generation}",
+            List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 原子预占库存，返回预占时的版本号；库存不足时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public String reserve(Long drugId, int quantity, Supplier<Integer> loader) {
+        List<Object> result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys(drugId), String.valueOf(quantity), newGeneration());
+        if (result != null && (Long) result.get(0) == NOT_LOADED) {
+            load(drugId, loader);
+            result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys(drugId), String.valueOf(quantity), newGeneration());
+        }
+        if (result == null || (Long) result.get(0) == NOT_LOADED) {
+            throw new RuntimeException("库存数据加载失败");
+        }
+        return (Long) result.get(0) == INSUFFICIENT ? null : (String) result.get(1);
+    }
+
+    /**
+     * 归还或扣回库存，只在版本号与预期一致时生效，返回是否生效
+     */
+    public boolean add(Long drugId, int quantity, String generation) {
+        Long result = stringRedisTemplate.execute(ADD_SCRIPT, keys(drugId), String.valueOf(quantity), generation);
+        return result != null && result == 1;
+    }
+
+    /**
+     * 把库存设置为指定值，返回设置前的库存与版本号
+     */
+    @SuppressWarnings("unchecked")
+    public Adjustment set(Long drugId, int stock, Supplier<Integer> loader) {
+        List<Object> previous = stringRedisTemplate.execute(SET_SCRIPT, keys(drugId), String.valueOf(stock), newGeneration());
+        if (previous == null || previous.isEmpty()) {
+            load(drugId, loader);
+            previous = stringRedisTemplate.execute(SET_SCRIPT, keys(drugId), String.valueOf(stock), newGeneration());
+        }
+        if (previous == null || previous.isEmpty()) {
+            throw new RuntimeException("库存数据加载失败");
+        }
+        return new Adjustment((Long) previous.get(0), (String) previous.get(1));
+    }
+
+    /**
+     * 当前可用库存
+     */
+    public long get(Long drugId, Supplier<Integer> loader) {
+        String value = stringRedisTemplate.opsForValue().get(key(drugId));
+        if (value == null) {
+            load(drugId, loader);
+            value = stringRedisTemplate.opsForValue().get(key(drugId));
+        }
+        if (value == null) {
+            throw new RuntimeException("库存数据加载失败");
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * 当前版本号，未加载时为 null
+     */
+    public String generation(Long drugId) {
+        return stringRedisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + drugId);
+    }
+
+    /**
+     * 删除计数键与版本键，下次使用时从流水重新加载
+     */
+    public void evict(Long drugId) {
+        stringRedisTemplate.delete(keys(drugId));
+    }
+
+    private void load(Long drugId, Supplier<Integer> loader) {
+        Integer stock = loader.get();
+        if (stock == null) {
+            throw new RuntimeException("药品不存在");
+        }
+        Long loaded = stringRedisTemplate.execute(LOAD_SCRIPT, keys(drugId), String.valueOf(stock), newGeneration());
+        if (loaded != null && loaded == 1) {
+            log.info("药品库存已加载到 Redis，药品ID {}，可用库存 {}", drugId, stock);
+        }
+    }
+
+    private static String newGeneration() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static String key(Long drugId) {
+        return KEY_PREFIX + drugId;
+    }
+
+    private static List<String> keys(Long drugId) {
+        return List.of(key(drugId), GENERATION_KEY_PREFIX + drugId);
+    }
+
+    /**
+     * 设置库存前的库存与版本号
+     */
+    record Adjustment(long previous, String generation) {
+    }
+}
@@ -0,0 +1,177 @@
+package org.code.privateclinic.stock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.bean.StockMovement;
+import org.code.privateclinic.mapper.StockMovementMapper;
+import org.code.privateclinic.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 库存流水：库存变动只追加流水，不再改写 drug.stock
+ * 1. 出库先在 {@link StockGate} 原子预占，成功后追加出库流水；事务回滚时归还预占的库存
+ * 2. 归还追加归还流水，事务提交后再加回 {@link StockGate}
+ * 3. drug.stock 是库存快照，由 {@link StockSnapshotJob} 定期把未汇总的流水逐条标记为已汇总并加进快照
+ * 4. 计数键从数据库加载时用加锁读，等待已追加流水、尚未提交的事务结束，加载结果包含它们提交的流水；
+ *    预占之后、追加流水之前计数键被重新加载的，加载结果不含本次预占：追加流水后发现版本号变化即抛出异常回滚，
+ *    回滚与提交后的归还都只在版本号未变时加回计数，避免超卖或多加库存
+ * 以上方法都必须在事务中调用
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    @Autowired
+    private StockGate stockGate;
+
+    @Autowired
+    private StockMovementMapper stockMovementMapper;
+
+    /**
+     * 出库：库存不足时抛出异常，调用方事务随之回滚
+     */
+    public void dispense(Long drugId, int quantity, Long itemId) {
+        requireTransaction();
+        String generation = reserve(drugId, quantity);
+        stockMovementMapper.addStockMovement(new StockMovement(null, drugId, itemId, -quantity, StockMovement.DISPENSE, null));
+        checkGeneration(drugId, generation);
+    }
+
+    /**
+     * 多个处方明细一起出库，逐个预占后用一条语句追加全部出库流水
+     * 任何一个药品库存不足都抛出异常，已预占的库存在事务回滚时归还
+     */
+    public void dispense(List<PrescriptionItem> items) {
+        requireTransaction();
+        List<StockMovement> movements = new ArrayList<>(items.size());
+        List<String> generations = new ArrayList<>(items.size());
+        for (PrescriptionItem item : items) {
+            generations.add(reserve(item.getDrugId(), item.getQuantity()));
+            movements.add(new StockMovement(null, item.getDrugId(), item.getItemId(), -item.getQuantity(), StockMovement.DISPENSE, null));
+        }
+        stockMovementMapper.addStockMovements(movements);
+        for (int i = 0; i < items.size(); i++) {
+            checkGeneration(items.get(i).getDrugId(), generations.get(i));
+        }
+    }
+
+    /**
+     * 归还库存：追加流水后记下版本号，提交后版本未变才加回计数；
+     * 版本已变化时无法确定重新加载是否包含本次归还，删除计数键让下次使用时从流水重新加载
+     */
+    public void release(Long drugId, int quantity, Long itemId) {
+        requireTransaction();
+        stockMovementMapper.addStockMovement(new StockMovement(null, drugId, itemId, quantity, StockMovement.RELEASE, null));
+        String generation = stockGate.generation(drugId);
+        TransactionHooks.afterCommit(() -> apply(drugId, () -> {
+            if (generation == null || !stockGate.add(drugId, quantity, generation)) {
+                stockGate.evict(drugId);
+            }
+        }));
+    }
+
+    /**
+     * 把库存调整为指定值，按与当前可用库存的差额追加调整流水
+     */
+    public void adjustTo(Long drugId, int stock) {
+        requireTransaction();
+        StockGate.Adjustment adjustment = stockGate.set(drugId, stock, () -> stockMovementMapper.getAvailableStock(drugId));
+        int delta = (int) (stock - adjustment.previous());
+        if (delta == 0) {
+            return;
+        }
+        afterRollback(drugId, () -> stockGate.add(drugId, -delta, adjustment.generation()));
+        stockMovementMapper.addStockMovement(new StockMovement(null, drugId, null, delta, StockMovement.ADJUST, null));
+        checkGeneration(drugId, adjustment.generation());
+    }
+
+    /**
+     * 把药品已提交、尚未汇总的流水汇总进库存快照，返回是否有流水被汇总
+     * 更新快照与标记在同一事务中；流水已被其它实例标记时回滚，由该实例完成汇总
+     * 先更新药品行再标记流水，与加载库存时的加锁顺序一致，避免互相等待
+     */
+    @Transactional
+    public boolean applySnapshot(Long drugId) {
+        List<StockMovement> pending = stockMovementMapper.getPendingStockMovements(drugId);
+        if (pending.isEmpty()) {
+            return false;
+        }
+        List<Long> movementIds = new ArrayList<>(pending.size());
+        int quantity = 0;
+        for (StockMovement movement : pending) {
+            movementIds.add(movement.getMovementId());
+            quantity += movement.getQuantity();
+        }
+        stockMovementMapper.applyStockSnapshot(drugId, quantity);
+        if (stockMovementMapper.markStockMovementsApplied(movementIds) != movementIds.size()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 当前可用库存，直接读取 Redis 计数
+     */
+    public long getAvailableStock(Long drugId) {
+        return stockGate.get(drugId, () -> stockMovementMapper.getAvailableStock(drugId));
+    }
+
+    /**
+     * 药品被物理删除后清理计数键
+     */
+    public void evict(Long drugId) {
+        try {
+            stockGate.evict(drugId);
+        } catch (Exception e) {
+            log.warn("清理药品库存计数失败，药品ID {}，错误信息: {}", drugId, e.getMessage());
+        }
+    }
+
+    private String reserve(Long drugId, int quantity) {
+        String generation = stockGate.reserve(drugId, quantity, () -> stockMovementMapper.getAvailableStock(drugId));
+        if (generation == null) {
+            throw new RuntimeException("药品库存不足，药品ID: " + drugId);
+        }
+        afterRollback(drugId, () -> stockGate.add(drugId, quantity, generation));
+        return generation;
+    }
+
+    /**
+     * 流水已追加，此后的重新加载会等待本事务结束；版本号已变化说明在此之前重新加载过，加载结果不含本次变动
+     */
+    private void checkGeneration(Long drugId, String generation) {
+        if (!generation.equals(stockGate.generation(drugId))) {
+            throw new RuntimeException("药品库存数据已重新加载，请重试，药品ID: " + drugId);
+        }
+    }
+
+    private void afterRollback(Long drugId, Runnable action) {
+        TransactionHooks.afterRollback(() -> apply(drugId, action));
+    }
+
+    /**
+     * Redis 计数修正失败时删除计数键，下次使用时从流水重新加载，避免长期偏差
+     */
+    private void apply(Long drugId, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.error("修正药品库存计数失败，删除计数键等待重新加载，药品ID {}，错误信息: {}", drugId, e.getMessage());
+            evict(drugId);
+        }
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("库存变动必须在事务中进行");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.code.privateclinic.stock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.mapper.StockMovementMapper;
+import org.code.privateclinic.service.DrugService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 库存快照：定期把流水汇总进 drug.stock，读取库存时只需快照加上少量未汇总的流水
+ * 流水逐条标记是否已汇总，不按流水ID水位推进：提交较晚、ID 更小的流水留到下一次汇总，不会被越过
+ * 每个药品一个事务，多个实例同时汇总同一药品时只有一个生效
+ */
+@Slf4j
+@Component
+public class StockSnapshotJob {
+
+    @Autowired
+    private StockMovementMapper stockMovementMapper;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private DrugService drugService;
+
+    @Scheduled(fixedDelayString = "${stock.snapshot-interval:10000}")
+    public void snapshot() {
+        List<Long> drugIds;
+        try {
+            drugIds = stockMovementMapper.getPendingStockDrugIds();
+        } catch (Exception e) {
+            log.warn("库存快照更新失败，错误信息: {}", e.getMessage());
+            return;
+        }
+        int applied = 0;
+        for (Long drugId : drugIds) {
+            try {
+                if (stockLedger.applySnapshot(drugId)) {
+                    drugService.refreshDrugCache(drugId);
+                    applied++;
+                }
+            } catch (Exception e) {
+                log.warn("库存快照更新失败，药品ID {}，错误信息: {}", drugId, e.getMessage());
+            }
+        }
+        if (applied > 0) {
+            log.info("库存快照已更新 {} 个药品", applied);
+        }
+    }
+}
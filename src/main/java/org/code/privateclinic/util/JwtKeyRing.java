@@ -0,0 +1,143 @@
+package org.code.privateclinic.util;
+
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.code.privateclinic.config.JwtProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWT 密钥环：按 Token 头部的 kid 直接定位验证密钥（O(1)），并按配置的生效/退役时间定时轮换签发密钥
+ * 未携带 kid 的旧 Token 使用第一个密钥验证
+ */
+@Slf4j
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final List<JwtProperties.KeyDefinition> definitions;
+    private final String configuredActiveKeyId;
+    private final String legacyKeyId;
+    private final Map<String, SecretKey> allKeys;
+
+    /**
+     * 当前密钥快照，轮换时整体替换
+     */
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(JwtProperties properties) {
+        if (properties.getKeys() == null || properties.getKeys().isEmpty()) {
+            throw new IllegalStateException("未配置 JWT 密钥（jwt.keys）");
+        }
+        this.definitions = List.copyOf(properties.getKeys());
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        for (JwtProperties.KeyDefinition definition : definitions) {
+            if (definition.getId() == null || definition.getId().isEmpty()) {
+                throw new IllegalStateException("JWT 密钥缺少 id");
+            }
+            if (keys.put(definition.getId(), buildSecretKey(definition.getSecret())) != null) {
+                throw new IllegalStateException("JWT 密钥 id 重复: " + definition.getId());
+            }
+        }
+        this.allKeys = Collections.unmodifiableMap(keys);
+        this.legacyKeyId = definitions.get(0).getId();
+        this.configuredActiveKeyId = properties.getActiveKeyId() != null ? properties.getActiveKeyId() : legacyKeyId;
+        if (!allKeys.containsKey(configuredActiveKeyId)) {
+            throw new IllegalStateException("签发密钥不存在: " + configuredActiveKeyId);
+        }
+        refresh();
+    }
+
+    /**
+     * 按当前时间重新计算签发密钥与可用于验证的密钥，无需重启即可完成轮换
+     */
+    @Scheduled(fixedDelayString = "${jwt.rotation-check-interval:60000}")
+    public void refresh() {
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<String, SecretKey> verificationKeys = new LinkedHashMap<>();
+        JwtProperties.KeyDefinition scheduled = null;
+        for (JwtProperties.KeyDefinition definition : definitions) {
+            if (definition.getRetireAt() != null && !definition.getRetireAt().isAfter(now)) {
+                continue;
+            }
+            verificationKeys.put(definition.getId(), allKeys.get(definition.getId()));
+            if (definition.getActivateAt() != null && !definition.getActivateAt().isAfter(now)
+                    && (scheduled == null || definition.getActivateAt().isAfter(scheduled.getActivateAt()))) {
+                scheduled = definition;
+            }
+        }
+        String activeKeyId = scheduled != null ? scheduled.getId() : configuredActiveKeyId;
+        if (!verificationKeys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("签发密钥已退役且没有可接替的密钥: " + activeKeyId);
+        }
+
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(activeKeyId, verificationKeys.get(activeKeyId), Collections.unmodifiableMap(verificationKeys));
+        if (previous != null && !previous.activeKeyId().equals(activeKeyId)) {
+            log.info("JWT 签发密钥已轮换: {} -> {}", previous.activeKeyId(), activeKeyId);
+        }
+        if (previous != null && !previous.keys().keySet().equals(verificationKeys.keySet())) {
+            log.info("JWT 验证密钥已更新: {}", verificationKeys.keySet());
+        }
+    }
+
+    /**
+     * 当前签发密钥 ID
+     */
+    public String getActiveKeyId() {
+        return snapshot.activeKeyId();
+    }
+
+    /**
+     * 当前签发密钥
+     */
+    public SecretKey getActiveKey() {
+        return snapshot.activeKey();
+    }
+
+    /**
+     * 判断密钥是否仍可用于验证（未携带 kid 的 Token 对应第一个密钥）
+     */
+    public boolean isVerifiable(String keyId) {
+        return snapshot.keys().containsKey(keyId != null ? keyId : legacyKeyId);
+    }
+
+    @Override
+    protected Key locate(ProtectedHeader header) {
+        String keyId = header.getKeyId();
+        return snapshot.keys().get(keyId != null ? keyId : legacyKeyId);
+    }
+
+    private static SecretKey buildSecretKey(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalStateException("JWT 密钥内容不能为空");
+        }
+        try {
+            byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            // 确保密钥至少32字节（256位）
+            if (keyBytes.length < 32) {
+                // 如果密钥太短，使用SHA-256哈希扩展到32字节
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                keyBytes = digest.digest(keyBytes);
+            }
+            return Keys.hmacShaKeyFor(keyBytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("无法初始化JWT密钥", e);
+        }
+    }
+
+    private record Snapshot(String activeKeyId, SecretKey activeKey, Map<String, SecretKey> keys) {
+    }
+}
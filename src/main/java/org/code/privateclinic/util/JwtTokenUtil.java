@@ -1,71 +1,52 @@
 package org.code.privateclinic.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import org.code.privateclinic.config.JwtProperties;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtTokenUtil {
 
-    @Value("${jwt.secret1}")
-    private String secret1;
-
-    @Value("${jwt.secret2}")
-    private String secret2;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey secretKey1;
-    private SecretKey secretKey2;
+    private final JwtKeyRing keyRing;
 
+    private final Long expiration;
 
     /**
-     * 初始化密钥
+     * 解析器线程安全，启动时一次性构建；验证密钥由密钥环按 kid 定位
      */
-    private SecretKey getSecretKey1() {
-        if (secretKey1 == null) {
-            try {
-                byte[] keyBytes = secret1.getBytes(StandardCharsets.UTF_8);
-                // 确保密钥至少32字节（256位）
-                if (keyBytes.length < 32) {
-                    // 如果密钥太短，使用SHA-256哈希扩展到32字节
-                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
-                    keyBytes = digest.digest(keyBytes);
-                }
-                secretKey1 = Keys.hmacShaKeyFor(keyBytes);
-            } catch (java.security.NoSuchAlgorithmException e) {
-                throw new RuntimeException("无法初始化JWT密钥", e);
-            }
-        }
-        return secretKey1;
-    }
+    private final JwtParser parser;
 
-    private SecretKey getSecretKey2() {
-        if (secretKey2 == null) {
-            try {
-                byte[] keyBytes = secret2.getBytes(StandardCharsets.UTF_8);
-                // 确保密钥至少32字节（256位）
-                if (keyBytes.length < 32) {
-                    // 如果密钥太短，使用SHA-256哈希扩展到32字节
-                    MessageDigest digest = MessageDigest.getInstance("SHA-256");
-                    keyBytes = digest.digest(keyBytes);
-                }
-                secretKey2 = Keys.hmacShaKeyFor(keyBytes);
-            } catch (java.security.NoSuchAlgorithmException e) {
-                throw new RuntimeException("无法初始化JWT密钥", e);
-            }
-        }
-        return secretKey2;
+    /**
+     * 已验证声明的缓存：键为 Token 的 SHA-256 摘要，条目在 Token 自身的过期时间失效
+     * 容量配置为 0 时不启用缓存
+     */
+    private final Cache<String, VerifiedClaims> verifiedClaims;
+
+    public JwtTokenUtil(JwtKeyRing keyRing, JwtProperties properties) {
+        this.keyRing = keyRing;
+        this.expiration = properties.getExpiration();
+        this.parser = Jwts.parser().keyLocator(keyRing).build();
+        this.verifiedClaims = properties.getClaimsCacheSize() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.getClaimsCacheSize())
+                        .expireAfter(new ClaimsExpiry())
+                        .build()
+                : null;
     }
 
     public String generateToken(String subject, Map<String, Object> claims) {
@@ -75,37 +56,58 @@ public class JwtTokenUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration * 1000);
         return Jwts.builder()
+                .header().keyId(keyRing.getActiveKeyId()).and()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSecretKey1())
+                .signWith(keyRing.getActiveKey())
                 .compact();
     }
     /**
-     * 验证Token（双密钥验证：先尝试密钥1，失败则尝试密钥2）
+     * 验证Token（按头部 kid 从密钥环选择密钥，只验签一次）
+     * 验证通过的声明按 Token 摘要缓存，同一 Token 再次验证时直接返回，不再重复校验签名
      * @param token Token字符串
      * @return Claims对象，验证失败返回null
      */
     public Claims validateToken(String token) {
-        // 先尝试使用密钥1验证
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        if (verifiedClaims == null) {
+            VerifiedClaims verified = parseClaims(token);
+            return verified != null ? verified.claims() : null;
+        }
+        String cacheKey = digest(token);
+        VerifiedClaims verified = verifiedClaims.getIfPresent(cacheKey);
+        // 签发密钥退役后，缓存中由它签发的 Token 同样失效
+        if (verified != null && keyRing.isVerifiable(verified.keyId())) {
+            return verified.claims();
+        }
+        verified = parseClaims(token);
+        if (verified == null) {
+            verifiedClaims.invalidate(cacheKey);
+            return null;
+        }
+        verifiedClaims.put(cacheKey, verified);
+        return verified.claims();
+    }
+
+    private VerifiedClaims parseClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSecretKey1())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Jws<Claims> jws = parser.parseSignedClaims(token);
+            return new VerifiedClaims(jws.getHeader().getKeyId(), jws.getPayload());
         } catch (Exception e) {
-            // 如果密钥1验证失败，尝试使用密钥2（支持密钥轮换）
-            try {
-                return Jwts.parser()
-                        .verifyWith(getSecretKey2())
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-            } catch (Exception ex) {
-                return null;
-            }
+            return null;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -198,4 +200,31 @@ public class JwtTokenUtil {
         long timeUntilExpiration = expiration.getTime() - System.currentTimeMillis();
         return timeUntilExpiration <= seconds * 1000;
     }
+
+    /**
+     * 缓存条目的存活时间取 Token 剩余有效期
+     */
+    private class ClaimsExpiry implements Expiry<String, VerifiedClaims> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims verified, long currentTime) {
+            Date expirationDate = verified.claims().getExpiration();
+            long remainingMillis = expirationDate != null
+                    ? expirationDate.getTime() - System.currentTimeMillis()
+                    : expiration * 1000;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private record VerifiedClaims(String keyId, Claims claims) {
+    }
 }
@@ -0,0 +1,84 @@
+package org.code.privateclinic.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * 事务回调：缓存、索引、库存计数等数据库以外的状态只在事务结果确定后修改
+ * 注意：在提交回调中再登记的回调不会被执行，需要提交后执行的动作应在事务中登记
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * 在事务中时提交后执行，否则立即执行
+     */
+    public static void afterCommit(Runnable action) {
+        if (!afterCommitIfActive(action)) {
+            action.run();
+        }
+    }
+
+    /**
+     * 同 {@link #afterCommit(Runnable)}，执行失败时交给 onFailure 处理而不抛出
+     */
+    public static void afterCommit(Runnable action, Consumer<Exception> onFailure) {
+        afterCommit(() -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                onFailure.accept(e);
+            }
+        });
+    }
+
+    /**
+     * 在事务中时登记为提交后执行并返回 true，不在事务中时不执行并返回 false
+     */
+    public static boolean afterCommitIfActive(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 在事务中时事务结束后执行，参数为是否已提交；不在事务中时立即按已提交执行
+     */
+    public static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * 事务回滚（或以未知状态结束）后执行，必须在事务中调用
+     */
+    public static void afterRollback(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
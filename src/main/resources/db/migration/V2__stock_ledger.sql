@@ -0,0 +1,20 @@
+-- 库存流水：出库、归还、调整各追加一条流水，drug.stock 是全部已汇总（applied = 1）流水的结果，可用库存为快照加上未汇总的流水
+-- 流水逐条标记汇总，无论提交顺序如何，每条流水都恰好汇总一次；已有药品没有流水，当前库存即快照
+ALTER TABLE `drug`
+  MODIFY `stock` int NOT NULL COMMENT '库存快照，已汇总流水之后的库存';
+
+-- ============================================
+-- 表 stock_movement 结构（库存流水，只追加，汇总后只修改 applied）
+-- ============================================
+CREATE TABLE IF NOT EXISTS `stock_movement` (
+  `movement_id` bigint NOT NULL AUTO_INCREMENT,
+  `drug_id` bigint NOT NULL,
+  `item_id` bigint DEFAULT NULL COMMENT '关联的处方明细，调整库存时为空',
+  `quantity` int NOT NULL COMMENT '库存变动量，出库为负',
+  `movement_type` varchar(20) NOT NULL COMMENT 'DISPENSE 出库 / RELEASE 归还 / ADJUST 调整',
+  `applied` tinyint NOT NULL DEFAULT '0' COMMENT '是否已汇总进库存快照',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`movement_id`),
+  KEY `idx_movement_drug` (`drug_id`, `movement_id`),
+  KEY `idx_movement_pending` (`applied`, `drug_id`, `movement_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=${table_collation} COMMENT='库存流水表';
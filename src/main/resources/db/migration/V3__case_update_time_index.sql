@@ -0,0 +1,3 @@
+-- 病历全文索引按更新时间增量同步：读取 (update_time, case_id) 之后更新的病历
+ALTER TABLE `medical_case`
+  ADD KEY `idx_case_update_time` (`update_time`, `case_id`);
@@ -0,0 +1,41 @@
+-- 按 Mapper 查询建立联合索引：等值条件列在前，排序列（创建时间、主键）在后，
+-- 列表与游标分页沿索引顺序读取前 limit 行，不再对全部匹配行排序
+-- 新索引以外键列开头，可以支撑外键约束，原先只有外键列的索引随之删除
+-- 索引列显式带上主键，游标分页的 (create_time, id) 排序与条件都能走索引
+
+-- 患者：全部患者、按医生查询与分页
+ALTER TABLE `patient`
+  ADD KEY `idx_patient_create_time` (`create_time`, `patient_id`),
+  ADD KEY `idx_patient_doctor_create_time` (`doctor_id`, `create_time`, `patient_id`),
+  DROP KEY `fk_patient_doctor`;
+
+-- 病历：全部病历、按患者、医生、状态查询与分页，按时间范围导出；状态索引同时用于看板按状态计数
+ALTER TABLE `medical_case`
+  ADD KEY `idx_case_create_time` (`create_time`, `case_id`),
+  ADD KEY `idx_case_patient_create_time` (`patient_id`, `create_time`, `case_id`),
+  ADD KEY `idx_case_doctor_create_time` (`doctor_id`, `create_time`, `case_id`),
+  ADD KEY `idx_case_status_create_time` (`case_status`, `create_time`, `case_id`),
+  DROP KEY `fk_case_patient`,
+  DROP KEY `fk_case_doctor`;
+
+-- 处方：全部处方、按病例、医生查询与分页，按时间范围导出；创建时间索引同时用于看板统计当天处方
+ALTER TABLE `prescription`
+  ADD KEY `idx_prescription_create_time` (`create_time`, `prescription_id`),
+  ADD KEY `idx_prescription_case_create_time` (`case_id`, `create_time`, `prescription_id`),
+  ADD KEY `idx_prescription_doctor_create_time` (`doctor_id`, `create_time`, `prescription_id`),
+  DROP KEY `fk_prescription_case`,
+  DROP KEY `fk_prescription_doctor`;
+
+-- 处方明细：按处方查询，按明细ID倒序
+ALTER TABLE `prescription_item`
+  ADD KEY `idx_item_prescription` (`prescription_id`, `item_id`),
+  DROP KEY `fk_item_prescription`;
+
+-- 药品：启用药品列表
+ALTER TABLE `drug`
+  ADD KEY `idx_drug_status_create_time` (`status`, `create_time`);
+
+-- 用户：启用用户列表、按角色查询
+ALTER TABLE `user`
+  ADD KEY `idx_user_status_create_time` (`status`, `create_time`),
+  ADD KEY `idx_user_role_status_create_time` (`role`, `status`, `create_time`);
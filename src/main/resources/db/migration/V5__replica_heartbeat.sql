@@ -0,0 +1,8 @@
+-- 复制延迟心跳：主库定时写入当前时间，随复制同步到副本；副本上的心跳比主库落后的时间即复制延迟
+CREATE TABLE IF NOT EXISTS `replica_heartbeat` (
+  `heartbeat_id` tinyint NOT NULL,
+  `beat_time` datetime(3) NOT NULL,
+  PRIMARY KEY (`heartbeat_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=${table_collation} COMMENT='复制延迟心跳表';
+
+INSERT INTO `replica_heartbeat` (`heartbeat_id`, `beat_time`) VALUES (1, NOW(3));
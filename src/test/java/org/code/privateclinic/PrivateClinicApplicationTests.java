@@ -1,9 +1,16 @@
 package org.code.privateclinic;
 
+import org.code.privateclinic.support.EmbeddedMariaDb;
 import org.code.privateclinic.util.JwtTokenUtil;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 class PrivateClinicApplicationTests {
@@ -11,8 +18,36 @@ class PrivateClinicApplicationTests {
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 数据库指向内嵌 MariaDB，启动时由 Flyway 在空库上执行全部迁移
+     */
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> EmbeddedMariaDb.jdbcUrl("pcms_context"));
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.flyway.placeholders.table_collation", () -> EmbeddedMariaDb.TABLE_COLLATION);
+        registry.add("search.index-dir", () -> "target/search-index");
+    }
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * 启动测试: 迁移执行完成，查询用的联合索引已建立
+     */
+    @Test
+    void testMigrationsApplied() {
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flyway_schema_history WHERE success = 0", Integer.class);
+        assertEquals(0, pending);
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                        + "AND index_name = 'idx_case_doctor_create_time'", Integer.class);
+        assertEquals(3, indexes);
+    }
+
 }
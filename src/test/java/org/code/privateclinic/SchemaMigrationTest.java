@@ -0,0 +1,100 @@
+package org.code.privateclinic;
+
+import org.code.privateclinic.support.EmbeddedMariaDb;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据库迁移测试
+ * 1. 基线迁移 V1 与 data.sql 的建表语句逐字一致，按 data.sql 建表的库记为版本 1 才是正确的
+ * 2. 按 data.sql 建表的库（线上已有的库）记为基线后执行迁移，得到的结构与空库执行全部迁移相同
+ */
+class SchemaMigrationTest {
+
+    private static final String COLLATION = "utf8mb4_0900_ai_ci";
+
+    /**
+     * 迁移测试: V1 去掉开头的说明注释、代入排序规则后与 data.sql 去掉建库语句后的内容相同
+     */
+    @Test
+    void testBaselineMatchesDataSql() throws Exception {
+        String baseline = new ClassPathResource("db/migration/V1__baseline_schema.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        String migration = baseline.substring(baseline.indexOf("-- ====")).replace("${table_collation}", COLLATION);
+        assertEquals(dataSqlTables(), migration);
+    }
+
+    /**
+     * 迁移测试: data.sql 建表并写入数据后记为基线版本 1 并迁移，结构与空库迁移一致，已有数据保留
+     */
+    @Test
+    void testUpgradeFromDataSqlSchema() throws Exception {
+        String upgradedUrl = EmbeddedMariaDb.jdbcUrl("pcms_upgraded");
+        DriverManagerDataSource upgraded = new DriverManagerDataSource(upgradedUrl, "root", "");
+        String script = dataSqlTables().replace(COLLATION, EmbeddedMariaDb.TABLE_COLLATION);
+        try (Connection connection = upgraded.getConnection()) {
+            ScriptUtils.executeSqlScript(connection,
+                    new EncodedResource(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        }
+        JdbcTemplate upgradedJdbc = new JdbcTemplate(upgraded);
+        upgradedJdbc.update("INSERT INTO drug (drug_name, specification, price, stock) VALUES ('阿莫西林', '0.25g', 12.50, 30)");
+
+        EmbeddedMariaDb.flyway(upgradedUrl).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+        String freshUrl = EmbeddedMariaDb.jdbcUrl("pcms_fresh");
+        EmbeddedMariaDb.flyway(freshUrl).load().migrate();
+
+        MigrationInfo[] applied = EmbeddedMariaDb.flyway(upgradedUrl).load().info().applied();
+        assertTrue(applied[0].getType().isBaseline());
+        assertEquals("1", applied[0].getVersion().getVersion());
+        assertTrue(applied.length > 1);
+        assertTrue(List.of(applied).stream().allMatch(info -> info.getState().isApplied()));
+
+        JdbcTemplate freshJdbc = new JdbcTemplate(new DriverManagerDataSource(freshUrl, "root", ""));
+        assertEquals(columns(freshJdbc), columns(upgradedJdbc));
+        assertEquals(indexes(freshJdbc), indexes(upgradedJdbc));
+        assertEquals(30, upgradedJdbc.queryForObject("SELECT stock FROM drug WHERE drug_name = '阿莫西林'", Integer.class));
+    }
+
+    /**
+     * data.sql 中建库、切换库之后的建表语句
+     */
+    private static String dataSqlTables() throws Exception {
+        String dataSql = Files.readString(Path.of("data.sql"), StandardCharsets.UTF_8);
+        int use = dataSql.indexOf("USE `pcms`;");
+        assertTrue(use > 0);
+        return dataSql.substring(dataSql.indexOf("-- ====", use));
+    }
+
+    private static String columns(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList(
+                "SELECT CONCAT_WS(' | ', table_name, ordinal_position, column_name, column_type, is_nullable, "
+                        + "IFNULL(column_default, 'NULL'), extra, column_comment) FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE() AND table_name <> 'flyway_schema_history' "
+                        + "ORDER BY table_name, ordinal_position", String.class)
+                .stream().collect(Collectors.joining("\n"));
+    }
+
+    private static String indexes(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList(
+                "SELECT CONCAT_WS(' | ', table_name, index_name, non_unique, seq_in_index, column_name) "
+                        + "FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name <> 'flyway_schema_history' "
+                        + "ORDER BY table_name, index_name, seq_in_index", String.class)
+                .stream().collect(Collectors.joining("\n"));
+    }
+}
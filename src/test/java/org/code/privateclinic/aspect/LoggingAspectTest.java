@@ -0,0 +1,147 @@
+package org.code.privateclinic.aspect;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.code.privateclinic.annotation.Loggable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.code.privateclinic.config.LoggableProperties;
+import org.code.privateclinic.monitor.CacheOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日志切面单元测试
+ */
+class LoggingAspectTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private LoggableProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        properties = new LoggableProperties();
+        properties.setSlowThreshold(Duration.ofMillis(50));
+        LoggableProperties.MethodSettings settings = new LoggableProperties.MethodSettings();
+        settings.setSampleRate(1.0);
+        properties.getMethods().put("SampleService.sampled", settings);
+
+        LoggingAspect aspect = new LoggingAspect();
+        ReflectionTestUtils.setField(aspect, "loggableProperties", properties);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+        SampleService target = new SampleService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        service = factory.getProxy();
+        ReflectionTestUtils.setField(target, "self", service);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    /**
+     * 单元测试: 未被采样的快速调用不记录，慢调用、按方法开启采样的调用和异常都会记录
+     */
+    @Test
+    void testOnlyOutliersAndSampledCallsAreLogged() throws Exception {
+        assertEquals(List.of("a"), service.fast());
+        assertTrue(appender.list.isEmpty());
+
+        service.slow();
+        service.sampled();
+        assertThrows(IllegalStateException.class, () -> service.failing());
+
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(3, messages.size());
+        assertTrue(messages.get(0).startsWith("执行较慢: SampleService.慢查询"));
+        assertTrue(messages.get(1).startsWith("执行成功: SampleService.sampled，返回 null"));
+        assertTrue(messages.get(2).startsWith("执行异常: SampleService.failing"));
+    }
+
+    /**
+     * 单元测试: 耗时按操作、结果、缓存命中情况记录；内层操作未命中缓存时外层也记为未命中
+     */
+    @Test
+    void testOperationTimersTaggedWithCacheOutcome() {
+        service.cached();
+        service.outer();
+        assertThrows(IllegalStateException.class, () -> service.failing());
+
+        assertEquals(1, timerCount("SampleService.cached", "success", "hit"));
+        assertEquals(1, timerCount("SampleService.outer", "success", "miss"));
+        assertEquals(1, timerCount("SampleService.uncached", "success", "miss"));
+        assertEquals(1, timerCount("SampleService.failing", "error", "none"));
+    }
+
+    private long timerCount(String operation, String outcome, String cache) {
+        return meterRegistry.get("clinic.operation")
+                .tag("operation", operation).tag("outcome", outcome).tag("cache", cache)
+                .timer().count();
+    }
+
+    public static class SampleService {
+
+        private SampleService self;
+
+        @Loggable("快速查询")
+        public List<String> fast() {
+            return List.of("a");
+        }
+
+        @Loggable("慢查询")
+        public String slow() throws InterruptedException {
+            Thread.sleep(60);
+            return "done";
+        }
+
+        @Loggable
+        public String sampled() {
+            return null;
+        }
+
+        @Loggable
+        public String cached() {
+            CacheOutcome.hit();
+            return "hit";
+        }
+
+        @Loggable
+        public String uncached() {
+            CacheOutcome.miss();
+            return "miss";
+        }
+
+        @Loggable
+        public String outer() {
+            CacheOutcome.hit();
+            return self.uncached();
+        }
+
+        @Loggable
+        public String failing() {
+            throw new IllegalStateException("失败");
+        }
+    }
+}
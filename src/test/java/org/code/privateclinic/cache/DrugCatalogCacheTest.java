@@ -0,0 +1,121 @@
+package org.code.privateclinic.cache;
+
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.cache.codec.DrugCodec;
+import org.code.privateclinic.cache.codec.ValueCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis 药品目录单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class DrugCatalogCacheTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Mock
+    private HashOperations<String, String, byte[]> hashOperations;
+
+    @Mock
+    private RedisCacheAside cacheAside;
+
+    @Spy
+    private ValueCodec<Drug> drugCodec = new DrugCodec(512);
+
+    @InjectMocks
+    private DrugCatalogCache drugCatalogCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(drugCatalogCache, "catalogTtl", Duration.ofHours(24));
+        lenient().when(binaryRedisTemplate.<String, byte[]>opsForHash()).thenReturn(hashOperations);
+    }
+
+    /**
+     * 单元测试: 目录完整时一次 HMGET 返回命中的药品，缺失的ID视为不存在，不查询数据库
+     */
+    @Test
+    void testMultiGetFromCompleteCatalog() {
+        byte[] cached = encode(drug(1L));
+        when(hashOperations.multiGet(eq(DrugCatalogCache.CATALOG_KEY), anyCollection()))
+                .thenReturn(Arrays.asList(cached, null, new byte[]{'1'}));
+
+        Map<Long, Drug> drugs = drugCatalogCache.multiGet(List.of(1L, 2L), ids -> {
+            throw new AssertionError("目录完整时不应查询数据库");
+        });
+
+        assertEquals(List.of(1L), List.copyOf(drugs.keySet()));
+        verify(hashOperations, times(1)).multiGet(eq(DrugCatalogCache.CATALOG_KEY), anyCollection());
+    }
+
+    /**
+     * 单元测试: 目录不完整时只查询缺失的药品，并按传入顺序返回
+     */
+    @Test
+    void testMultiGetLoadsOnlyMissingEntries() {
+        byte[] cached = encode(drug(2L));
+        when(hashOperations.multiGet(eq(DrugCatalogCache.CATALOG_KEY), anyCollection()))
+                .thenReturn(Arrays.asList(null, cached, null));
+        AtomicInteger loads = new AtomicInteger();
+
+        Map<Long, Drug> drugs = drugCatalogCache.multiGet(List.of(1L, 2L), ids -> {
+            loads.incrementAndGet();
+            assertEquals(List.of(1L), List.copyOf(ids));
+            return List.of(drug(1L));
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of(1L, 2L), List.copyOf(drugs.keySet()));
+        verify(binaryRedisTemplate).execute(any(RedisScript.class), eq(List.of(DrugCatalogCache.CATALOG_KEY)), any(Object[].class));
+    }
+
+    /**
+     * 单元测试: 写回只更新变化的药品字段，不删除整个目录
+     */
+    @Test
+    void testPutWritesSingleField() {
+        Drug drug = drug(3L);
+        byte[] expected = encode(drug);
+
+        drugCatalogCache.put(drug);
+
+        verify(binaryRedisTemplate).execute(any(RedisScript.class), eq(List.of(DrugCatalogCache.CATALOG_KEY)),
+                any(byte[].class), aryEq("3".getBytes()), aryEq(expected));
+        verify(cacheAside, never()).evict(any(String[].class));
+    }
+
+    private Drug drug(Long drugId) {
+        Drug drug = new Drug();
+        drug.setDrugId(drugId);
+        drug.setDrugName("药品" + drugId);
+        drug.setStatus(1);
+        drug.setStock(10);
+        return drug;
+    }
+
+    private byte[] encode(Drug drug) {
+        return drugCodec.encode(drug);
+    }
+}
@@ -0,0 +1,144 @@
+package org.code.privateclinic.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis 旁路缓存单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisCacheAsideTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private RedisCacheAside cacheAside;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheAside, "negativeTtl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(cacheAside, "ttlJitter", 0.1);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    /**
+     * 单元测试: 命中时只执行一次 GET，不调用加载函数
+     */
+    @Test
+    void testHitUsesSingleGet() {
+        when(valueOperations.get("drug:1"))
+                .thenReturn("{\"drugId\":1,\"drugName\":\"阿莫西林\"}".getBytes(StandardCharsets.UTF_8));
+
+        Drug drug = cacheAside.get("drug:1", Drug.class, Duration.ofHours(24), () -> fail("不应查询数据库"));
+
+        assertEquals("阿莫西林", drug.getDrugName());
+        verify(binaryRedisTemplate, never()).hasKey(anyString());
+        verify(valueOperations, times(1)).get("drug:1");
+    }
+
+    /**
+     * 单元测试: 查不到的结果以 null 缓存较短时间，再次查询直接返回 null
+     */
+    @Test
+    void testNegativeCaching() {
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(cacheAside.get("drug:404", Drug.class, Duration.ofHours(24), () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        verify(valueOperations).set(eq("drug:404"), aryEq(new byte[]{0}), longThat(ttl -> ttl >= 60_000 && ttl < 66_000),
+                eq(TimeUnit.MILLISECONDS));
+
+        when(valueOperations.get("drug:404")).thenReturn(new byte[]{0});
+        assertNull(cacheAside.get("drug:404", Drug.class, Duration.ofHours(24), () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * 单元测试: 同一个键的并发未命中只调用一次加载函数
+     */
+    @Test
+    void testConcurrentMissesCollapseIntoOneLoad() throws Exception {
+        // 模拟 Redis：写入后可以读到，晚到的线程直接命中缓存
+        Map<String, byte[]> redis = new ConcurrentHashMap<>();
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(byte[].class), anyLong(), any(TimeUnit.class));
+
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Drug>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cacheAside.get("drug:1", Drug.class, Duration.ofHours(24), () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return new Drug(1L, "阿莫西林", "0.25g*24粒", 15.5, 100, 1, null, null);
+            })));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cacheAside.get("drug:1", Drug.class, Duration.ofHours(24), () -> {
+                    loads.incrementAndGet();
+                    return null;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Drug> result : results) {
+                assertEquals("阿莫西林", result.get(5, TimeUnit.SECONDS).getDrugName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
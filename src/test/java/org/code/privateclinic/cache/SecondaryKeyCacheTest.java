@@ -0,0 +1,134 @@
+package org.code.privateclinic.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 唯一键缓存单元测试，Redis 由内存中的 Map 模拟
+ */
+@ExtendWith(MockitoExtension.class)
+class SecondaryKeyCacheTest {
+
+    @Mock
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private RedisCacheAside cacheAside;
+
+    private final Map<String, byte[]> redis = new HashMap<>();
+
+    private final Map<Long, User> users = new HashMap<>();
+
+    private final AtomicInteger nameQueries = new AtomicInteger();
+
+    private LocalCache<String, Long> localCache;
+
+    private SecondaryKeyCache<User> cache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheAside, "negativeTtl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(cacheAside, "ttlJitter", 0.1);
+        lenient().when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        lenient().doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(byte[].class), anyLong(), any(TimeUnit.class));
+        lenient().when(binaryRedisTemplate.delete(anyCollection())).thenAnswer(inv -> {
+            inv.<Collection<String>>getArgument(0).forEach(redis::remove);
+            return 1L;
+        });
+
+        localCache = new LocalCache<>("test-user-name", 100, Duration.ofMinutes(1));
+        cache = new SecondaryKeyCache<>("userName:", localCache, cacheAside, Duration.ofMinutes(30),
+                User::getUserId, (name, user) -> name.equalsIgnoreCase(user.getUserName()));
+        users.put(1L, user(1L, "doctor1"));
+    }
+
+    /**
+     * 单元测试: 第一次按用户名查询数据库，之后只按ID取实体，不再按用户名查数据库
+     */
+    @Test
+    void testHotLookupSkipsDatabase() {
+        assertEquals(1L, get("doctor1").getUserId());
+        assertEquals(1L, get("doctor1").getUserId());
+        localCache.invalidateAll();
+        assertEquals(1L, get("doctor1").getUserId());
+
+        assertEquals(1, nameQueries.get());
+        assertArrayEquals("1".getBytes(), redis.get("userName:doctor1"));
+    }
+
+    /**
+     * 单元测试: 查不到的用户名只在 Redis 中标记，不进一级缓存；新增该用户名后清除标记即可查到
+     */
+    @Test
+    void testNegativeLookupIsBoundedAndEvicted() {
+        assertNull(get("doctor2"));
+        assertNull(get("doctor2"));
+        assertEquals(1, nameQueries.get());
+        assertEquals(0, localCache.size());
+
+        users.put(2L, user(2L, "doctor2"));
+        cache.evict("doctor2");
+
+        assertEquals(2L, get("doctor2").getUserId());
+        assertEquals(2, nameQueries.get());
+    }
+
+    /**
+     * 单元测试: 映射指向的用户已改名时不返回该用户，清除旧映射后按用户名重新查询
+     */
+    @Test
+    void testStaleMappingIsDetected() {
+        assertEquals(1L, get("doctor1").getUserId());
+        users.put(1L, user(1L, "doctor9"));
+
+        assertNull(get("doctor1"));
+        assertNull(localCache.get("doctor1"));
+        assertEquals(1L, get("doctor9").getUserId());
+    }
+
+    private User get(String userName) {
+        Function<String, User> loader = name -> {
+            nameQueries.incrementAndGet();
+            return users.values().stream().filter(u -> u.getUserName().equals(name)).findFirst().orElse(null);
+        };
+        return cache.get(userName, loader, users::get);
+    }
+
+    private static User user(Long userId, String userName) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUserName(userName);
+        user.setStatus(1);
+        return user;
+    }
+}
@@ -0,0 +1,66 @@
+package org.code.privateclinic.cache.codec;
+
+import org.code.privateclinic.bean.Drug;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 药品二进制编解码器单元测试
+ */
+class DrugCodecTest {
+
+    private final DrugCodec codec = new DrugCodec(512);
+
+    /**
+     * 单元测试: 编码后解码得到相同的药品，可为空的字段保持为空
+     */
+    @Test
+    void testRoundTrip() {
+        Drug drug = new Drug(1L, "阿莫西林", "0.25g*24粒", 15.5, 100, 1,
+                LocalDateTime.of(2025, 3, 1, 8, 30, 15), null);
+
+        assertEquals(drug, codec.decode(codec.encode(drug)));
+        assertEquals(new Drug(), codec.decode(codec.encode(new Drug())));
+    }
+
+    /**
+     * 单元测试: 列表超过压缩阈值时压缩，解码结果不变
+     */
+    @Test
+    void testListCompression() {
+        List<Drug> drugs = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            drugs.add(new Drug(i, "药品" + i, "0.25g*24粒", 15.5, 100, 1,
+                    LocalDateTime.of(2025, 3, 1, 8, 30), LocalDateTime.of(2025, 3, 2, 9, 0)));
+        }
+        byte[] compressed = codec.listCodec().encode(drugs);
+        byte[] uncompressed = new DrugCodec(0).listCodec().encode(drugs);
+
+        assertTrue(compressed.length < uncompressed.length);
+        assertEquals(drugs, codec.listCodec().decode(compressed));
+        assertEquals(drugs, codec.listCodec().decode(uncompressed));
+    }
+
+    /**
+     * 单元测试: 旧的 JSON 数据、其它格式版本、单个对象与列表互读、截断的数据都解码为 null
+     */
+    @Test
+    void testForeignDataIsIgnored() {
+        byte[] bytes = codec.encode(new Drug(1L, "阿莫西林", "0.25g*24粒", 15.5, 100, 1, null, null));
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertNull(codec.decode("{\"drugId\":1}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(codec.decode(otherVersion));
+        assertNull(codec.listCodec().decode(bytes));
+        assertNull(codec.decode(truncated));
+    }
+}
@@ -1,10 +1,10 @@
 package org.code.privateclinic.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.code.privateclinic.bean.MedicalCase;
-import org.code.privateclinic.bean.User;
 import org.code.privateclinic.service.MedicalCaseService;
-import org.code.privateclinic.service.UserService;
 import org.code.privateclinic.util.JwtTokenUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,9 +36,6 @@ class MedicalCaseControllerTest {
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
 
-    @MockBean
-    private UserService userService;
-
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -57,12 +54,14 @@ class MedicalCaseControllerTest {
         testMedicalCase.setDiagnosis("感冒");
         testMedicalCase.setCaseStatus("NEW");
 
-        // 模拟认证：token -> 用户名 -> 医生用户
-        when(jwtTokenUtil.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USERNAME);
-        User doctor = new User();
-        doctor.setUserName(TEST_USERNAME);
-        doctor.setRole("DOCTOR");
-        when(userService.getUserByUserName(TEST_USERNAME)).thenReturn(doctor);
+        // 模拟认证：token -> 医生声明
+        Claims claims = Jwts.claims()
+                .subject("1")
+                .add("userId", "1")
+                .add("userName", TEST_USERNAME)
+                .add("userRole", "DOCTOR")
+                .build();
+        when(jwtTokenUtil.validateToken(TEST_TOKEN)).thenReturn(claims);
     }
 
     /**
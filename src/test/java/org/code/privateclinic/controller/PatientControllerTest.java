@@ -1,10 +1,10 @@
 package org.code.privateclinic.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.code.privateclinic.bean.Patient;
-import org.code.privateclinic.bean.User;
 import org.code.privateclinic.service.PatientService;
-import org.code.privateclinic.service.UserService;
 import org.code.privateclinic.util.JwtTokenUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,9 +41,6 @@ class PatientControllerTest {
     @MockBean
     private JwtTokenUtil jwtTokenUtil;
 
-    @MockBean
-    private UserService userService;
-
     private static final String TEST_TOKEN = "test-token";
     private static final String TEST_USERNAME = "doctor1";
 
@@ -57,12 +54,14 @@ class PatientControllerTest {
         testPatient.setPhone("13800138000");
         testPatient.setDoctorId(1L);
 
-        // 模拟认证：token -> 用户名 -> 医生用户
-        when(jwtTokenUtil.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USERNAME);
-        User doctor = new User();
-        doctor.setUserName(TEST_USERNAME);
-        doctor.setRole("DOCTOR");
-        when(userService.getUserByUserName(TEST_USERNAME)).thenReturn(doctor);
+        // 模拟认证：token -> 医生声明
+        Claims claims = Jwts.claims()
+                .subject("1")
+                .add("userId", "1")
+                .add("userName", TEST_USERNAME)
+                .add("userRole", "DOCTOR")
+                .build();
+        when(jwtTokenUtil.validateToken(TEST_TOKEN)).thenReturn(claims);
     }
 
 
@@ -81,5 +80,25 @@ class PatientControllerTest {
                 .andExpect(jsonPath("$.data").isArray())
                 .andExpect(jsonPath("$.data[0].patientName").value("张三"));
     }
-}
 
+    /**
+     * 功能测试: 非医生角色访问患者列表被拦截，且不会调用业务层
+     */
+    @Test
+    void testGetPatientListRejectsAdmin() throws Exception {
+        Claims adminClaims = Jwts.claims()
+                .subject("2")
+                .add("userId", "2")
+                .add("userName", "admin")
+                .add("userRole", "ADMIN")
+                .build();
+        when(jwtTokenUtil.validateToken("admin-token")).thenReturn(adminClaims);
+
+        mockMvc.perform(get("/patient/list")
+                        .header("Authorization", "Bearer admin-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value(500))
+                .andExpect(jsonPath("$.message").value("只有医生有权查看患者列表"));
+        verify(patientService, never()).getPatientList();
+    }
+}
@@ -0,0 +1,221 @@
+package org.code.privateclinic.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.code.privateclinic.bean.LoginUser;
+import org.code.privateclinic.common.UserRole;
+import org.code.privateclinic.config.DataSourceConfig;
+import org.code.privateclinic.config.ReplicaProperties;
+import org.code.privateclinic.interceptor.AuthInterceptor;
+import org.code.privateclinic.support.EmbeddedMariaDb;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 读写分离测试：两个内嵌 MariaDB 实例分别作为主库与副本，按 @@port 判断语句在哪个实例上执行
+ * 测试环境没有真正的复制，由测试把主库心跳复制到副本（或让副本心跳落后）来模拟复制延迟
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static String primaryUrl;
+
+    private static String replicaUrl;
+
+    private static HikariDataSource primary;
+
+    private static JdbcTemplate primaryJdbc;
+
+    private static JdbcTemplate replicaJdbc;
+
+    private static int primaryPort;
+
+    private static int replicaPort;
+
+    private ReplicaProperties properties;
+
+    private RecentWriters recentWriters;
+
+    private ReplicaRoutingDataSource router;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate transaction;
+
+    @BeforeAll
+    static void startDatabases() {
+        primaryUrl = EmbeddedMariaDb.jdbcUrl("pcms_routing");
+        replicaUrl = EmbeddedMariaDb.jdbcUrl("replica", "pcms_routing");
+        for (String url : List.of(primaryUrl, replicaUrl)) {
+            EmbeddedMariaDb.flyway(url).load().migrate();
+        }
+        primary = new HikariDataSource();
+        primary.setJdbcUrl(primaryUrl);
+        primary.setUsername("root");
+        primary.setPassword("");
+        primary.setMaximumPoolSize(4);
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "root", ""));
+        primaryPort = primaryJdbc.queryForObject("SELECT @@port", Integer.class);
+        replicaPort = replicaJdbc.queryForObject("SELECT @@port", Integer.class);
+        assertNotEquals(primaryPort, replicaPort);
+    }
+
+    @AfterAll
+    static void closePrimary() {
+        primary.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReplicaProperties();
+        properties.setNodes(new ArrayList<>(List.of(node(replicaUrl))));
+        recentWriters = new RecentWriters();
+        ReflectionTestUtils.setField(recentWriters, "replicaProperties", properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        if (router != null) {
+            router.destroy();
+        }
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        route();
+        assertEquals(primaryPort, readOnlyPort(), "首次健康检查前副本不可用");
+
+        replicate();
+        router.checkReplicas();
+
+        assertEquals(replicaPort, readOnlyPort());
+        assertEquals(primaryPort, (int) transaction.execute(status -> port()));
+        assertEquals(primaryPort, port(), "不在事务中的语句走主库");
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        route();
+        replicate();
+        router.checkReplicas();
+        assertEquals(replicaPort, readOnlyPort());
+
+        // 副本心跳比主库落后 10 秒，超过 max-lag
+        Timestamp beat = primaryJdbc.queryForObject("SELECT beat_time FROM replica_heartbeat WHERE heartbeat_id = 1",
+                Timestamp.class);
+        replicaJdbc.update("UPDATE replica_heartbeat SET beat_time = ? WHERE heartbeat_id = 1",
+                new Timestamp(beat.getTime() - 10_000));
+        router.checkReplicas();
+        assertEquals(primaryPort, readOnlyPort());
+
+        replicate();
+        router.checkReplicas();
+        assertEquals(replicaPort, readOnlyPort());
+    }
+
+    @Test
+    void testRecentWriterReadsFromPrimary() throws InterruptedException {
+        properties.setStickyWindow(Duration.ofMillis(300));
+        route();
+        replicate();
+        router.checkReplicas();
+
+        loginAs(1L);
+        transaction.executeWithoutResult(status -> {
+            primaryJdbc.update("UPDATE replica_heartbeat SET beat_time = beat_time WHERE heartbeat_id = 1");
+            recentWriters.markWrite();
+        });
+        assertEquals(primaryPort, readOnlyPort(), "写入后的窗口内读自己的写入");
+
+        loginAs(2L);
+        assertEquals(replicaPort, readOnlyPort(), "其它用户不受影响");
+
+        loginAs(1L);
+        Thread.sleep(400);
+        assertEquals(replicaPort, readOnlyPort());
+    }
+
+    @Test
+    void testUnreachableReplicaIsSkipped() throws IOException {
+        properties.setNodes(List.of(node("jdbc:mysql://localhost:" + freePort() + "/pcms_routing"), node(replicaUrl)));
+        properties.setConnectionTimeout(Duration.ofMillis(500));
+        route();
+        replicate();
+        router.checkReplicas();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(replicaPort, readOnlyPort());
+        }
+    }
+
+    private void route() {
+        router = ReplicaRoutingDataSource.create(primary, properties, recentWriters, new SimpleMeterRegistry());
+        DataSource dataSource = new DataSourceConfig().dataSource(primary, router);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private int readOnlyPort() {
+        return readOnlyTransaction.execute(status -> port());
+    }
+
+    private int port() {
+        return jdbcTemplate.queryForObject("SELECT @@port", Integer.class);
+    }
+
+    /**
+     * 模拟复制：副本心跳与主库一致
+     */
+    private static void replicate() {
+        Timestamp beat = primaryJdbc.queryForObject("SELECT beat_time FROM replica_heartbeat WHERE heartbeat_id = 1",
+                Timestamp.class);
+        replicaJdbc.update("UPDATE replica_heartbeat SET beat_time = ? WHERE heartbeat_id = 1", beat);
+    }
+
+    private static void loginAs(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(AuthInterceptor.LOGIN_USER_ATTRIBUTE, new LoginUser(userId, "user" + userId, UserRole.DOCTOR));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static ReplicaProperties.Node node(String url) {
+        ReplicaProperties.Node node = new ReplicaProperties.Node();
+        node.setUrl(url);
+        node.setUsername("root");
+        node.setPassword("");
+        return node;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.code.privateclinic.export;
+
+import org.code.privateclinic.bean.Prescription;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV 导出单元测试
+ */
+class CsvRowWriterTest {
+
+    /**
+     * 单元测试: 表头、转义、公式前缀、数字和时间格式
+     */
+    @Test
+    void testWriteRows() throws Exception {
+        List<ExportColumn<Prescription>> columns = List.of(
+                ExportColumn.of("prescriptionId", Prescription::getPrescriptionId),
+                ExportColumn.of("patientName", Prescription::getPatientName),
+                ExportColumn.of("doctorName", Prescription::getDoctorName),
+                ExportColumn.of("totalAmount", Prescription::getTotalAmount),
+                ExportColumn.of("createTime", Prescription::getCreateTime));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        CsvRowWriter<Prescription> writer = new CsvRowWriter<>(columns, out);
+        writer.write(new Prescription(1L, 1L, "张三,\"小张\"", 2L, "=HYPERLINK(\"x\")",
+                new BigDecimal("1E+2"), LocalDateTime.of(2025, 3, 1, 8, 30, 15), null));
+        writer.write(new Prescription(2L, 1L, null, 2L, "李医生", null, null, null));
+        writer.finish();
+
+        assertEquals("\uFEFFprescriptionId,patientName,doctorName,totalAmount,createTime\r\n"
+                        + "1,\"张三,\"\"小张\"\"\",\"'=HYPERLINK(\"\"x\"\")\",100,2025-03-01 08:30:15\r\n"
+                        + "2,,李医生,,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package org.code.privateclinic.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.code.privateclinic.bean.Drug;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NDJSON 导出单元测试
+ */
+class NdjsonRowWriterTest {
+
+    /**
+     * 单元测试: 每行一个 JSON 对象，最后一行也以换行结尾；没有数据时输出为空
+     */
+    @Test
+    void testEveryRowEndsWithNewline() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        NdjsonRowWriter<Drug> writer = new NdjsonRowWriter<>(objectMapper, Drug.class, out);
+        writer.write(drug(1L, "阿莫西林"));
+        writer.write(drug(2L, "布洛芬"));
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("阿莫西林", objectMapper.readValue(lines[0], Drug.class).getDrugName());
+        assertEquals(2L, objectMapper.readValue(lines[1], Drug.class).getDrugId());
+        assertEquals("", lines[2]);
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        new NdjsonRowWriter<>(objectMapper, Drug.class, empty).finish();
+        assertEquals(0, empty.size());
+    }
+
+    private static Drug drug(Long drugId, String name) {
+        Drug drug = new Drug();
+        drug.setDrugId(drugId);
+        drug.setDrugName(name);
+        return drug;
+    }
+}
@@ -0,0 +1,307 @@
+package org.code.privateclinic.mapper;
+
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.support.EmbeddedMariaDb;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mapper 查询执行计划测试：在内嵌 MariaDB（MySQL 兼容）上执行 db/migration 迁移并写入接近线上规模的数据，
+ * 对每条映射的 SELECT 执行 EXPLAIN，出现全表扫描、不带 LIMIT 的全索引扫描或文件排序时失败
+ * 1. 参数按名称取默认值（见 {@link #defaultValue}），新增的参数名需要在其中补充
+ * 2. 动态 SQL 先带上全部可选条件检查一次；带 LIMIT 的列表再以可选条件全为空检查一次（不过滤的第一页）
+ * 3. 确实需要读整张表或排序的语句登记在 ALLOWED 中并写明原因
+ */
+class MapperQueryPlanTest {
+
+    private static final int DOCTORS = 30;
+    private static final int DRUGS = 2000;
+    private static final int PATIENTS = 10000;
+    private static final int CASES_PER_PATIENT = 3;
+    private static final int ITEMS_PER_PRESCRIPTION = 3;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private static final Pattern LIMIT = Pattern.compile("\\bLIMIT\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 可选过滤条件的参数名，为空时 Mapper 中的 if 条件不生效
+     */
+    private static final Set<String> OPTIONAL = Set.of(
+            "patientId", "doctorId", "caseStatus", "caseId", "prescriptionId", "cursor", "startTime", "endTime");
+
+    /**
+     * 允许全表扫描或文件排序的语句及原因
+     */
+    private static final Map<String, String> ALLOWED = Map.ofEntries(
+            Map.entry("DrugMapper.getDrugCatalog", "药品目录整体加载进 Redis，本来就读整张表"),
+            Map.entry("DrugMapper.getDrugList", "返回全部启用药品，启用药品占绝大多数，结果有一级缓存"),
+            Map.entry("UserMapper.selectUser", "返回全部启用用户，用户表只有几十行，结果有一级缓存"),
+            Map.entry("UserMapper.selectUserByRole", "用户表只有几十行"),
+            Map.entry("DashboardMapper.countPatients", "看板计数只在启动与定时校准时执行"),
+            Map.entry("DashboardMapper.countMedicalCasesByStatus", "看板计数只在启动与定时校准时执行，走状态索引"),
+            Map.entry("MedicalCaseMapper.getMedicalCaseIds", "全文索引清理需要全部病例ID，读主键索引"),
+            Map.entry("PrescriptionMapper.getPrescriptionByPatientId", "排序列在处方表，先按患者取病例再取处方，排序的只是该患者的处方"),
+            Map.entry("PrescriptionItemMapper.getPrescriptionItemsByPatientId", "排序列在明细表，排序的只是该患者的处方明细"),
+            Map.entry("PrescriptionItemMapper.getPrescriptionItemsByPrescriptionIds", "多个处方ID的范围合并后排序，行数为一页处方的明细"),
+            Map.entry("PrescriptionItemMapper.exportPrescriptionItems", "时间与医生条件在处方表，排序列在明细表，排序的是导出范围内的明细"));
+
+    private static DriverManagerDataSource dataSource;
+
+    private static Configuration configuration;
+
+    @BeforeAll
+    static void prepareDatabase() throws Exception {
+        String url = EmbeddedMariaDb.jdbcUrl("pcms_plan");
+        dataSource = new DriverManagerDataSource(url, "root", "");
+
+        EmbeddedMariaDb.flyway(url).load().migrate();
+        try (Connection connection = dataSource.getConnection()) {
+            seed(connection);
+        }
+
+        SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setMapperLocations(new PathMatchingResourcePatternResolver().getResources("classpath:mapper/*.xml"));
+        factory.setTypeAliasesPackage("org.code.privateclinic.bean");
+        configuration = factory.getObject().getConfiguration();
+    }
+
+    /**
+     * 执行计划测试: 全部 SELECT 不出现全表扫描与文件排序
+     */
+    @Test
+    void testSelectsUseIndexes() throws Exception {
+        Map<String, MappedStatement> selects = new TreeMap<>();
+        for (Object value : configuration.getMappedStatements()) {
+            if (value instanceof MappedStatement statement
+                    && statement.getSqlCommandType() == SqlCommandType.SELECT
+                    && !statement.getId().contains("!")) {
+                String id = statement.getId();
+                selects.put(id.substring(id.lastIndexOf('.', id.lastIndexOf('.') - 1) + 1), statement);
+            }
+        }
+        assertFalse(selects.isEmpty());
+        for (String id : ALLOWED.keySet()) {
+            assertTrue(selects.containsKey(id), "ALLOWED 中的语句不存在: " + id);
+        }
+
+        List<String> violations = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (Map.Entry<String, MappedStatement> entry : selects.entrySet()) {
+                if (ALLOWED.containsKey(entry.getKey())) {
+                    continue;
+                }
+                MappedStatement statement = entry.getValue();
+                Parameters all = new Parameters();
+                String sql = statement.getBoundSql(all).getSql();
+                check(connection, entry.getKey() + "（全部条件）", statement, all, violations);
+                if (LIMIT.matcher(sql).find()) {
+                    Parameters none = new Parameters();
+                    OPTIONAL.forEach(name -> none.put(name, null));
+                    check(connection, entry.getKey() + "（无可选条件）", statement, none, violations);
+                }
+            }
+        }
+        assertTrue(violations.isEmpty(), "以下查询需要补充索引或调整语句:\n" + String.join("\n", violations));
+    }
+
+    private static void check(Connection connection, String name, MappedStatement statement, Parameters parameters,
+                              List<String> violations) throws Exception {
+        BoundSql boundSql = statement.getBoundSql(parameters);
+        boolean limited = LIMIT.matcher(boundSql.getSql()).find();
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            ParameterHandler handler = new DefaultParameterHandler(statement, parameters, boundSql);
+            handler.setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    String extra = rs.getString("Extra");
+                    String plan = String.format("%s: 表 %s，type=%s，key=%s，rows=%s，Extra=%s",
+                            name, table, type, rs.getString("key"), rs.getString("rows"), extra);
+                    if ("ALL".equals(type)) {
+                        violations.add(plan + "（全表扫描）");
+                    } else if ("index".equals(type) && !limited) {
+                        violations.add(plan + "（全索引扫描）");
+                    } else if (extra != null && extra.contains("Using filesort")) {
+                        violations.add(plan + "（文件排序）");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 按名称取参数默认值；显式放入的值（包括 null）优先
+     */
+    private static final class Parameters extends HashMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            if (containsKey(key)) {
+                return super.get(key);
+            }
+            Object value = defaultValue((String) key);
+            super.put((String) key, value);
+            return value;
+        }
+    }
+
+    private static Object defaultValue(String name) {
+        return switch (name) {
+            case "limit" -> 20;
+            case "afterId" -> 0L;
+            case "id", "userId", "doctorId" -> 2L;
+            case "patientId", "caseId", "prescriptionId", "itemId", "drugId" -> 100L;
+            case "caseIds", "prescriptionIds", "drugIds" -> List.of(100L, 200L, 300L);
+            case "caseStatus" -> "TREATING";
+            case "role" -> "DOCTOR";
+            case "userName" -> "doctor1";
+            case "drugName" -> "drug1";
+            case "cursor" -> PageCursor.of(NOW.minusDays(30), 5000L);
+            case "startTime" -> NOW.minusDays(7);
+            case "endTime" -> NOW.minusDays(6);
+            case "since" -> NOW.minusHours(1);
+            default -> throw new AssertionError("未配置参数默认值: " + name);
+        };
+    }
+
+    /**
+     * 写入测试数据：创建时间分布在两年内，病历以已完成为主，每个病历一张处方
+     * 主键显式从 1 开始（基线建表语句带有 data.sql 的 AUTO_INCREMENT 初始值）
+     */
+    private static void seed(Connection connection) throws Exception {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO user (user_id, password, user_name, role, phone, status, create_time) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= DOCTORS + 1; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "doctor123");
+                ps.setString(3, i == 1 ? "admin" : "doctor" + (i - 1));
+                ps.setString(4, i == 1 ? "ADMIN" : "DOCTOR");
+                ps.setString(5, "1380000" + String.format("%04d", i));
+                ps.setInt(6, 1);
+                ps.setTimestamp(7, randomTime(random));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO drug (drug_id, drug_name, specification, price, stock, status, create_time) VALUES (?, ?, ?, 10.00, 1000, ?, ?)")) {
+            for (int i = 1; i <= DRUGS; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "drug" + i);
+                ps.setString(3, "spec" + i);
+                ps.setInt(4, i % 20 == 0 ? 0 : 1);
+                ps.setTimestamp(5, randomTime(random));
+                batch(ps, i);
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO patient (patient_id, patient_name, gender, age, phone, doctor_id, create_time) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= PATIENTS; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "patient" + i);
+                ps.setString(3, i % 2 == 0 ? "男" : "女");
+                ps.setInt(4, 1 + random.nextInt(90));
+                ps.setString(5, "139" + String.format("%08d", i));
+                ps.setLong(6, 2 + random.nextInt(DOCTORS));
+                ps.setTimestamp(7, randomTime(random));
+                batch(ps, i);
+            }
+            ps.executeBatch();
+        }
+        int cases = PATIENTS * CASES_PER_PATIENT;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO medical_case (case_id, patient_id, doctor_id, symptom, diagnosis, case_status, create_time, update_time) "
+                        + "VALUES (?, ?, ?, '头痛', '感冒', ?, ?, ?)")) {
+            for (int i = 1; i <= cases; i++) {
+                Timestamp time = randomTime(random);
+                ps.setLong(1, i);
+                ps.setLong(2, 1 + random.nextInt(PATIENTS));
+                ps.setLong(3, 2 + random.nextInt(DOCTORS));
+                ps.setString(4, random.nextInt(20) == 0 ? "TREATING" : "FINISHED");
+                ps.setTimestamp(5, time);
+                ps.setTimestamp(6, time);
+                batch(ps, i);
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO prescription (prescription_id, case_id, doctor_id, total_amount, create_time) VALUES (?, ?, ?, 30.00, ?)")) {
+            for (int i = 1; i <= cases; i++) {
+                ps.setLong(1, i);
+                ps.setLong(2, i);
+                ps.setLong(3, 2 + random.nextInt(DOCTORS));
+                ps.setTimestamp(4, randomTime(random));
+                batch(ps, i);
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement item = connection.prepareStatement(
+                "INSERT INTO prescription_item (item_id, prescription_id, drug_id, quantity, usage_method, price) VALUES (?, ?, ?, 1, '口服', 10.00)");
+             PreparedStatement movement = connection.prepareStatement(
+                     "INSERT INTO stock_movement (drug_id, item_id, quantity, movement_type, create_time) VALUES (?, ?, -1, 'DISPENSE', ?)")) {
+            int items = cases * ITEMS_PER_PRESCRIPTION;
+            for (int i = 1; i <= items; i++) {
+                long drugId = 1 + random.nextInt(DRUGS);
+                item.setLong(1, i);
+                item.setLong(2, (i - 1) / ITEMS_PER_PRESCRIPTION + 1);
+                item.setLong(3, drugId);
+                batch(item, i);
+                movement.setLong(1, drugId);
+                movement.setLong(2, i);
+                movement.setTimestamp(3, randomTime(random));
+                batch(movement, i);
+            }
+            item.executeBatch();
+            movement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE user, drug, patient, medical_case, prescription, prescription_item, stock_movement");
+        }
+    }
+
+    private static void batch(PreparedStatement ps, int count) throws Exception {
+        ps.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    private static Timestamp randomTime(Random random) {
+        return Timestamp.valueOf(NOW.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+    }
+}
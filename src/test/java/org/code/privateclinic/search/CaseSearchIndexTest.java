@@ -0,0 +1,89 @@
+package org.code.privateclinic.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 病历倒排索引单元测试
+ */
+class CaseSearchIndexTest {
+
+    private CaseSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CaseSearchIndex();
+        index.put(1L, 10L, 1000L, "发热三天，伴咳嗽、咽痛", "急性上呼吸道感染");
+        index.put(2L, 10L, 1000L, "咳嗽一周，夜间加重，咳嗽时胸痛", "急性支气管炎");
+        index.put(3L, 20L, 1000L, "头痛、头晕两天", "偏头痛");
+        index.put(4L, 20L, 1000L, "反复咳嗽，胸部CT提示肺部感染", "社区获得性肺炎");
+    }
+
+    /**
+     * 单元测试: 必须命中全部关键词，词频高的排在前面；可按医生过滤；单个汉字匹配含该字的词；字母不区分全角半角与大小写
+     */
+    @Test
+    void testSearchRanksAndFilters() {
+        CaseSearchIndex.SearchHits cough = index.search("咳嗽", null, 0, 10);
+        assertEquals(3, cough.total());
+        assertEquals(2L, cough.caseIds().get(0));
+
+        assertEquals(List.of(1L), index.search("咳嗽 感染 发热", null, 0, 10).caseIds());
+        assertEquals(List.of(4L), index.search("咳嗽", 20L, 0, 10).caseIds());
+        assertEquals(List.of(3L), index.search("晕", null, 0, 10).caseIds());
+        assertEquals(List.of(4L), index.search("ｃｔ", null, 0, 10).caseIds());
+        assertEquals(0, index.search("糖尿病", null, 0, 10).total());
+
+        CaseSearchIndex.SearchHits secondPage = index.search("咳嗽", null, 2, 2);
+        assertEquals(3, secondPage.total());
+        assertEquals(1, secondPage.caseIds().size());
+    }
+
+    /**
+     * 单元测试: 修改后旧内容不再命中，删除后查不到；整理之后命中的病历不变
+     */
+    @Test
+    void testUpdateDeleteAndCompact() {
+        index.put(3L, 20L, 2000L, "咳嗽伴发热", "流行性感冒");
+        index.remove(2L);
+
+        assertEquals(0, index.search("头晕", null, 0, 10).total());
+        assertEquals(2000L, index.updateTimeOf(3L));
+        assertEquals(Long.MIN_VALUE, index.updateTimeOf(2L));
+        List<Long> before = index.search("咳嗽", null, 0, 10).caseIds().stream().sorted().toList();
+        assertEquals(List.of(1L, 3L, 4L), before);
+
+        assertTrue(index.compactIfNeeded(0.25));
+        assertEquals(before, index.search("咳嗽", null, 0, 10).caseIds().stream().sorted().toList());
+        assertEquals(3, index.size());
+
+        assertEquals(1, index.retain(new long[]{1L, 3L}, 1500L));
+        assertEquals(List.of(1L, 3L), index.search("咳嗽", null, 0, 10).caseIds().stream().sorted().toList());
+    }
+
+    /**
+     * 单元测试: 写出快照后读回，查询结果与同步位置不变
+     */
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        index.remove(1L);
+        index.setWatermark(123456L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+
+        CaseSearchIndex loaded = CaseSearchIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(123456L, loaded.getWatermark());
+        assertEquals(index.size(), loaded.size());
+        assertEquals(index.search("咳嗽", null, 0, 10), loaded.search("咳嗽", null, 0, 10));
+        assertEquals(index.search("痛", 20L, 0, 10), loaded.search("痛", 20L, 0, 10));
+        loaded.put(5L, 10L, 3000L, "咳嗽");
+        assertEquals(3, loaded.search("咳嗽", null, 0, 10).total());
+    }
+}
@@ -0,0 +1,125 @@
+package org.code.privateclinic.search;
+
+import org.code.privateclinic.bean.Drug;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 药品联想索引单元测试
+ */
+class DrugSuggestIndexTest {
+
+    private DrugSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = DrugSuggestIndex.of(List.of(
+                drug(1L, "阿莫西林胶囊", "0.25g*24粒", 1),
+                drug(2L, "阿莫西林", "0.5g*12粒", 1),
+                drug(3L, "阿司匹林肠溶片", "100mg*30片", 1),
+                drug(4L, "布洛芬缓释胶囊", "0.3g*20粒", 1),
+                drug(5L, "阿奇霉素片", "0.25g*6片", 0)));
+    }
+
+    /**
+     * 单元测试: 前缀匹配时名称较短的在前；可按拼音首字母、说明书联想；停用的药品不出现；数量受 limit 限制
+     */
+    @Test
+    void testPrefixSuggest() {
+        assertEquals(List.of(2L, 1L), ids(index.suggest("阿莫", 10)));
+        assertEquals(List.of(2L, 1L, 3L), ids(index.suggest("阿", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("阿", 1)));
+        assertEquals(List.of(4L), ids(index.suggest("BLF", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("100MG", 10)));
+        assertTrue(index.suggest("阿奇", 10).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * 单元测试: 前缀命中不足时按编辑距离容错，错一个字也能联想到
+     */
+    @Test
+    void testTypoTolerance() {
+        assertEquals(List.of(2L, 1L), ids(index.suggest("阿莫西淋", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("布落芬缓释", 10)));
+        assertTrue(index.suggest("头孢", 10).isEmpty());
+    }
+
+    /**
+     * 单元测试: 修改、删除生成新的索引，原索引不受影响；只改价格时沿用原来的树并返回新的药品对象
+     */
+    @Test
+    void testWithAndWithoutAreCopies() {
+        DrugSuggestIndex renamed = index.with(drug(4L, "对乙酰氨基酚片", "0.5g*20片", 1));
+        DrugSuggestIndex removed = renamed.without(2L);
+
+        assertEquals(List.of(4L), ids(renamed.suggest("dyx", 10)));
+        assertTrue(renamed.suggest("布洛芬", 10).isEmpty());
+        assertEquals(List.of(1L), ids(removed.suggest("阿莫", 10)));
+        assertEquals(List.of(2L, 1L), ids(index.suggest("阿莫", 10)));
+        assertSame(removed, removed.without(99L));
+
+        Drug repriced = drug(1L, "阿莫西林胶囊", "0.25g*24粒", 1);
+        repriced.setPrice(30.0);
+        DrugSuggestIndex updated = index.with(repriced);
+        assertSame(repriced, updated.suggest("阿莫西林胶", 10).get(0));
+        assertEquals(12.5, index.suggest("阿莫西林胶", 10).get(0).getPrice());
+
+        assertTrue(index.with(drug(3L, "阿司匹林肠溶片", "100mg*30片", 0)).suggest("阿司", 10).isEmpty());
+    }
+
+    /**
+     * 单元测试: 增量修改后的联想结果与按修改后的目录整体建立的索引一致，包括被挤出前 MAX_SUGGESTIONS 个的药品重新出现
+     */
+    @Test
+    void testIncrementalUpdatesMatchRebuild() {
+        Map<Long, Drug> catalog = new LinkedHashMap<>();
+        for (long id = 1; id <= 30; id++) {
+            catalog.put(id, drug(id, "阿药" + "片".repeat((int) (id % 4)) + id, id + "mg", 1));
+        }
+        DrugSuggestIndex incremental = DrugSuggestIndex.of(catalog.values());
+        List<Drug> changes = List.of(
+                drug(3L, "布洛芬" + 3, "3mg", 1),
+                drug(31L, "阿", "1mg", 1),
+                drug(4L, "阿药片片片4", "4mg", 0),
+                drug(8L, "阿莫西林", "8mg", 1),
+                drug(31L, "阿药31", "1mg", 1));
+        for (Drug change : changes) {
+            incremental = incremental.with(change);
+            catalog.put(change.getDrugId(), change);
+            assertSameSuggestions(DrugSuggestIndex.of(catalog.values()), incremental);
+        }
+        for (long id = 1; id <= 12; id++) {
+            incremental = incremental.without(id);
+            catalog.remove(id);
+            assertSameSuggestions(DrugSuggestIndex.of(catalog.values()), incremental);
+        }
+        assertEquals(19, incremental.size());
+    }
+
+    private static void assertSameSuggestions(DrugSuggestIndex expected, DrugSuggestIndex actual) {
+        for (String keyword : List.of("阿", "阿药", "阿药片", "阿药片片", "ay", "ayp", "布洛", "阿莫", "1", "2mg", "阿要片片")) {
+            assertEquals(ids(expected.suggest(keyword, 20)), ids(actual.suggest(keyword, 20)), keyword);
+        }
+    }
+
+    private static List<Long> ids(List<Drug> drugs) {
+        return drugs.stream().map(Drug::getDrugId).toList();
+    }
+
+    private static Drug drug(Long drugId, String name, String specification, int status) {
+        Drug drug = new Drug();
+        drug.setDrugId(drugId);
+        drug.setDrugName(name);
+        drug.setSpecification(specification);
+        drug.setPrice(12.5);
+        drug.setStatus(status);
+        return drug;
+    }
+}
@@ -0,0 +1,75 @@
+package org.code.privateclinic.search;
+
+import org.code.privateclinic.bean.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 患者查找索引单元测试
+ */
+class PatientLookupIndexTest {
+
+    private PatientLookupIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientLookupIndex();
+        index.put(patient(1L, "张三", "13800138000"));
+        index.put(patient(2L, "张三丰", "13900001234"));
+        index.put(patient(3L, "李四", "021-6543 1234"));
+        index.put(patient(4L, "曾小贤", "13700000004"));
+        index.put(patient(5L, "张三", "13600000005"));
+    }
+
+    /**
+     * 单元测试: 姓名前缀匹配时完全匹配的排在前面，同名患者新登记的在前；拼音首字母与手机尾号匹配；数量受 limit 限制
+     */
+    @Test
+    void testLookupByNameInitialsAndPhone() {
+        assertEquals(List.of(5L, 1L, 2L), ids(index.lookup("张三", 10)));
+        assertEquals(List.of(5L, 1L), ids(index.lookup("张", 2)));
+        assertEquals(List.of(5L, 1L, 2L), ids(index.lookup("ZS", 10)));
+        assertEquals(List.of(2L), ids(index.lookup("zsf", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.lookup("1234", 10)).stream().sorted().toList());
+        assertEquals(List.of(1L), ids(index.lookup("１３８００１３８０００", 10)));
+        assertTrue(index.lookup("王", 10).isEmpty());
+
+        // 多音字按各个读音展开：曾 可读 zeng 或 ceng
+        assertEquals(List.of(4L), ids(index.lookup("zxx", 10)));
+        assertEquals(List.of(4L), ids(index.lookup("cxx", 10)));
+        assertNull(index.lookup("曾小", 10).get(0).getAddress());
+    }
+
+    /**
+     * 单元测试: 修改后旧姓名、旧手机号不再命中，删除后查不到
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.put(patient(1L, "王五", "13800138999"));
+        index.remove(2L);
+
+        assertEquals(List.of(5L), ids(index.lookup("张", 10)));
+        assertEquals(List.of(1L), ids(index.lookup("ww", 10)));
+        assertTrue(index.lookup("8000", 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.lookup("1234", 10)));
+        assertEquals(4, index.size());
+    }
+
+    private static List<Long> ids(List<Patient> patients) {
+        return patients.stream().map(Patient::getPatientId).toList();
+    }
+
+    private static Patient patient(Long patientId, String name, String phone) {
+        Patient patient = new Patient();
+        patient.setPatientId(patientId);
+        patient.setPatientName(name);
+        patient.setPhone(phone);
+        patient.setAddress("上海市");
+        patient.setDoctorId(1L);
+        return patient;
+    }
+}
@@ -1,13 +1,18 @@
 package org.code.privateclinic.service;
 
 import org.code.privateclinic.bean.MedicalCase;
+import org.code.privateclinic.bean.SearchPage;
+import org.code.privateclinic.config.PaginationProperties;
 import org.code.privateclinic.mapper.MedicalCaseMapper;
+import org.code.privateclinic.search.CaseSearchIndex;
+import org.code.privateclinic.search.CaseSearchIndexer;
 import org.code.privateclinic.service.impl.MedicalCaseServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -25,6 +30,12 @@ class MedicalCaseServiceTest {
     @Mock
     private MedicalCaseMapper medicalCaseMapper;
 
+    @Mock
+    private CaseSearchIndexer caseSearchIndexer;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     @InjectMocks
     private MedicalCaseServiceImpl medicalCaseService;
 
@@ -46,14 +57,33 @@ class MedicalCaseServiceTest {
     @Test
     void testGetMedicalCaseByPatientId() {
         List<MedicalCase> mockCases = List.of(testMedicalCase);
-        when(medicalCaseMapper.getMedicalCaseByPatientId(1L)).thenReturn(mockCases);
+        when(medicalCaseMapper.getMedicalCaseByPatientId(1L, 1000)).thenReturn(mockCases);
 
         List<MedicalCase> result = medicalCaseService.getMedicalCaseByPatientId(1L);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("NEW", result.get(0).getCaseStatus());
-        verify(medicalCaseMapper, times(1)).getMedicalCaseByPatientId(1L);
+        verify(medicalCaseMapper, times(1)).getMedicalCaseByPatientId(1L, 1000);
+    }
+
+    /**
+     * 单元测试: 全文搜索结果按索引给出的相关度排序，已删除（查不到）的病例跳过
+     */
+    @Test
+    void testSearchMedicalCasesKeepsRankOrder() {
+        MedicalCase second = new MedicalCase();
+        second.setCaseId(2L);
+        when(caseSearchIndexer.search("咳嗽", 1L, 20, 20))
+                .thenReturn(new CaseSearchIndex.SearchHits(45, List.of(2L, 3L, 1L)));
+        when(medicalCaseMapper.getMedicalCasesByIds(List.of(2L, 3L, 1L))).thenReturn(List.of(testMedicalCase, second));
+
+        SearchPage<MedicalCase> result = medicalCaseService.searchMedicalCases("咳嗽", 1L, 2, null);
+
+        assertEquals(List.of(2L, 1L), result.getItems().stream().map(MedicalCase::getCaseId).toList());
+        assertEquals(45, result.getTotal());
+        assertEquals(2, result.getPage());
+        assertThrows(RuntimeException.class, () -> medicalCaseService.searchMedicalCases(" ", null, 1, 20));
     }
 }
 
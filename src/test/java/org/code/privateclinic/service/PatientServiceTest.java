@@ -1,19 +1,46 @@
 package org.code.privateclinic.service;
 
+import org.code.privateclinic.bean.CursorPage;
+import org.code.privateclinic.bean.MedicalCase;
 import org.code.privateclinic.bean.Patient;
+import org.code.privateclinic.bean.PatientTimeline;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.common.PageCursor;
+import org.code.privateclinic.config.PaginationProperties;
+import org.code.privateclinic.mapper.MedicalCaseMapper;
 import org.code.privateclinic.mapper.PatientMapper;
+import org.code.privateclinic.mapper.PrescriptionItemMapper;
+import org.code.privateclinic.mapper.PrescriptionMapper;
+import org.code.privateclinic.search.PatientLookupIndexer;
 import org.code.privateclinic.service.impl.PatientServiceImpl;
+import org.code.privateclinic.stats.DashboardCounters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -25,6 +52,30 @@ class PatientServiceTest {
     @Mock
     private PatientMapper patientMapper;
 
+    @Mock
+    private MedicalCaseMapper medicalCaseMapper;
+
+    @Mock
+    private PrescriptionMapper prescriptionMapper;
+
+    @Mock
+    private PrescriptionItemMapper prescriptionItemMapper;
+
+    @Mock
+    private PatientTimelineCache patientTimelineCache;
+
+    @Mock
+    private PatientLookupIndexer patientLookupIndexer;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -48,14 +99,181 @@ class PatientServiceTest {
     @Test
     void testGetPatientList() {
         List<Patient> mockPatients = List.of(testPatient);
-        when(patientMapper.getPatientList()).thenReturn(mockPatients);
+        when(patientMapper.getPatientList(1000)).thenReturn(mockPatients);
 
         List<Patient> result = patientService.getPatientList();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("张三", result.get(0).getPatientName());
-        verify(patientMapper, times(1)).getPatientList();
+        verify(patientMapper, times(1)).getPatientList(1000);
+    }
+
+    /**
+     * 单元测试: 游标分页多查一条判断是否有下一页，下一页使用上一页最后一条记录的游标
+     */
+    @Test
+    void testGetPatientPage() {
+        List<Patient> rows = new ArrayList<>();
+        for (long id = 5; id >= 3; id--) {
+            Patient patient = new Patient();
+            patient.setPatientId(id);
+            patient.setCreateTime(LocalDateTime.of(2025, 3, 1, 8, 0));
+            rows.add(patient);
+        }
+        when(patientMapper.getPatientPage(eq(1L), isNull(), eq(3))).thenReturn(rows);
+
+        CursorPage<Patient> page = patientService.getPatientPage(1L, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        PageCursor cursor = PageCursor.decode(page.getNextCursor(), true);
+        assertEquals(4L, cursor.getId());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 8, 0), cursor.getCreateTime());
+
+        when(patientMapper.getPatientPage(eq(1L), any(PageCursor.class), eq(3))).thenReturn(List.of(rows.get(2)));
+        CursorPage<Patient> last = patientService.getPatientPage(1L, page.getNextCursor(), 2);
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+
+        assertThrows(RuntimeException.class, () -> patientService.getPatientPage(1L, "not-a-cursor", 2));
+    }
+
+    /**
+     * 单元测试: 查找患者走内存索引，不查询数据库；数量按分页大小限制，关键词不能为空
+     */
+    @Test
+    void testLookupPatients() {
+        when(patientLookupIndexer.lookup("zs", 20)).thenReturn(List.of(testPatient));
+        when(patientLookupIndexer.lookup("8000", 100)).thenReturn(List.of(testPatient));
+
+        assertEquals(List.of(testPatient), patientService.lookupPatients("zs", null));
+        assertEquals(List.of(testPatient), patientService.lookupPatients("8000", 500));
+        assertThrows(RuntimeException.class, () -> patientService.lookupPatients(" ", 10));
+        verifyNoInteractions(patientMapper);
     }
-}
 
+    /**
+     * 单元测试: 新增、修改、删除患者后更新查找索引
+     */
+    @Test
+    void testWritesRefreshLookupIndex() {
+        when(patientMapper.addPatient(testPatient)).thenReturn(1);
+        when(patientMapper.updatePatient(testPatient)).thenReturn(1);
+        when(patientMapper.getPatientById(1L)).thenReturn(testPatient);
+        when(patientMapper.deletePatient(1L)).thenReturn(1);
+
+        patientService.addPatient(testPatient);
+        patientService.updatePatient(testPatient);
+        patientService.deletePatient(1L);
+
+        verify(patientLookupIndexer, times(2)).refreshAfterCommit(1L);
+        verify(patientLookupIndexer).removeAfterCommit(1L);
+    }
+
+    /**
+     * 单元测试: 患者病历时间线的四个查询并发执行，结果按病例、处方、明细组装
+     */
+    @Test
+    void testGetPatientTimelineRunsQueriesConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(patientService, "timelineExecutor", new TaskExecutorAdapter(executor));
+        ReflectionTestUtils.setField(patientService, "timelineTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(patientService, "timelineItemLimit", 5000);
+        when(patientTimelineCache.get(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<PatientTimeline>>getArgument(1).get());
+
+        // 四个查询都要等到彼此同时在执行才返回，顺序执行时会超时
+        CountDownLatch running = new CountDownLatch(4);
+        MedicalCase medicalCase = new MedicalCase();
+        medicalCase.setCaseId(10L);
+        Prescription prescription = new Prescription();
+        prescription.setPrescriptionId(100L);
+        prescription.setCaseId(10L);
+        PrescriptionItem item = new PrescriptionItem();
+        item.setPrescriptionId(100L);
+        when(patientMapper.getPatientById(1L)).thenAnswer(invocation -> awaitAll(running, testPatient));
+        when(medicalCaseMapper.getMedicalCaseByPatientId(1L, 1000)).thenAnswer(invocation -> awaitAll(running, List.of(medicalCase)));
+        when(prescriptionMapper.getPrescriptionByPatientId(1L, 1000)).thenAnswer(invocation -> awaitAll(running, List.of(prescription)));
+        when(prescriptionItemMapper.getPrescriptionItemsByPatientId(1L, 5000)).thenAnswer(invocation -> awaitAll(running, List.of(item)));
+
+        try {
+            PatientTimeline timeline = patientService.getPatientTimeline(1L);
+
+            assertEquals(testPatient, timeline.getPatient());
+            assertEquals(List.of(prescription), timeline.getCases().get(0).getPrescriptions());
+            assertEquals(List.of(item), timeline.getCases().get(0).getPrescriptions().get(0).getItems());
+            assertFalse(timeline.isTruncated());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 单元测试: 时间线超时后报错，仍在执行的查询线程被中断
+     */
+    @Test
+    void testGetPatientTimelineTimeoutInterruptsQueries() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(patientService, "timelineExecutor", new TaskExecutorAdapter(executor));
+        ReflectionTestUtils.setField(patientService, "timelineTimeout", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(patientService, "timelineItemLimit", 5000);
+        when(patientTimelineCache.get(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<PatientTimeline>>getArgument(1).get());
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(prescriptionItemMapper.getPrescriptionItemsByPatientId(1L, 5000)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+
+        try {
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> patientService.getPatientTimeline(1L));
+            assertEquals("患者病历加载超时", exception.getMessage());
+            assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 单元测试: 线程池已满拒绝查询时立即报错，不在请求线程中执行查询，已提交的查询被取消
+     */
+    @Test
+    void testGetPatientTimelineRejectedWhenExecutorIsFull() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        ReflectionTestUtils.setField(patientService, "timelineExecutor", new TaskExecutorAdapter(executor));
+        ReflectionTestUtils.setField(patientService, "timelineTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(patientService, "timelineItemLimit", 5000);
+        when(patientTimelineCache.get(eq(1L), any())).thenAnswer(invocation -> invocation.<Supplier<PatientTimeline>>getArgument(1).get());
+
+        lenient().when(patientMapper.getPatientById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return testPatient;
+        });
+
+        try {
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> patientService.getPatientTimeline(1L));
+            assertTrue(exception.getMessage().startsWith("患者病历加载失败"));
+            verify(medicalCaseMapper, never()).getMedicalCaseByPatientId(anyLong(), anyInt());
+            // 已提交的查询被取消：尚未开始的不再执行，执行中的被中断，线程很快空闲
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (executor.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, executor.getActiveCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T awaitAll(CountDownLatch running, T result) throws InterruptedException {
+        running.countDown();
+        if (!running.await(2, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("查询未并发执行");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package org.code.privateclinic.service;
+
+import org.code.privateclinic.bean.Drug;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.bean.PrescriptionItem;
+import org.code.privateclinic.cache.PatientTimelineCache;
+import org.code.privateclinic.mapper.DrugMapper;
+import org.code.privateclinic.mapper.PrescriptionItemMapper;
+import org.code.privateclinic.mapper.PrescriptionMapper;
+import org.code.privateclinic.service.impl.PrescriptionServiceImpl;
+import org.code.privateclinic.stats.DashboardCounters;
+import org.code.privateclinic.stock.StockLedger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 处方服务单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class PrescriptionServiceTest {
+
+    @Mock
+    private PrescriptionMapper prescriptionMapper;
+
+    @Mock
+    private PrescriptionItemMapper prescriptionItemMapper;
+
+    @Mock
+    private DrugMapper drugMapper;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private PatientTimelineCache patientTimelineCache;
+
+    @InjectMocks
+    private PrescriptionServiceImpl prescriptionService;
+
+    /**
+     * 单元测试: 一次性创建处方，单价取数据库中药品的当前价格，总金额由服务端计算，明细一次批量插入
+     */
+    @Test
+    void testAddPrescriptionWithItems() {
+        when(drugMapper.getDrugPricesLocked(List.of(1L, 2L))).thenReturn(List.of(drug(1L, 12.5), drug(2L, 3.0)));
+        when(prescriptionMapper.addPrescription(any(Prescription.class))).thenAnswer(invocation -> {
+            invocation.<Prescription>getArgument(0).setPrescriptionId(10L);
+            return 1;
+        });
+
+        Prescription prescription = new Prescription();
+        prescription.setCaseId(1L);
+        prescription.setDoctorId(2L);
+        prescription.setTotalAmount(new BigDecimal("0.01"));
+        prescription.setItems(List.of(item(1L, 2, "99.00"), item(2L, 3, null)));
+
+        Prescription result = prescriptionService.addPrescriptionWithItems(prescription);
+
+        assertEquals(0, new BigDecimal("34.00").compareTo(result.getTotalAmount()));
+        assertEquals(0, new BigDecimal("12.50").compareTo(result.getItems().get(0).getPrice()));
+        assertTrue(result.getItems().stream().allMatch(item -> item.getPrescriptionId() == 10L));
+        verify(prescriptionItemMapper, times(1)).addPrescriptionItems(anyList());
+        verify(prescriptionItemMapper, never()).addPrescriptionItem(any());
+        verify(stockLedger).dispense(result.getItems());
+    }
+
+    /**
+     * 单元测试: 含已停用药品时整单拒绝，不插入任何数据
+     */
+    @Test
+    void testAddPrescriptionWithDisabledDrug() {
+        Drug disabled = drug(1L, 12.5);
+        disabled.setStatus(0);
+        when(drugMapper.getDrugPricesLocked(List.of(1L))).thenReturn(List.of(disabled));
+
+        Prescription prescription = new Prescription();
+        prescription.setCaseId(1L);
+        prescription.setDoctorId(2L);
+        prescription.setItems(List.of(item(1L, 1, null)));
+
+        assertThrows(RuntimeException.class, () -> prescriptionService.addPrescriptionWithItems(prescription));
+        verify(prescriptionMapper, never()).addPrescription(any());
+    }
+
+    /**
+     * 单元测试: 为多个处方填充明细只查询一次，明细按处方分组，没有明细的处方得到空列表
+     */
+    @Test
+    void testAttachItemsWithSingleQuery() {
+        Prescription first = new Prescription();
+        first.setPrescriptionId(1L);
+        Prescription second = new Prescription();
+        second.setPrescriptionId(2L);
+        PrescriptionItem item1 = item(1L, 1, null);
+        item1.setPrescriptionId(1L);
+        PrescriptionItem item2 = item(2L, 2, null);
+        item2.setPrescriptionId(1L);
+        when(prescriptionItemMapper.getPrescriptionItemsByPrescriptionIds(anyCollection())).thenReturn(List.of(item2, item1));
+
+        List<Prescription> result = prescriptionService.attachItems(List.of(first, second));
+
+        assertEquals(List.of(item2, item1), result.get(0).getItems());
+        assertTrue(result.get(1).getItems().isEmpty());
+        verify(prescriptionItemMapper, times(1)).getPrescriptionItemsByPrescriptionIds(anyCollection());
+        verify(prescriptionItemMapper, never()).getPrescriptionItemByPrescriptionId(any());
+    }
+
+    private Drug drug(Long drugId, double price) {
+        Drug drug = new Drug();
+        drug.setDrugId(drugId);
+        drug.setPrice(price);
+        drug.setStatus(1);
+        return drug;
+    }
+
+    private PrescriptionItem item(Long drugId, int quantity, String price) {
+        PrescriptionItem item = new PrescriptionItem();
+        item.setDrugId(drugId);
+        item.setQuantity(quantity);
+        if (price != null) {
+            item.setPrice(new BigDecimal(price));
+        }
+        return item;
+    }
+}
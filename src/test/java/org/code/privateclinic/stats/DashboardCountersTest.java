@@ -0,0 +1,126 @@
+package org.code.privateclinic.stats;
+
+import org.code.privateclinic.bean.DashboardSummary;
+import org.code.privateclinic.bean.Prescription;
+import org.code.privateclinic.mapper.DashboardMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 看板计数单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardCountersTest {
+
+    @Mock
+    private DashboardMapper dashboardMapper;
+
+    @InjectMocks
+    private DashboardCounters dashboardCounters;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dashboardCounters, "reconcileInterval", Duration.ofMinutes(5));
+        when(dashboardMapper.countPatients()).thenReturn(3L);
+        when(dashboardMapper.countMedicalCasesByStatus()).thenReturn(List.of(
+                Map.of("caseStatus", "NEW", "caseCount", 2L),
+                Map.of("caseStatus", "FINISHED", "caseCount", 1L)));
+        when(dashboardMapper.sumPrescriptionsSince(any())).thenReturn(
+                Map.of("prescriptionCount", 1L, "revenue", new BigDecimal("20.00")));
+    }
+
+    /**
+     * 单元测试: 首次读取时从数据库统计，之后的增删改只调整计数，不再查询
+     */
+    @Test
+    void testIncrementalUpdatesAfterReconcile() {
+        dashboardCounters.snapshot();
+
+        dashboardCounters.patientAdded();
+        dashboardCounters.caseAdded("NEW");
+        dashboardCounters.caseStatusChanged("NEW", "FINISHED");
+        dashboardCounters.prescriptionAdded(new BigDecimal("15.50"));
+        DashboardSummary summary = dashboardCounters.snapshot();
+
+        assertEquals(4, summary.getPatientCount());
+        assertEquals(4, summary.getCaseCount());
+        assertEquals(Map.of("NEW", 2L, "FINISHED", 2L), summary.getCaseStatusCounts());
+        assertEquals(2, summary.getPrescriptionCountToday());
+        assertEquals(0, new BigDecimal("35.50").compareTo(summary.getRevenueToday()));
+        verify(dashboardMapper, times(1)).countPatients();
+    }
+
+    /**
+     * 单元测试: 删除今日处方扣减今日计数；级联删除标记待校准，下一次检查时以数据库为准
+     */
+    @Test
+    void testCascadeDeleteTriggersReconcile() {
+        dashboardCounters.snapshot();
+        Prescription prescription = new Prescription();
+        prescription.setTotalAmount(new BigDecimal("20.00"));
+        prescription.setCreateTime(LocalDateTime.now());
+
+        dashboardCounters.prescriptionDeleted(prescription);
+        assertEquals(0, dashboardCounters.snapshot().getPrescriptionCountToday());
+
+        // 距上次校准未超过间隔且未标记待校准时不查询
+        dashboardCounters.reconcileIfNeeded();
+        verify(dashboardMapper, times(1)).countPatients();
+
+        dashboardCounters.patientDeleted();
+        dashboardCounters.reconcileIfNeeded();
+
+        verify(dashboardMapper, times(2)).countPatients();
+        assertEquals(3, dashboardCounters.snapshot().getPatientCount());
+        assertEquals(1, dashboardCounters.snapshot().getPrescriptionCountToday());
+    }
+
+    /**
+     * 单元测试: 事务中的变动提交前不计入，回滚后也不计入；事务未结束时的校准保留待校准标记
+     */
+    @Test
+    void testRolledBackChangesAreNotCounted() {
+        dashboardCounters.snapshot();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dashboardCounters.patientAdded();
+            dashboardCounters.caseAdded("NEW");
+            dashboardCounters.prescriptionAdded(new BigDecimal("15.50"));
+            assertEquals(3, dashboardCounters.snapshot().getPatientCount());
+
+            dashboardCounters.reconcile();
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        DashboardSummary summary = dashboardCounters.snapshot();
+        assertEquals(3, summary.getPatientCount());
+        assertEquals(3, summary.getCaseCount());
+        assertEquals(1, summary.getPrescriptionCountToday());
+        assertEquals(0, new BigDecimal("20.00").compareTo(summary.getRevenueToday()));
+
+        dashboardCounters.reconcileIfNeeded();
+        verify(dashboardMapper, times(3)).countPatients();
+    }
+}
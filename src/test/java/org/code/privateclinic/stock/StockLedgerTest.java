@@ -0,0 +1,190 @@
+package org.code.privateclinic.stock;
+
+import org.code.privateclinic.bean.StockMovement;
+import org.code.privateclinic.mapper.StockMovementMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 库存流水单元测试，库存闸门运行在内嵌 Redis 上，验证 Lua 脚本的原子性
+ */
+class StockLedgerTest {
+
+    private static final Long DRUG_ID = 1L;
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private StockMovementMapper stockMovementMapper;
+
+    private StockGate stockGate;
+
+    private StockLedger stockLedger;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        stockGate = new StockGate();
+        ReflectionTestUtils.setField(stockGate, "stringRedisTemplate", stringRedisTemplate);
+        stockGate.evict(DRUG_ID);
+        stockMovementMapper = mock(StockMovementMapper.class);
+        stockLedger = new StockLedger();
+        ReflectionTestUtils.setField(stockLedger, "stockGate", stockGate);
+        ReflectionTestUtils.setField(stockLedger, "stockMovementMapper", stockMovementMapper);
+    }
+
+    /**
+     * 单元测试: 并发出库同一药品，成功出库的总量恰好等于库存，不会超卖
+     */
+    @Test
+    void testConcurrentDispenseNeverOversells() throws Exception {
+        when(stockMovementMapper.getAvailableStock(DRUG_ID)).thenReturn(50);
+        int threads = 16;
+        int attemptsPerThread = 25;
+        AtomicInteger dispensed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int quantity = t % 3 + 1;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (inTransaction(() -> stockLedger.dispense(DRUG_ID, quantity, null), true)) {
+                        dispensed.addAndGet(quantity);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        long remaining = stockLedger.getAvailableStock(DRUG_ID);
+        assertTrue(rejected.get() > 0);
+        assertTrue(remaining >= 0 && remaining < 3);
+        assertEquals(50, dispensed.get() + remaining);
+    }
+
+    /**
+     * 单元测试: 事务回滚时归还预占的库存；归还在提交后才生效
+     */
+    @Test
+    void testRollbackReturnsReservationAndReleaseAppliesAfterCommit() {
+        when(stockMovementMapper.getAvailableStock(DRUG_ID)).thenReturn(10);
+
+        assertTrue(inTransaction(() -> stockLedger.dispense(DRUG_ID, 4, 100L), false));
+        assertEquals(10, stockLedger.getAvailableStock(DRUG_ID));
+
+        assertTrue(inTransaction(() -> stockLedger.dispense(DRUG_ID, 4, 101L), true));
+        assertEquals(6, stockLedger.getAvailableStock(DRUG_ID));
+
+        assertFalse(inTransaction(() -> stockLedger.dispense(DRUG_ID, 7, 102L), true));
+        assertTrue(inTransaction(() -> stockLedger.release(DRUG_ID, 4, 101L), true));
+        assertEquals(10, stockLedger.getAvailableStock(DRUG_ID));
+        verify(stockMovementMapper, times(3)).addStockMovement(any(StockMovement.class));
+    }
+
+    /**
+     * 单元测试: 预占之后计数键被重新加载（加载结果不含本次预占），出库回滚且不把预占加回新加载的计数；
+     * 追加归还流水之后重新加载（加载结果已含本次归还），提交后不重复加回
+     */
+    @Test
+    void testReloadDuringOpenTransaction() {
+        when(stockMovementMapper.getAvailableStock(DRUG_ID)).thenReturn(10);
+        assertEquals(10, stockLedger.getAvailableStock(DRUG_ID));
+
+        doAnswer(invocation -> {
+            reload();
+            return 1;
+        }).when(stockMovementMapper).addStockMovement(any(StockMovement.class));
+        assertFalse(inTransaction(() -> stockLedger.dispense(DRUG_ID, 4, 100L), true));
+        assertEquals(10, stockLedger.getAvailableStock(DRUG_ID));
+
+        doReturn(1).when(stockMovementMapper).addStockMovement(any(StockMovement.class));
+        when(stockMovementMapper.getAvailableStock(DRUG_ID)).thenReturn(13);
+        assertTrue(inTransaction(() -> {
+            stockLedger.release(DRUG_ID, 3, 101L);
+            // 重新加载等到本事务提交后才读到流水，在提交后的归还之前完成
+            reload();
+        }, true));
+        assertEquals(13, stockLedger.getAvailableStock(DRUG_ID));
+    }
+
+    private void reload() {
+        stockGate.evict(DRUG_ID);
+        stockLedger.getAvailableStock(DRUG_ID);
+    }
+
+    /**
+     * 在模拟的事务中执行，执行完按 commit 提交或回滚；库存不足时返回 false
+     */
+    private static boolean inTransaction(Runnable action, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        boolean success = true;
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            success = false;
+            commit = false;
+        }
+        int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        try {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                if (commit) {
+                    synchronization.afterCommit();
+                }
+                synchronization.afterCompletion(status);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        return success;
+    }
+}
@@ -0,0 +1,82 @@
+package org.code.privateclinic.support;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfiguration;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 测试用的内嵌 MariaDB（MySQL 兼容），每个实例在同一个测试进程内只启动一次，进程退出时停止
+ * 库由驱动按 createDatabaseIfNotExist 建立，不依赖 MariaDB 命令行客户端
+ * 需要多个数据库实例（如主库与副本）时按实例名区分
+ */
+public final class EmbeddedMariaDb {
+
+    /**
+     * MariaDB 10.11 没有 MySQL 8 的 utf8mb4_0900_ai_ci，迁移脚本的 table_collation 占位符改用 MariaDB 的默认规则
+     */
+    public static final String TABLE_COLLATION = "utf8mb4_general_ci";
+
+    private static final String DEFAULT_INSTANCE = "default";
+
+    /**
+     * 实例名 → 端口
+     */
+    private static final Map<String, Integer> PORTS = new HashMap<>();
+
+    private EmbeddedMariaDb() {
+    }
+
+    /**
+     * 指定库的 JDBC 地址（MySQL 驱动），第一次调用时启动数据库
+     */
+    public static String jdbcUrl(String database) {
+        return jdbcUrl(DEFAULT_INSTANCE, database);
+    }
+
+    /**
+     * 指定实例上指定库的 JDBC 地址，实例第一次使用时启动
+     */
+    public static synchronized String jdbcUrl(String instance, String database) {
+        int port = PORTS.computeIfAbsent(instance, name -> start());
+        return "jdbc:mysql://localhost:" + port + "/" + database
+                + "?createDatabaseIfNotExist=true&rewriteBatchedStatements=true";
+    }
+
+    /**
+     * 在指定库上执行 db/migration 迁移的 Flyway 配置
+     */
+    public static FluentConfiguration flyway(String jdbcUrl) {
+        return Flyway.configure()
+                .dataSource(jdbcUrl, "root", "")
+                .placeholders(Map.of("table_collation", TABLE_COLLATION));
+    }
+
+    private static int start() {
+        DBConfigurationBuilder builder = DBConfigurationBuilder.newBuilder();
+        builder.setPort(0);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // 以 root 运行（如 CI 容器）时 mariadbd 要求显式指定用户
+            builder.addArg("--user=root");
+        }
+        DBConfiguration config = builder.build();
+        try {
+            DB started = DB.newEmbeddedDB(config);
+            started.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.stop();
+                } catch (Exception ignored) {
+                    // 进程退出时尽力停止
+                }
+            }));
+            return config.getPort();
+        } catch (Exception e) {
+            throw new IllegalStateException("内嵌 MariaDB 启动失败", e);
+        }
+    }
+}
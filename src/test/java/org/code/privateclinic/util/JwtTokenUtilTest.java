@@ -0,0 +1,100 @@
+package org.code.privateclinic.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.code.privateclinic.config.JwtProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT 密钥环单元测试
+ */
+class JwtTokenUtilTest {
+
+    private static final String SECRET1 = "mySecretKey1234567890abcdefghijklmnopqrstuvwxyz";
+    private static final String SECRET2 = "qwertyuioplkjhgfdsazxcvbnm1092837456mySecretKey";
+
+    /**
+     * 单元测试: 签发的 Token 携带当前签发密钥的 kid，且可以验证通过
+     */
+    @Test
+    void testGenerateTokenWithActiveKeyId() {
+        JwtProperties properties = properties(key("k1", SECRET1, null, null), key("k2", SECRET2, null, null));
+        properties.setActiveKeyId("k2");
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new JwtKeyRing(properties), properties);
+
+        String token = jwtTokenUtil.generateToken("1", Map.of("userName", "doctor1"));
+
+        assertEquals("k2", Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET2.getBytes(StandardCharsets.UTF_8)))
+                .build().parseSignedClaims(token).getHeader().getKeyId());
+        assertEquals("doctor1", jwtTokenUtil.getUsernameFromToken(token));
+    }
+
+    /**
+     * 单元测试: 未携带 kid 的旧 Token 使用第一个密钥验证
+     */
+    @Test
+    void testValidateLegacyTokenWithoutKeyId() {
+        JwtProperties properties = properties(key("k1", SECRET1, null, null), key("k2", SECRET2, null, null));
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(new JwtKeyRing(properties), properties);
+
+        Claims claims = jwtTokenUtil.validateToken(legacyToken(SECRET1));
+
+        assertNotNull(claims);
+        assertEquals("1", claims.getSubject());
+        assertNull(jwtTokenUtil.validateToken(legacyToken(SECRET2)));
+    }
+
+    /**
+     * 单元测试: 到达生效时间的密钥接替签发，已退役密钥签发的 Token（包括已缓存的）不再有效
+     */
+    @Test
+    void testScheduledRotationAndRetirement() {
+        OffsetDateTime now = OffsetDateTime.now();
+        JwtProperties.KeyDefinition oldKey = key("k1", SECRET1, null, null);
+        JwtProperties properties = properties(oldKey, key("k2", SECRET2, now.minusMinutes(1), null));
+        JwtKeyRing keyRing = new JwtKeyRing(properties);
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(keyRing, properties);
+        assertEquals("k2", keyRing.getActiveKeyId());
+
+        String oldToken = legacyToken(SECRET1);
+        assertNotNull(jwtTokenUtil.validateToken(oldToken));
+
+        oldKey.setRetireAt(now.minusSeconds(1));
+        keyRing.refresh();
+
+        assertNull(jwtTokenUtil.validateToken(oldToken));
+        assertNotNull(jwtTokenUtil.validateToken(jwtTokenUtil.generateToken("1", null)));
+    }
+
+    private static String legacyToken(String secret) {
+        return Jwts.builder()
+                .subject("1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static JwtProperties properties(JwtProperties.KeyDefinition... keys) {
+        JwtProperties properties = new JwtProperties();
+        properties.setKeys(List.of(keys));
+        return properties;
+    }
+
+    private static JwtProperties.KeyDefinition key(String id, String secret, OffsetDateTime activateAt, OffsetDateTime retireAt) {
+        JwtProperties.KeyDefinition definition = new JwtProperties.KeyDefinition();
+        definition.setId(id);
+        definition.setSecret(secret);
+        definition.setActivateAt(activateAt);
+        definition.setRetireAt(retireAt);
+        return definition;
+    }
+}